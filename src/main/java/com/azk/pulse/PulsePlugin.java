@@ -13,6 +13,7 @@ import com.azk.pulse.modules.logs.LogsModule;
 import com.azk.pulse.modules.moderation.ModerationModule;
 import com.azk.pulse.modules.moderation.ReportCommand;
 import com.azk.pulse.modules.performance.PerformanceModule;
+import com.azk.pulse.storage.StorageService;
 import org.bukkit.command.PluginCommand;
 import org.bukkit.plugin.java.JavaPlugin;
 
@@ -21,6 +22,7 @@ public class PulsePlugin extends JavaPlugin {
     private ModuleManager moduleManager;
     private CommandRegistry commandRegistry;
     private Lang lang;
+    private StorageService storage;
 
     private PerformanceModule performanceModule;
     private LogsModule logsModule;
@@ -34,6 +36,8 @@ public class PulsePlugin extends JavaPlugin {
         configFiles.loadAll();
         lang = new Lang(this);
         lang.load();
+        storage = new StorageService(this);
+        storage.start(configFiles.getMain());
 
         commandRegistry = new CommandRegistry();
         moduleManager = new ModuleManager(this, configFiles, commandRegistry);
@@ -73,6 +77,9 @@ public class PulsePlugin extends JavaPlugin {
         if (moduleManager != null) {
             moduleManager.shutdown();
         }
+        if (storage != null) {
+            storage.shutdown();
+        }
     }
 
     public void reloadAll() {
@@ -94,4 +101,12 @@ public class PulsePlugin extends JavaPlugin {
     public Lang getLang() {
         return lang;
     }
+
+    public StorageService getStorage() {
+        return storage;
+    }
+
+    public LogsModule getLogsModule() {
+        return logsModule;
+    }
 }
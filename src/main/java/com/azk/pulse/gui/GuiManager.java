@@ -50,7 +50,7 @@ public class GuiManager {
         this.moderationModule = moderationModule;
         this.actionKey = new NamespacedKey(plugin, "pulse_gui_action");
         this.moduleKey = new NamespacedKey(plugin, "pulse_gui_module");
-        this.metrics = new PerformanceMetrics(plugin);
+        this.metrics = performanceModule.getMetrics();
     }
 
     public void openMain(Player player) {
@@ -108,9 +108,7 @@ public class GuiManager {
                         "players", Integer.toString(players)
                 ))));
 
-        HealthEvaluator.HealthResult health = HealthEvaluator.evaluate(metrics,
-                metrics.scanChunks(configFiles.getMain().getInt("performance.lag.max-chunks-scan", 2000)),
-                configFiles);
+        HealthEvaluator.HealthResult health = HealthEvaluator.evaluate(metrics, metrics.getChunkScanResult(), configFiles);
         List<String> healthLore = new ArrayList<>();
         String level = MessageUtil.tr(plugin, "health.level." + health.getLevel().toLowerCase(Locale.ROOT), health.getLevel());
         healthLore.add(tr("gui.diagnostics.health.score", java.util.Map.of("score", health.getScore() + "/100")));
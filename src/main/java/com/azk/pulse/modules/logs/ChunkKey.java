@@ -0,0 +1,22 @@
+package com.azk.pulse.modules.logs;
+
+public final class ChunkKey {
+    private ChunkKey() {
+    }
+
+    public static long of(int blockX, int blockZ) {
+        return ofChunk(blockX >> 4, blockZ >> 4);
+    }
+
+    public static long ofChunk(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    public static int chunkX(long key) {
+        return (int) (key >> 32);
+    }
+
+    public static int chunkZ(long key) {
+        return (int) key;
+    }
+}
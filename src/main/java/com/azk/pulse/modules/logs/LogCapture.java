@@ -0,0 +1,193 @@
+package com.azk.pulse.modules.logs;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+
+public class LogCapture {
+    private static final int MAX_CACHED_STATES = 16384;
+
+    private final LogRepository repository;
+    private final LogDictionary dictionary;
+    private final Map<UUID, Integer> players = new HashMap<>();
+    private final Map<String, Integer> actors = new HashMap<>();
+    private final Map<BlockData, Integer> states = new HashMap<>();
+    private final int[] materials = new int[Material.values().length];
+    private final int breakAction;
+    private final int placeAction;
+    private final int openAction;
+    private final int takeAction;
+    private final int putAction;
+    private final int explodeAction;
+    private final int burnAction;
+    private final int igniteAction;
+    private final int flowAction;
+    private final int pushAction;
+    private final int pullAction;
+    private final int killAction;
+    private final int dropAction;
+    private final int pickupAction;
+
+    public LogCapture(LogRepository repository) {
+        this.repository = repository;
+        this.dictionary = repository.dictionary();
+        this.breakAction = dictionary.actionId("BREAK");
+        this.placeAction = dictionary.actionId("PLACE");
+        this.openAction = dictionary.actionId("OPEN");
+        this.takeAction = dictionary.actionId("TAKE");
+        this.putAction = dictionary.actionId("PUT");
+        this.explodeAction = dictionary.actionId("EXPLODE");
+        this.burnAction = dictionary.actionId("BURN");
+        this.igniteAction = dictionary.actionId("IGNITE");
+        this.flowAction = dictionary.actionId("FLOW");
+        this.pushAction = dictionary.actionId("PUSH");
+        this.pullAction = dictionary.actionId("PULL");
+        this.killAction = dictionary.actionId("KILL");
+        this.dropAction = dictionary.actionId("DROP");
+        this.pickupAction = dictionary.actionId("PICKUP");
+    }
+
+    public void blockBreak(Player player, Block block) {
+        block(LogRepository.LogType.BLOCKS, player, block, breakAction, stateId(block.getBlockData()));
+    }
+
+    public void blockPlace(Player player, Block block) {
+        block(LogRepository.LogType.BLOCKS, player, block, placeAction, stateId(block.getBlockData()));
+    }
+
+    public void chestOpen(Player player, Block block) {
+        block(LogRepository.LogType.CHESTS, player, block, openAction, 0);
+    }
+
+    public void chestTransaction(Player player, Block block, Material item, int amount) {
+        repository.capture(LogRepository.LogType.CHESTS, System.currentTimeMillis(), playerId(player),
+                dictionary.worldId(block.getWorld().getName()), amount > 0 ? putAction : takeAction,
+                materialId(block.getType()), materialId(item), Math.abs(amount), block.getX(), block.getY(),
+                block.getZ());
+    }
+
+    public void explosion(String actor, List<Block> blocks) {
+        if (blocks.isEmpty()) {
+            return;
+        }
+        long time = System.currentTimeMillis();
+        int actorId = actorId(actor);
+        int worldId = dictionary.worldId(blocks.get(0).getWorld().getName());
+        for (Block block : blocks) {
+            Material material = block.getType();
+            if (!material.isAir()) {
+                record(LogRepository.LogType.EXPLOSIONS, time, actorId, worldId, block.getX(), block.getY(),
+                        block.getZ(), explodeAction, material, stateId(block.getBlockData()), 0);
+            }
+        }
+    }
+
+    public void burn(Block block) {
+        located(LogRepository.LogType.BURNS, actorId("#fire"), block, burnAction, block.getType(),
+                stateId(block.getBlockData()), 0);
+    }
+
+    public void ignite(Player player, String actor, Block block) {
+        located(LogRepository.LogType.BURNS, player != null ? playerId(player) : actorId(actor), block,
+                igniteAction, Material.FIRE, 0, 0);
+    }
+
+    public void flow(Block from, Block to) {
+        String actor = "#" + from.getType().name().toLowerCase(Locale.ROOT);
+        located(LogRepository.LogType.FLOWS, actorId(actor), to, flowAction, from.getType(),
+                stateId(from.getBlockData()), 0);
+    }
+
+    public void piston(List<Block> blocks, boolean extend) {
+        if (blocks.isEmpty()) {
+            return;
+        }
+        long time = System.currentTimeMillis();
+        int actorId = actorId("#piston");
+        int worldId = dictionary.worldId(blocks.get(0).getWorld().getName());
+        for (Block block : blocks) {
+            record(LogRepository.LogType.PISTONS, time, actorId, worldId, block.getX(), block.getY(), block.getZ(),
+                    extend ? pushAction : pullAction, block.getType(), stateId(block.getBlockData()), 0);
+        }
+    }
+
+    public void kill(Player killer, Entity entity) {
+        Location location = entity.getLocation();
+        repository.capture(LogRepository.LogType.KILLS, System.currentTimeMillis(), playerId(killer),
+                dictionary.worldId(location.getWorld().getName()), killAction,
+                dictionary.materialId(entity.getType().name()), 0, 0, location.getBlockX(), location.getBlockY(),
+                location.getBlockZ());
+    }
+
+    public void item(Player player, Material item, int amount, Location location, boolean drop) {
+        record(LogRepository.LogType.ITEMS, System.currentTimeMillis(), playerId(player),
+                dictionary.worldId(location.getWorld().getName()), location.getBlockX(), location.getBlockY(),
+                location.getBlockZ(), drop ? dropAction : pickupAction, item, 0, amount);
+    }
+
+    public void forget(Player player) {
+        players.remove(player.getUniqueId());
+    }
+
+    private void block(LogRepository.LogType type, Player player, Block block, int actionId, int stateId) {
+        located(type, playerId(player), block, actionId, block.getType(), stateId, 0);
+    }
+
+    private void located(LogRepository.LogType type, int playerId, Block block, int actionId, Material material,
+                         int detail, int amount) {
+        record(type, System.currentTimeMillis(), playerId, dictionary.worldId(block.getWorld().getName()),
+                block.getX(), block.getY(), block.getZ(), actionId, material, detail, amount);
+    }
+
+    private void record(LogRepository.LogType type, long time, int playerId, int worldId, int x, int y, int z,
+                        int actionId, Material material, int detail, int amount) {
+        repository.capture(type, time, playerId, worldId, actionId, materialId(material), detail, amount, x, y, z);
+    }
+
+    private int actorId(String actor) {
+        Integer id = actors.get(actor);
+        if (id == null) {
+            id = dictionary.playerId(actor, actor);
+            actors.put(actor, id);
+        }
+        return id;
+    }
+
+    private int playerId(Player player) {
+        Integer id = players.get(player.getUniqueId());
+        if (id == null) {
+            id = dictionary.playerId(player.getUniqueId().toString(), player.getName());
+            players.put(player.getUniqueId(), id);
+        }
+        return id;
+    }
+
+    private int materialId(Material material) {
+        int id = materials[material.ordinal()];
+        if (id == 0) {
+            id = dictionary.materialId(material.name());
+            materials[material.ordinal()] = id;
+        }
+        return id;
+    }
+
+    private int stateId(BlockData data) {
+        Integer id = states.get(data);
+        if (id == null) {
+            if (states.size() >= MAX_CACHED_STATES) {
+                states.clear();
+            }
+            id = dictionary.blockDataId(data.getAsString());
+            states.put(data, id);
+        }
+        return id;
+    }
+}
@@ -0,0 +1,185 @@
+package com.azk.pulse.modules.logs;
+
+import com.azk.pulse.core.LongIntMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class LogCoalescer {
+    private final long windowMillis;
+    private final int maxRun;
+    private final LogEventRing.Batch work;
+    private final LogEventRing.Batch out;
+    private final long[] lastTimes;
+    private final long[] lastPositions;
+    private final byte[] directions;
+    private final LongIntMap open = new LongIntMap(64);
+    private final Map<String, HeldCommand> commands = new HashMap<>();
+    private final AtomicLong merged = new AtomicLong();
+    private int held;
+
+    public LogCoalescer(long windowMillis, int maxRun, int batchSize) {
+        this.windowMillis = Math.max(1L, windowMillis);
+        this.maxRun = Math.max(2, maxRun);
+        int capacity = Math.max(1, batchSize) * 2;
+        this.work = new LogEventRing.Batch(capacity);
+        this.out = new LogEventRing.Batch(capacity);
+        this.lastTimes = new long[capacity];
+        this.lastPositions = new long[capacity];
+        this.directions = new byte[capacity];
+    }
+
+    public long merged() {
+        return merged.get();
+    }
+
+    boolean holding() {
+        return held > 0 || !commands.isEmpty();
+    }
+
+    LogEventRing.Batch coalesce(List<LogRecord> records, LogEventRing.Batch events, long now, boolean all) {
+        open.clear();
+        for (int slot = 0; slot < held; slot++) {
+            open.put(work.players[slot], slot);
+        }
+        int size = held;
+        for (int i = 0; i < events.size(); i++) {
+            boolean block = events.types[i] == LogRepository.LogType.BLOCKS;
+            if (block) {
+                int slot = open.get(events.players[i], -1);
+                if (slot >= 0 && extend(slot, events, i)) {
+                    merged.incrementAndGet();
+                    continue;
+                }
+            }
+            events.copy(i, work, size);
+            lastTimes[size] = events.times[i];
+            lastPositions[size] = events.positions[i];
+            directions[size] = 0;
+            if (block) {
+                open.put(events.players[i], size);
+            }
+            size++;
+        }
+
+        int written = 0;
+        held = 0;
+        for (int slot = 0; slot < size; slot++) {
+            boolean keep = !all && held < out.capacity() / 2
+                    && work.types[slot] == LogRepository.LogType.BLOCKS
+                    && open.get(work.players[slot], -1) == slot
+                    && now - lastTimes[slot] < windowMillis
+                    && work.spans[slot] < maxRun - 1;
+            if (keep) {
+                work.copy(slot, work, held);
+                lastTimes[held] = lastTimes[slot];
+                lastPositions[held] = lastPositions[slot];
+                directions[held] = directions[slot];
+                held++;
+            } else {
+                work.copy(slot, out, written++);
+            }
+        }
+        out.size(written);
+        coalesceCommands(records, now, all);
+        return out;
+    }
+
+    private boolean extend(int slot, LogEventRing.Batch events, int index) {
+        if (work.worlds[slot] != events.worlds[index] || work.actions[slot] != events.actions[index]
+                || work.materials[slot] != events.materials[index] || work.details[slot] != events.details[index]) {
+            return false;
+        }
+        long time = events.times[index];
+        if (time - lastTimes[slot] > windowMillis || work.spans[slot] >= maxRun - 1) {
+            return false;
+        }
+        long position = events.positions[index];
+        long last = lastPositions[slot];
+        int dx = BlockKey.x(position) - BlockKey.x(last);
+        int dy = BlockKey.y(position) - BlockKey.y(last);
+        int dz = BlockKey.z(position) - BlockKey.z(last);
+        int axis;
+        int step;
+        if (dy == 0 && dz == 0 && Math.abs(dx) == 1) {
+            axis = 1;
+            step = dx;
+        } else if (dx == 0 && dz == 0 && Math.abs(dy) == 1) {
+            axis = 2;
+            step = dy;
+        } else if (dx == 0 && dy == 0 && Math.abs(dz) == 1) {
+            axis = 3;
+            step = dz;
+        } else {
+            return false;
+        }
+        if (work.axes[slot] != 0 && (work.axes[slot] != axis || directions[slot] != step)) {
+            return false;
+        }
+        long start = work.positions[slot];
+        if (ChunkKey.of(BlockKey.x(position), BlockKey.z(position))
+                != ChunkKey.of(BlockKey.x(start), BlockKey.z(start))) {
+            return false;
+        }
+        work.axes[slot] = (byte) axis;
+        work.spans[slot]++;
+        directions[slot] = (byte) step;
+        lastTimes[slot] = time;
+        lastPositions[slot] = position;
+        if (step < 0) {
+            work.positions[slot] = position;
+        }
+        return true;
+    }
+
+    private void coalesceCommands(List<LogRecord> records, long now, boolean all) {
+        for (ListIterator<LogRecord> iterator = records.listIterator(); iterator.hasNext(); ) {
+            if (!(iterator.next() instanceof LogRecord.Command command)) {
+                continue;
+            }
+            iterator.remove();
+            HeldCommand previous = commands.get(command.player());
+            if (previous != null && previous.command.equals(command.command())
+                    && command.time() - previous.last <= windowMillis) {
+                previous.repeats++;
+                previous.last = command.time();
+                merged.incrementAndGet();
+                continue;
+            }
+            if (previous != null) {
+                iterator.add(previous.record());
+            }
+            commands.put(command.player(), new HeldCommand(command));
+        }
+        for (Iterator<HeldCommand> iterator = commands.values().iterator(); iterator.hasNext(); ) {
+            HeldCommand command = iterator.next();
+            if (all || now - command.last >= windowMillis) {
+                records.add(command.record());
+                iterator.remove();
+            }
+        }
+    }
+
+    private static final class HeldCommand {
+        private final String player;
+        private final String command;
+        private final long first;
+        private long last;
+        private int repeats;
+
+        private HeldCommand(LogRecord.Command command) {
+            this.player = command.player();
+            this.command = command.command();
+            this.first = command.time();
+            this.last = command.time();
+            this.repeats = command.repeats();
+        }
+
+        private LogRecord.Command record() {
+            return new LogRecord.Command(player, command, repeats, first);
+        }
+    }
+}
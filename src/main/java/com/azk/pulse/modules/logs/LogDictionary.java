@@ -0,0 +1,296 @@
+package com.azk.pulse.modules.logs;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class LogDictionary {
+    public static final String PLAYER_TABLE = "pulse_player";
+    public static final String LEGACY_PLAYER_PREFIX = "name:";
+    public static final String BLOCK_DATA_TABLE = "pulse_block_data";
+    private static final int MAX_BLOCK_DATA_LENGTH = 255;
+
+    private final Table worlds = new Table("pulse_world");
+    private final Table actions = new Table("pulse_action");
+    private final Table materials = new Table("pulse_material");
+    private final Table blockData = new Table(BLOCK_DATA_TABLE);
+    private final Map<String, Integer> players = new ConcurrentHashMap<>();
+    private final Map<String, String> playerNames = new ConcurrentHashMap<>();
+    private final Map<Integer, String> playersById = new ConcurrentHashMap<>();
+    private final List<PendingPlayer> pendingPlayers = new ArrayList<>();
+    private final List<PendingPlayer> inFlightPlayers = new ArrayList<>();
+    private int nextPlayerId = 1;
+
+    public static void createTables(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("CREATE TABLE IF NOT EXISTS " + PLAYER_TABLE + " ("
+                    + "id INTEGER NOT NULL PRIMARY KEY,"
+                    + "uuid VARCHAR(64) NOT NULL UNIQUE,"
+                    + "name VARCHAR(64) NOT NULL,"
+                    + "name_lower VARCHAR(64) NOT NULL)");
+            for (String table : new String[] { "pulse_world", "pulse_action", "pulse_material" }) {
+                statement.executeUpdate("CREATE TABLE IF NOT EXISTS " + table + " ("
+                        + "id INTEGER NOT NULL PRIMARY KEY,"
+                        + "name VARCHAR(128) NOT NULL UNIQUE)");
+            }
+            statement.executeUpdate("CREATE TABLE IF NOT EXISTS " + BLOCK_DATA_TABLE + " ("
+                    + "id INTEGER NOT NULL PRIMARY KEY,"
+                    + "name VARCHAR(" + MAX_BLOCK_DATA_LENGTH + ") NOT NULL UNIQUE)");
+        }
+    }
+
+    public synchronized void load(Connection connection) throws SQLException {
+        players.clear();
+        playerNames.clear();
+        playersById.clear();
+        pendingPlayers.clear();
+        inFlightPlayers.clear();
+        nextPlayerId = 1;
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT id, uuid, name FROM " + PLAYER_TABLE)) {
+            while (resultSet.next()) {
+                int id = resultSet.getInt(1);
+                String uuid = resultSet.getString(2);
+                players.put(uuid, id);
+                playerNames.put(uuid, resultSet.getString(3));
+                playersById.put(id, resultSet.getString(3));
+                nextPlayerId = Math.max(nextPlayerId, id + 1);
+            }
+        }
+        worlds.load(connection);
+        actions.load(connection);
+        materials.load(connection);
+        blockData.load(connection);
+    }
+
+    public int playerId(String uuid, String name) {
+        String key = uuid != null ? uuid : LEGACY_PLAYER_PREFIX + name.toLowerCase(Locale.ROOT);
+        Integer id = players.get(key);
+        if (id != null && name.equals(playerNames.get(key))) {
+            return id;
+        }
+        synchronized (this) {
+            id = players.get(key);
+            if (id == null) {
+                id = nextPlayerId++;
+                players.put(key, id);
+            } else if (name.equals(playerNames.get(key))) {
+                return id;
+            }
+            playerNames.put(key, name);
+            playersById.put(id, name);
+            pendingPlayers.add(new PendingPlayer(id, key, name));
+            return id;
+        }
+    }
+
+    public int worldId(String name) {
+        return worlds.id(name);
+    }
+
+    public int actionId(String name) {
+        return actions.id(normalize(name));
+    }
+
+    public int materialId(String name) {
+        return materials.id(normalize(name));
+    }
+
+    public int blockDataId(String data) {
+        if (data == null || data.isBlank() || data.length() > MAX_BLOCK_DATA_LENGTH) {
+            return 0;
+        }
+        return blockData.id(data);
+    }
+
+    public String playerName(int id) {
+        return playersById.get(id);
+    }
+
+    public String worldName(int id) {
+        return worlds.name(id);
+    }
+
+    public String actionName(int id) {
+        return actions.name(id);
+    }
+
+    public String materialName(int id) {
+        return materials.name(id);
+    }
+
+    public String blockDataName(int id) {
+        return blockData.name(id);
+    }
+
+    public int findWorld(String name) {
+        return worlds.find(name);
+    }
+
+    public int findAction(String name) {
+        return actions.find(normalize(name));
+    }
+
+    public int findMaterial(String name) {
+        return materials.find(normalize(name));
+    }
+
+    public static String normalize(String value) {
+        return value == null ? "" : value.toUpperCase(Locale.ROOT);
+    }
+
+    public void writePending(Connection connection) throws SQLException {
+        Map<Integer, PendingPlayer> newPlayers = new LinkedHashMap<>();
+        synchronized (this) {
+            inFlightPlayers.addAll(pendingPlayers);
+            pendingPlayers.clear();
+            for (PendingPlayer player : inFlightPlayers) {
+                newPlayers.put(player.id(), player);
+            }
+        }
+        if (!newPlayers.isEmpty()) {
+            try (PreparedStatement delete = connection.prepareStatement(
+                    "DELETE FROM " + PLAYER_TABLE + " WHERE id = ?");
+                 PreparedStatement insert = connection.prepareStatement(
+                         "INSERT INTO " + PLAYER_TABLE + "(id, uuid, name, name_lower) VALUES(?,?,?,?)")) {
+                for (PendingPlayer player : newPlayers.values()) {
+                    delete.setInt(1, player.id());
+                    delete.addBatch();
+                    insert.setInt(1, player.id());
+                    insert.setString(2, player.key());
+                    insert.setString(3, player.name());
+                    insert.setString(4, player.name().toLowerCase(Locale.ROOT));
+                    insert.addBatch();
+                }
+                delete.executeBatch();
+                insert.executeBatch();
+            }
+        }
+        worlds.writePending(connection);
+        actions.writePending(connection);
+        materials.writePending(connection);
+        blockData.writePending(connection);
+    }
+
+    public void restorePending() {
+        synchronized (this) {
+            pendingPlayers.addAll(0, inFlightPlayers);
+            inFlightPlayers.clear();
+        }
+        worlds.restore();
+        actions.restore();
+        materials.restore();
+        blockData.restore();
+    }
+
+    public void commitPending() {
+        synchronized (this) {
+            inFlightPlayers.clear();
+        }
+        worlds.committed();
+        actions.committed();
+        materials.committed();
+        blockData.committed();
+    }
+
+    public int size() {
+        return players.size() + worlds.ids.size() + actions.ids.size() + materials.ids.size()
+                + blockData.ids.size();
+    }
+
+    private record PendingPlayer(int id, String key, String name) {
+    }
+
+    private static final class Table {
+        private final String name;
+        private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+        private final Map<Integer, String> names = new ConcurrentHashMap<>();
+        private final List<Map.Entry<String, Integer>> pending = new ArrayList<>();
+        private final List<Map.Entry<String, Integer>> inFlight = new ArrayList<>();
+        private int nextId = 1;
+
+        private Table(String name) {
+            this.name = name;
+        }
+
+        private synchronized void load(Connection connection) throws SQLException {
+            ids.clear();
+            names.clear();
+            pending.clear();
+            inFlight.clear();
+            nextId = 1;
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery("SELECT id, name FROM " + name)) {
+                while (resultSet.next()) {
+                    int id = resultSet.getInt(1);
+                    ids.put(resultSet.getString(2), id);
+                    names.put(id, resultSet.getString(2));
+                    nextId = Math.max(nextId, id + 1);
+                }
+            }
+        }
+
+        private int id(String value) {
+            Integer id = ids.get(value);
+            if (id != null) {
+                return id;
+            }
+            synchronized (this) {
+                id = ids.get(value);
+                if (id == null) {
+                    id = nextId++;
+                    ids.put(value, id);
+                    names.put(id, value);
+                    pending.add(Map.entry(value, id));
+                }
+                return id;
+            }
+        }
+
+        private String name(int id) {
+            return names.get(id);
+        }
+
+        private int find(String value) {
+            return ids.getOrDefault(value, 0);
+        }
+
+        private void writePending(Connection connection) throws SQLException {
+            List<Map.Entry<String, Integer>> batch;
+            synchronized (this) {
+                inFlight.addAll(pending);
+                pending.clear();
+                batch = new ArrayList<>(inFlight);
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO " + name + "(id, name) VALUES(?,?)")) {
+                for (Map.Entry<String, Integer> entry : batch) {
+                    insert.setInt(1, entry.getValue());
+                    insert.setString(2, entry.getKey());
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+        }
+
+        private synchronized void restore() {
+            pending.addAll(0, inFlight);
+            inFlight.clear();
+        }
+
+        private synchronized void committed() {
+            inFlight.clear();
+        }
+    }
+}
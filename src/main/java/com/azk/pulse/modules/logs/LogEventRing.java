@@ -0,0 +1,134 @@
+package com.azk.pulse.modules.logs;
+
+public class LogEventRing {
+    private static final LogRepository.LogType[] TYPES = LogRepository.LogType.values();
+
+    private final byte[] types;
+    private final long[] times;
+    private final int[] players;
+    private final int[] worlds;
+    private final int[] actions;
+    private final int[] materials;
+    private final int[] details;
+    private final int[] amounts;
+    private final long[] positions;
+    private int head;
+    private int size;
+
+    public LogEventRing(int capacity) {
+        int length = Math.max(1, capacity);
+        types = new byte[length];
+        times = new long[length];
+        players = new int[length];
+        worlds = new int[length];
+        actions = new int[length];
+        materials = new int[length];
+        details = new int[length];
+        amounts = new int[length];
+        positions = new long[length];
+    }
+
+    public synchronized boolean offer(LogRepository.LogType type, long time, int player, int world, int action,
+                                      int material, int detail, int amount, long position) {
+        if (size == times.length) {
+            return false;
+        }
+        int slot = head + size;
+        if (slot >= times.length) {
+            slot -= times.length;
+        }
+        types[slot] = (byte) type.ordinal();
+        times[slot] = time;
+        players[slot] = player;
+        worlds[slot] = world;
+        actions[slot] = action;
+        materials[slot] = material;
+        details[slot] = detail;
+        amounts[slot] = amount;
+        positions[slot] = position;
+        size++;
+        return true;
+    }
+
+    public synchronized int drainTo(Batch batch, int max) {
+        int count = Math.min(Math.min(max, batch.times.length), size);
+        for (int i = 0; i < count; i++) {
+            batch.types[i] = TYPES[types[head]];
+            batch.times[i] = times[head];
+            batch.players[i] = players[head];
+            batch.worlds[i] = worlds[head];
+            batch.actions[i] = actions[head];
+            batch.materials[i] = materials[head];
+            batch.details[i] = details[head];
+            batch.amounts[i] = amounts[head];
+            batch.positions[i] = positions[head];
+            batch.spans[i] = 0;
+            batch.axes[i] = 0;
+            if (++head == times.length) {
+                head = 0;
+            }
+        }
+        size -= count;
+        batch.size = count;
+        return count;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public static final class Batch {
+        final LogRepository.LogType[] types;
+        final long[] times;
+        final int[] players;
+        final int[] worlds;
+        final int[] actions;
+        final int[] materials;
+        final int[] details;
+        final int[] amounts;
+        final long[] positions;
+        final int[] spans;
+        final byte[] axes;
+        private int size;
+
+        public Batch(int capacity) {
+            types = new LogRepository.LogType[capacity];
+            times = new long[capacity];
+            players = new int[capacity];
+            worlds = new int[capacity];
+            actions = new int[capacity];
+            materials = new int[capacity];
+            details = new int[capacity];
+            amounts = new int[capacity];
+            positions = new long[capacity];
+            spans = new int[capacity];
+            axes = new byte[capacity];
+        }
+
+        public int size() {
+            return size;
+        }
+
+        int capacity() {
+            return times.length;
+        }
+
+        void size(int size) {
+            this.size = size;
+        }
+
+        void copy(int from, Batch target, int to) {
+            target.types[to] = types[from];
+            target.times[to] = times[from];
+            target.players[to] = players[from];
+            target.worlds[to] = worlds[from];
+            target.actions[to] = actions[from];
+            target.materials[to] = materials[from];
+            target.details[to] = details[from];
+            target.amounts[to] = amounts[from];
+            target.positions[to] = positions[from];
+            target.spans[to] = spans[from];
+            target.axes[to] = axes[from];
+        }
+    }
+}
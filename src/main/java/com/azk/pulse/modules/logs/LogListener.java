@@ -1,61 +1,113 @@
 package com.azk.pulse.modules.logs;
 
 import com.azk.pulse.core.ConfigFiles;
+import io.papermc.paper.event.player.AsyncChatEvent;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
+import org.bukkit.Location;
+import org.bukkit.Material;
 import org.bukkit.block.Block;
-import org.bukkit.block.Container;
+import org.bukkit.block.BlockState;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.entity.Item;
+import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockBurnEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockFromToEvent;
+import org.bukkit.event.block.BlockIgniteEvent;
+import org.bukkit.event.block.BlockPistonExtendEvent;
+import org.bukkit.event.block.BlockPistonRetractEvent;
 import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.block.SignChangeEvent;
+import org.bukkit.event.entity.EntityDeathEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.entity.EntityPickupItemEvent;
 import org.bukkit.event.entity.PlayerDeathEvent;
+import org.bukkit.event.inventory.InventoryAction;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
 import org.bukkit.event.player.PlayerCommandPreprocessEvent;
+import org.bukkit.event.player.PlayerDropItemEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.event.block.Action;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
 import org.bukkit.plugin.java.JavaPlugin;
 
 public class LogListener implements Listener {
+    private static final EnumSet<Material> CONTAINERS = containers();
+
     private final JavaPlugin plugin;
-    private final ConfigFiles configFiles;
     private final LogRepository repository;
+    private final LogCapture capture;
+    private final boolean logBlocks;
+    private final boolean logChests;
+    private final boolean logCommands;
+    private final boolean logDeaths;
+    private final Sampling explosions;
+    private final Sampling burns;
+    private final Sampling flows;
+    private final Sampling pistons;
+    private final Sampling kills;
+    private final Sampling items;
+    private final Sampling signs;
+    private final Sampling chat;
+    private final Map<TransactionKey, Transaction> transactions = new HashMap<>();
 
     public LogListener(JavaPlugin plugin, ConfigFiles configFiles, LogRepository repository) {
         this.plugin = plugin;
-        this.configFiles = configFiles;
         this.repository = repository;
+        this.capture = new LogCapture(repository);
+        boolean enabled = configFiles.getMain().getBoolean("logs.enabled", true);
+        this.logBlocks = enabled && configFiles.getMain().getBoolean("logs.log-blocks", true);
+        this.logChests = enabled && configFiles.getMain().getBoolean("logs.log-chests", true);
+        this.logCommands = enabled && configFiles.getMain().getBoolean("logs.log-commands", true);
+        this.logDeaths = enabled && configFiles.getMain().getBoolean("logs.log-deaths", true);
+        FileConfiguration config = configFiles.getMain();
+        this.explosions = Sampling.of(config, enabled, "explosions", true);
+        this.burns = Sampling.of(config, enabled, "burns", true);
+        this.flows = Sampling.of(config, enabled, "flows", false);
+        this.pistons = Sampling.of(config, enabled, "pistons", false);
+        this.kills = Sampling.of(config, enabled, "kills", true);
+        this.items = Sampling.of(config, enabled, "items", true);
+        this.signs = Sampling.of(config, enabled, "signs", true);
+        this.chat = Sampling.of(config, enabled, "chat", true);
     }
 
     @EventHandler
     public void onBlockBreak(BlockBreakEvent event) {
-        if (!isEnabled("logs.log-blocks")) {
-            return;
-        }
-        if (event.isCancelled()) {
+        if (!logBlocks || event.isCancelled()) {
             return;
         }
-        Player player = event.getPlayer();
-        Block block = event.getBlock();
-        repository.logBlock(player.getName(), block.getWorld().getName(), block.getX(), block.getY(), block.getZ(),
-                "BREAK", block.getType().name());
+        capture.blockBreak(event.getPlayer(), event.getBlock());
     }
 
     @EventHandler
     public void onBlockPlace(BlockPlaceEvent event) {
-        if (!isEnabled("logs.log-blocks")) {
-            return;
-        }
-        if (event.isCancelled()) {
+        if (!logBlocks || event.isCancelled()) {
             return;
         }
-        Player player = event.getPlayer();
-        Block block = event.getBlock();
-        repository.logBlock(player.getName(), block.getWorld().getName(), block.getX(), block.getY(), block.getZ(),
-                "PLACE", block.getType().name());
+        capture.blockPlace(event.getPlayer(), event.getBlock());
     }
 
     @EventHandler
     public void onChestOpen(PlayerInteractEvent event) {
-        if (!isEnabled("logs.log-chests")) {
+        if (!logChests) {
             return;
         }
         if (event.isCancelled() || event.getAction() != Action.RIGHT_CLICK_BLOCK) {
@@ -65,17 +117,140 @@ public class LogListener implements Listener {
         if (block == null) {
             return;
         }
-        if (!(block.getState() instanceof Container)) {
+        if (!CONTAINERS.contains(block.getType())) {
             return;
         }
-        Player player = event.getPlayer();
-        repository.logChest(player.getName(), block.getWorld().getName(), block.getX(), block.getY(), block.getZ(),
-                "OPEN", block.getType().name());
+        capture.chestOpen(event.getPlayer(), block);
+    }
+
+    @EventHandler
+    public void onInventoryClick(InventoryClickEvent event) {
+        if (!logChests || event.isCancelled() || event.getAction() == InventoryAction.NOTHING
+                || !(event.getWhoClicked() instanceof Player player)) {
+            return;
+        }
+        Inventory top = event.getView().getTopInventory();
+        boolean clickedTop = event.getClickedInventory() == top;
+        switch (event.getAction()) {
+            case MOVE_TO_OTHER_INVENTORY -> snapshot(player, top, clickedTop
+                    ? List.of(event.getSlot())
+                    : slotsFor(top, event.getCurrentItem(), true));
+            case COLLECT_TO_CURSOR -> snapshot(player, top, slotsFor(top, event.getCursor(), false));
+            default -> {
+                if (clickedTop) {
+                    snapshot(player, top, List.of(event.getSlot()));
+                }
+            }
+        }
+    }
+
+    @EventHandler
+    public void onInventoryDrag(InventoryDragEvent event) {
+        if (!logChests || event.isCancelled() || !(event.getWhoClicked() instanceof Player player)) {
+            return;
+        }
+        Inventory top = event.getView().getTopInventory();
+        List<Integer> slots = new ArrayList<>();
+        for (int slot : event.getRawSlots()) {
+            if (slot < top.getSize()) {
+                slots.add(slot);
+            }
+        }
+        snapshot(player, top, slots);
+    }
+
+    /**
+     * Records the touched slots of a container before a click or drag and diffs only those slots on the next tick,
+     * so hoppers, furnaces and other viewers changing the rest of the container are not charged to this player.
+     */
+    private void snapshot(Player player, Inventory inventory, List<Integer> slots) {
+        if (slots.isEmpty()) {
+            return;
+        }
+        TransactionKey key = new TransactionKey(player.getUniqueId(), inventory);
+        Transaction transaction = transactions.get(key);
+        if (transaction == null) {
+            Location location = inventory.getLocation();
+            if (location == null || location.getWorld() == null) {
+                return;
+            }
+            Block block = location.getBlock();
+            if (!CONTAINERS.contains(block.getType())) {
+                return;
+            }
+            transaction = new Transaction(player, block, new HashMap<>());
+            transactions.put(key, transaction);
+            plugin.getServer().getScheduler().runTask(plugin, () -> finish(key, inventory));
+        }
+        for (int slot : slots) {
+            if (!transaction.before().containsKey(slot)) {
+                ItemStack item = inventory.getItem(slot);
+                transaction.before().put(slot, item != null ? item.clone() : null);
+            }
+        }
+    }
+
+    private void finish(TransactionKey key, Inventory inventory) {
+        Transaction transaction = transactions.remove(key);
+        if (transaction == null) {
+            return;
+        }
+        EnumMap<Material, Integer> deltas = new EnumMap<>(Material.class);
+        for (Map.Entry<Integer, ItemStack> entry : transaction.before().entrySet()) {
+            count(deltas, entry.getValue(), -1);
+            count(deltas, inventory.getItem(entry.getKey()), 1);
+        }
+        for (Map.Entry<Material, Integer> entry : deltas.entrySet()) {
+            if (entry.getValue() != 0) {
+                capture.chestTransaction(transaction.player(), transaction.block(), entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private static List<Integer> slotsFor(Inventory inventory, ItemStack item, boolean includeEmpty) {
+        if (item == null || item.getType() == Material.AIR) {
+            return List.of();
+        }
+        List<Integer> slots = new ArrayList<>();
+        for (int slot = 0; slot < inventory.getSize(); slot++) {
+            ItemStack current = inventory.getItem(slot);
+            boolean empty = current == null || current.getType() == Material.AIR;
+            if (empty ? includeEmpty : current.isSimilar(item)) {
+                slots.add(slot);
+            }
+        }
+        return slots;
+    }
+
+    private static void count(EnumMap<Material, Integer> counts, ItemStack item, int sign) {
+        if (item != null && item.getType() != Material.AIR && item.getAmount() > 0) {
+            counts.merge(item.getType(), sign * item.getAmount(), Integer::sum);
+        }
+    }
+
+    private static EnumSet<Material> containers() {
+        EnumSet<Material> containers = EnumSet.noneOf(Material.class);
+        for (Material material : Material.values()) {
+            String name = material.name();
+            if (name.endsWith("SHULKER_BOX") || switch (name) {
+                case "CHEST", "TRAPPED_CHEST", "BARREL", "FURNACE", "BLAST_FURNACE", "SMOKER", "HOPPER", "DROPPER",
+                     "DISPENSER", "BREWING_STAND", "CRAFTER" -> true;
+                default -> false;
+            }) {
+                containers.add(material);
+            }
+        }
+        return containers;
+    }
+
+    @EventHandler
+    public void onQuit(PlayerQuitEvent event) {
+        capture.forget(event.getPlayer());
     }
 
     @EventHandler
     public void onCommand(PlayerCommandPreprocessEvent event) {
-        if (!isEnabled("logs.log-commands")) {
+        if (!logCommands) {
             return;
         }
         String message = event.getMessage();
@@ -88,7 +263,7 @@ public class LogListener implements Listener {
 
     @EventHandler
     public void onDeath(PlayerDeathEvent event) {
-        if (!isEnabled("logs.log-deaths")) {
+        if (!logDeaths) {
             return;
         }
         Player player = event.getEntity();
@@ -99,8 +274,144 @@ public class LogListener implements Listener {
         repository.logDeath(player.getName(), killer, cause);
     }
 
-    private boolean isEnabled(String path) {
-        return configFiles.getMain().getBoolean("logs.enabled", true)
-                && configFiles.getMain().getBoolean(path, true);
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityExplode(EntityExplodeEvent event) {
+        if (event.isCancelled() || event.blockList().isEmpty() || !explosions.sample()) {
+            return;
+        }
+        capture.explosion("#" + event.getEntity().getType().name().toLowerCase(Locale.ROOT), event.blockList());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onBlockExplode(BlockExplodeEvent event) {
+        if (event.isCancelled() || event.blockList().isEmpty() || !explosions.sample()) {
+            return;
+        }
+        BlockState source = event.getExplodedBlockState();
+        Material material = source != null ? source.getType() : event.getBlock().getType();
+        capture.explosion("#" + material.name().toLowerCase(Locale.ROOT), event.blockList());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onBurn(BlockBurnEvent event) {
+        if (event.isCancelled() || !burns.sample()) {
+            return;
+        }
+        capture.burn(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onIgnite(BlockIgniteEvent event) {
+        if (event.isCancelled() || !burns.sample()) {
+            return;
+        }
+        Player player = event.getPlayer();
+        capture.ignite(player, "#" + event.getCause().name().toLowerCase(Locale.ROOT), event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onFlow(BlockFromToEvent event) {
+        if (event.isCancelled() || !event.getBlock().isLiquid()
+                || event.getToBlock().getType() == event.getBlock().getType() || !flows.sample()) {
+            return;
+        }
+        capture.flow(event.getBlock(), event.getToBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPistonExtend(BlockPistonExtendEvent event) {
+        if (event.isCancelled() || event.getBlocks().isEmpty() || !pistons.sample()) {
+            return;
+        }
+        capture.piston(event.getBlocks(), true);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPistonRetract(BlockPistonRetractEvent event) {
+        if (event.isCancelled() || event.getBlocks().isEmpty() || !pistons.sample()) {
+            return;
+        }
+        capture.piston(event.getBlocks(), false);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onKill(EntityDeathEvent event) {
+        LivingEntity entity = event.getEntity();
+        if (entity instanceof Player || entity.getKiller() == null || !kills.sample()) {
+            return;
+        }
+        capture.kill(entity.getKiller(), entity);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onDrop(PlayerDropItemEvent event) {
+        if (event.isCancelled() || !items.sample()) {
+            return;
+        }
+        Item drop = event.getItemDrop();
+        ItemStack stack = drop.getItemStack();
+        capture.item(event.getPlayer(), stack.getType(), stack.getAmount(), drop.getLocation(), true);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPickup(EntityPickupItemEvent event) {
+        if (event.isCancelled() || !(event.getEntity() instanceof Player player) || !items.sample()) {
+            return;
+        }
+        ItemStack stack = event.getItem().getItemStack();
+        int amount = stack.getAmount() - Math.max(0, event.getRemaining());
+        if (amount > 0) {
+            capture.item(player, stack.getType(), amount, event.getItem().getLocation(), false);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onSign(SignChangeEvent event) {
+        if (event.isCancelled() || !signs.sample()) {
+            return;
+        }
+        StringBuilder text = new StringBuilder();
+        for (Component component : event.lines()) {
+            String line = component != null ? PlainTextComponentSerializer.plainText().serialize(component) : null;
+            if (line != null && !line.isBlank()) {
+                if (!text.isEmpty()) {
+                    text.append(" | ");
+                }
+                text.append(line.strip());
+            }
+        }
+        if (text.isEmpty()) {
+            return;
+        }
+        Block block = event.getBlock();
+        repository.logSign(event.getPlayer().getName(), block.getWorld().getName(), block.getX(), block.getY(),
+                block.getZ(), text.toString());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChat(AsyncChatEvent event) {
+        if (event.isCancelled() || !chat.sample()) {
+            return;
+        }
+        repository.logChat(event.getPlayer().getName(),
+                PlainTextComponentSerializer.plainText().serialize(event.message()));
+    }
+
+    private record TransactionKey(UUID player, Inventory inventory) {
+    }
+
+    private record Transaction(Player player, Block block, Map<Integer, ItemStack> before) {
+    }
+
+    private record Sampling(boolean enabled, double rate) {
+        private static Sampling of(FileConfiguration config, boolean logs, String type, boolean fallback) {
+            String path = "logs.events." + type;
+            return new Sampling(logs && config.getBoolean(path + ".enabled", fallback),
+                    Math.max(0.0, Math.min(1.0, config.getDouble(path + ".sample-rate", 1.0))));
+        }
+
+        private boolean sample() {
+            return enabled && (rate >= 1.0 || ThreadLocalRandom.current().nextDouble() < rate);
+        }
     }
 }
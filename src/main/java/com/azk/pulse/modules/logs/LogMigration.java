@@ -0,0 +1,289 @@
+package com.azk.pulse.modules.logs;
+
+import com.azk.pulse.storage.DatabaseProvider;
+import com.azk.pulse.storage.StorageService;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ScheduledFuture;
+import org.bukkit.plugin.java.JavaPlugin;
+
+public class LogMigration {
+    static final String META_TABLE = "pulse_meta";
+    private static final int LATENCY_SAMPLES = 3;
+    private static final List<Source> SOURCES = List.of(
+            new Source("block_log", "material", LogRepository.BLOCK_TABLE, LogRepository.INSERT_BLOCK,
+                    LogRepository.SELECT_BLOCKS),
+            new Source("chest_log", "container", LogRepository.CHEST_TABLE, LogRepository.INSERT_CHEST,
+                    LogRepository.SELECT_CHESTS)
+    );
+
+    private final JavaPlugin plugin;
+    private final StorageService storageService;
+    private final LogDictionary dictionary;
+    private final int batchSize;
+    private final long intervalMillis;
+    private ScheduledFuture<?> task;
+    private int sourceIndex;
+    private long lastFailureWarning;
+
+    public LogMigration(JavaPlugin plugin, StorageService storageService, LogDictionary dictionary,
+                        int batchSize, long intervalMillis) {
+        this.plugin = plugin;
+        this.storageService = storageService;
+        this.dictionary = dictionary;
+        this.batchSize = Math.max(100, batchSize);
+        this.intervalMillis = Math.max(10L, intervalMillis);
+    }
+
+    static void createMetaTable(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("CREATE TABLE IF NOT EXISTS " + META_TABLE + " ("
+                    + "meta_key VARCHAR(128) NOT NULL PRIMARY KEY,"
+                    + "meta_value VARCHAR(255))");
+        }
+    }
+
+    static String getMeta(Connection connection, String key) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT meta_value FROM " + META_TABLE + " WHERE meta_key = ?")) {
+            statement.setString(1, key);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getString(1) : null;
+            }
+        }
+    }
+
+    static void putMeta(Connection connection, String key, String value) throws SQLException {
+        try (PreparedStatement delete = connection.prepareStatement("DELETE FROM " + META_TABLE + " WHERE meta_key = ?");
+             PreparedStatement insert = connection.prepareStatement(
+                     "INSERT INTO " + META_TABLE + "(meta_key, meta_value) VALUES(?,?)")) {
+            delete.setString(1, key);
+            delete.executeUpdate();
+            insert.setString(1, key);
+            insert.setString(2, value);
+            insert.executeUpdate();
+        }
+    }
+
+    public void start() {
+        if (task == null) {
+            task = storageService.scheduleWrite(this::step, intervalMillis);
+        }
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel(false);
+            task = null;
+        }
+    }
+
+    public boolean isFinished() {
+        return sourceIndex >= SOURCES.size();
+    }
+
+    private void step() {
+        DatabaseProvider storage = storageService.getProvider();
+        if (storage == null) {
+            return;
+        }
+        try (Connection connection = storage.openWriteConnection()) {
+            while (sourceIndex < SOURCES.size()) {
+                Source source = SOURCES.get(sourceIndex);
+                if (migrateBatch(storage, connection, source)) {
+                    return;
+                }
+                sourceIndex++;
+            }
+        } catch (SQLException | RuntimeException ex) {
+            long now = System.currentTimeMillis();
+            if (now - lastFailureWarning >= 60_000L) {
+                lastFailureWarning = now;
+                plugin.getLogger().warning("Log migration step failed: " + ex.getMessage());
+            }
+            return;
+        }
+        stop();
+    }
+
+    private boolean migrateBatch(DatabaseProvider storage, Connection connection, Source source) throws SQLException {
+        if ("done".equals(getMeta(connection, source.key("state")))) {
+            return false;
+        }
+        if (!storage.getDialect().tableExists(connection, source.legacyTable())) {
+            putMeta(connection, source.key("state"), "done");
+            return false;
+        }
+        String cursorValue = getMeta(connection, source.key("cursor"));
+        if (cursorValue == null) {
+            String sample = samplePlayer(connection, source);
+            long rows = countRows(connection, source.legacyTable());
+            putMeta(connection, source.key("before"), storage.getDialect().tableSizeBytes(connection, source.legacyTable())
+                    + "," + rows + "," + measureLookup(storage, source, sample, true));
+            putMeta(connection, source.key("sample"), sample != null ? sample : "");
+            putMeta(connection, source.key("cursor"), Long.toString(Long.MAX_VALUE));
+            plugin.getLogger().info("Migrating " + rows + " rows from " + source.legacyTable() + " to "
+                    + source.table() + " in the background.");
+            return true;
+        }
+        long cursor = Long.parseLong(cursorValue);
+
+        List<LegacyRow> rows = new ArrayList<>(batchSize);
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT id, player, world, x, y, z, action, " + source.materialColumn() + ", time FROM "
+                        + source.legacyTable() + " WHERE id < ? ORDER BY id DESC LIMIT ?")) {
+            select.setLong(1, cursor);
+            select.setInt(2, batchSize);
+            try (ResultSet resultSet = select.executeQuery()) {
+                while (resultSet.next()) {
+                    rows.add(new LegacyRow(resultSet.getLong(1), resultSet.getString(2), resultSet.getString(3),
+                            resultSet.getInt(4), resultSet.getInt(5), resultSet.getInt(6), resultSet.getString(7),
+                            resultSet.getString(8), resultSet.getLong(9)));
+                }
+            }
+        }
+        if (rows.isEmpty()) {
+            putMeta(connection, source.key("state"), "done");
+            report(storage, connection, source);
+            return false;
+        }
+
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement(source.insertSql())) {
+            for (LegacyRow row : rows) {
+                String player = row.player() != null ? row.player() : "?";
+                int[] key = {
+                        dictionary.playerId(null, player),
+                        dictionary.worldId(row.world() != null ? row.world() : "?"),
+                        dictionary.actionId(row.action()),
+                        dictionary.materialId(row.material())
+                };
+                LogRepository.bindLocation(insert, row.time(), key, row.x(), row.y(), row.z());
+                insert.addBatch();
+            }
+            dictionary.writePending(connection);
+            insert.executeBatch();
+            LogPartitions.addRows(connection, source.table(), rows.size());
+            putMeta(connection, source.key("cursor"), Long.toString(rows.get(rows.size() - 1).id()));
+            connection.commit();
+            dictionary.commitPending();
+        } catch (SQLException | RuntimeException ex) {
+            connection.rollback();
+            dictionary.restorePending();
+            throw ex;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+        return true;
+    }
+
+    private void report(DatabaseProvider storage, Connection connection, Source source) throws SQLException {
+        String[] before = String.valueOf(getMeta(connection, source.key("before"))).split(",");
+        String sample = getMeta(connection, source.key("sample"));
+        long beforeBytes = before.length > 0 ? parseLong(before[0]) : -1L;
+        long beforeRows = before.length > 1 ? parseLong(before[1]) : -1L;
+        double beforeMillis = before.length > 2 ? parseDouble(before[2]) : -1.0;
+        long afterBytes = storage.getDialect().tableSizeBytes(connection, source.table());
+        long afterRows = countRows(connection, source.table());
+        double afterMillis = measureLookup(storage, source, sample == null || sample.isEmpty() ? null : sample, false);
+
+        String summary = "Migrated " + source.legacyTable() + " -> " + source.table()
+                + ": rows " + beforeRows + " -> " + afterRows
+                + ", size " + formatBytes(beforeBytes) + " -> " + formatBytes(afterBytes)
+                + (beforeBytes > 0 && afterBytes >= 0
+                        ? String.format(Locale.ROOT, " (%.0f%%)", (afterBytes - beforeBytes) * 100.0 / beforeBytes)
+                        : "")
+                + ", player lookup " + formatMillis(beforeMillis) + " -> " + formatMillis(afterMillis) + ".";
+        plugin.getLogger().info(summary);
+        plugin.getLogger().info("The legacy table " + source.legacyTable()
+                + " is no longer used and can be dropped once the migrated data has been verified.");
+        putMeta(connection, source.key("report"), summary.length() > 255 ? summary.substring(0, 255) : summary);
+    }
+
+    private String samplePlayer(Connection connection, Source source) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(
+                     "SELECT player FROM " + source.legacyTable() + " ORDER BY id DESC LIMIT 1")) {
+            return resultSet.next() ? resultSet.getString(1) : null;
+        }
+    }
+
+    private long countRows(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            return resultSet.next() ? resultSet.getLong(1) : 0L;
+        }
+    }
+
+    private double measureLookup(DatabaseProvider storage, Source source, String player, boolean legacy) {
+        if (player == null) {
+            return -1.0;
+        }
+        String sql = legacy
+                ? "SELECT player, action, " + source.materialColumn() + ", world, x, y, z, time FROM "
+                        + source.legacyTable() + " WHERE LOWER(player) = LOWER(?) ORDER BY time DESC LIMIT 50"
+                : source.selectSql() + " WHERE l.player_id IN (SELECT id FROM pulse_player WHERE name_lower = ?)"
+                        + " ORDER BY l.time DESC LIMIT 50";
+        String parameter = legacy ? player : player.toLowerCase(Locale.ROOT);
+        long best = Long.MAX_VALUE;
+        try (Connection connection = storage.openConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < LATENCY_SAMPLES; i++) {
+                long start = System.nanoTime();
+                statement.setString(1, parameter);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        resultSet.getLong("time");
+                    }
+                }
+                best = Math.min(best, System.nanoTime() - start);
+            }
+        } catch (SQLException ex) {
+            return -1.0;
+        }
+        return best / 1_000_000.0;
+    }
+
+    private String formatBytes(long bytes) {
+        if (bytes < 0) {
+            return "?";
+        }
+        return String.format(Locale.ROOT, "%.1f MB", bytes / 1024.0 / 1024.0);
+    }
+
+    private String formatMillis(double millis) {
+        return millis < 0 ? "?" : String.format(Locale.ROOT, "%.2f ms", millis);
+    }
+
+    private long parseLong(String value) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException ex) {
+            return -1L;
+        }
+    }
+
+    private double parseDouble(String value) {
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException ex) {
+            return -1.0;
+        }
+    }
+
+    private record Source(String legacyTable, String materialColumn, String table, String insertSql, String selectSql) {
+        private String key(String suffix) {
+            return "migration." + legacyTable + "." + suffix;
+        }
+    }
+
+    private record LegacyRow(long id, String player, String world, int x, int y, int z, String action,
+                             String material, long time) {
+    }
+}
@@ -0,0 +1,271 @@
+package com.azk.pulse.modules.logs;
+
+import com.azk.pulse.storage.SqlDialect;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+public class LogPartitions {
+    static final String CATALOG_TABLE = "pulse_partition";
+    private static final long DAY_MILLIS = 86_400_000L;
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private final Period period;
+    private final TableInitializer initializer;
+    private final Map<LogRepository.LogType, String> baseTables = new EnumMap<>(LogRepository.LogType.class);
+    private volatile Map<LogRepository.LogType, List<Partition>> partitions = new EnumMap<>(LogRepository.LogType.class);
+
+    public LogPartitions(Period period, TableInitializer initializer) {
+        this.period = period;
+        this.initializer = initializer;
+    }
+
+    public void register(LogRepository.LogType type, String baseTable) {
+        baseTables.put(type, baseTable);
+    }
+
+    public synchronized void load(Connection connection, SqlDialect dialect) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("CREATE TABLE IF NOT EXISTS " + CATALOG_TABLE + " ("
+                    + "table_name VARCHAR(64) NOT NULL PRIMARY KEY,"
+                    + "log_type VARCHAR(16) NOT NULL,"
+                    + "period_start BIGINT NOT NULL,"
+                    + "period_end BIGINT NOT NULL,"
+                    + "row_count BIGINT NOT NULL DEFAULT -1)");
+            if (!dialect.columnExists(connection, CATALOG_TABLE, "row_count")) {
+                statement.executeUpdate("ALTER TABLE " + CATALOG_TABLE
+                        + " ADD COLUMN row_count BIGINT NOT NULL DEFAULT -1");
+            }
+        }
+        Map<LogRepository.LogType, List<Partition>> loaded = new EnumMap<>(LogRepository.LogType.class);
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(
+                     "SELECT table_name, log_type, period_start, period_end FROM " + CATALOG_TABLE)) {
+            while (resultSet.next()) {
+                LogRepository.LogType type = LogRepository.LogType.fromString(resultSet.getString(2));
+                if (type == null) {
+                    continue;
+                }
+                loaded.computeIfAbsent(type, key -> new ArrayList<>()).add(new Partition(resultSet.getString(1), type,
+                        resultSet.getLong(3), resultSet.getLong(4)));
+            }
+        }
+        long now = System.currentTimeMillis();
+        for (Map.Entry<LogRepository.LogType, String> base : baseTables.entrySet()) {
+            List<Partition> list = loaded.computeIfAbsent(base.getKey(), key -> new ArrayList<>());
+            if (list.stream().noneMatch(partition -> partition.table().equals(base.getValue()))) {
+                Partition partition = new Partition(base.getValue(), base.getKey(), 0L, now);
+                insertCatalog(connection, partition, isEmpty(connection, partition.table()) ? 0L : -1L);
+                list.add(partition);
+            }
+        }
+        publish(loaded);
+    }
+
+    public String tableFor(Connection connection, LogRepository.LogType type, long time) throws SQLException {
+        for (Partition partition : partitions.getOrDefault(type, List.of())) {
+            if (partition.contains(time)) {
+                return partition.table();
+            }
+        }
+        return create(connection, type, time).table();
+    }
+
+    public void ensureCurrent(Connection connection, long now) throws SQLException {
+        for (LogRepository.LogType type : baseTables.keySet()) {
+            tableFor(connection, type, now);
+            tableFor(connection, type, periodEnd(periodStart(now)));
+        }
+    }
+
+    public List<Partition> newestFirst(LogRepository.LogType type, Long since) {
+        List<Partition> result = new ArrayList<>();
+        for (Partition partition : partitions.getOrDefault(type, List.of())) {
+            if (since == null || partition.end() > since) {
+                result.add(partition);
+            }
+        }
+        return result;
+    }
+
+    public List<Partition> expired(LogRepository.LogType type, long cutoff) {
+        List<Partition> result = new ArrayList<>();
+        List<Partition> list = partitions.getOrDefault(type, List.of());
+        for (int i = list.size() - 1; i >= 0; i--) {
+            if (list.get(i).end() <= cutoff) {
+                result.add(list.get(i));
+            }
+        }
+        return result;
+    }
+
+    public synchronized void drop(Connection connection, Partition partition) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("DROP TABLE IF EXISTS " + partition.table());
+        }
+        try (PreparedStatement delete = connection.prepareStatement(
+                "DELETE FROM " + CATALOG_TABLE + " WHERE table_name = ?")) {
+            delete.setString(1, partition.table());
+            delete.executeUpdate();
+        }
+        Map<LogRepository.LogType, List<Partition>> updated = copy();
+        updated.getOrDefault(partition.type(), new ArrayList<>()).removeIf(
+                existing -> existing.table().equals(partition.table()));
+        publish(updated);
+    }
+
+    /**
+     * Adds rows just inserted into a partition to its catalog counter, inside the inserting transaction. Partitions
+     * whose rows predate the counter stay at -1 (unknown).
+     */
+    static void addRows(Connection connection, String table, long rows) throws SQLException {
+        try (PreparedStatement update = connection.prepareStatement("UPDATE " + CATALOG_TABLE
+                + " SET row_count = row_count + ? WHERE table_name = ? AND row_count >= 0")) {
+            update.setLong(1, rows);
+            update.setString(2, table);
+            update.executeUpdate();
+        }
+    }
+
+    public long rowCount(Connection connection, Partition partition) throws SQLException {
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT row_count FROM " + CATALOG_TABLE + " WHERE table_name = ?")) {
+            select.setString(1, partition.table());
+            try (ResultSet resultSet = select.executeQuery()) {
+                return resultSet.next() ? resultSet.getLong(1) : -1L;
+            }
+        }
+    }
+
+    public int count() {
+        int total = 0;
+        for (List<Partition> list : partitions.values()) {
+            total += list.size();
+        }
+        return total;
+    }
+
+    private synchronized Partition create(Connection connection, LogRepository.LogType type, long time)
+            throws SQLException {
+        List<Partition> list = partitions.getOrDefault(type, List.of());
+        for (Partition partition : list) {
+            if (partition.contains(time)) {
+                return partition;
+            }
+        }
+        long start = periodStart(time);
+        long end = periodEnd(start);
+        for (Partition partition : list) {
+            if (partition.end() <= time) {
+                start = Math.max(start, partition.end());
+            }
+            if (partition.start() > time) {
+                end = Math.min(end, partition.start());
+            }
+        }
+        String name = baseTables.get(type).replace("_v2", "") + "_p"
+                + SUFFIX.format(LocalDate.ofEpochDay(Math.floorDiv(start, DAY_MILLIS)));
+        String table = name;
+        for (int suffix = 2; isTaken(list, table); suffix++) {
+            table = name + "_" + suffix;
+        }
+        Partition partition = new Partition(table, type, start, end);
+        initializer.create(connection, type, table);
+        insertCatalog(connection, partition, 0L);
+        Map<LogRepository.LogType, List<Partition>> updated = copy();
+        updated.computeIfAbsent(type, key -> new ArrayList<>()).add(partition);
+        publish(updated);
+        return partition;
+    }
+
+    private boolean isTaken(List<Partition> list, String table) {
+        for (Partition partition : list) {
+            if (partition.table().equals(table)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void insertCatalog(Connection connection, Partition partition, long rows) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO " + CATALOG_TABLE
+                + "(table_name, log_type, period_start, period_end, row_count) VALUES(?,?,?,?,?)")) {
+            insert.setString(1, partition.table());
+            insert.setString(2, partition.type().name());
+            insert.setLong(3, partition.start());
+            insert.setLong(4, partition.end());
+            insert.setLong(5, rows);
+            insert.executeUpdate();
+        }
+    }
+
+    private boolean isEmpty(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT 1 FROM " + table + " LIMIT 1")) {
+            return !resultSet.next();
+        }
+    }
+
+    long periodStart(long time) {
+        long day = Math.floorDiv(time, DAY_MILLIS);
+        if (period == Period.WEEK) {
+            day = Math.floorDiv(day + 3, 7) * 7 - 3;
+        }
+        return day * DAY_MILLIS;
+    }
+
+    long periodEnd(long start) {
+        return start + (period == Period.WEEK ? 7 : 1) * DAY_MILLIS;
+    }
+
+    private Map<LogRepository.LogType, List<Partition>> copy() {
+        Map<LogRepository.LogType, List<Partition>> copy = new EnumMap<>(LogRepository.LogType.class);
+        for (Map.Entry<LogRepository.LogType, List<Partition>> entry : partitions.entrySet()) {
+            copy.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+        }
+        return copy;
+    }
+
+    private void publish(Map<LogRepository.LogType, List<Partition>> updated) {
+        Map<LogRepository.LogType, List<Partition>> sorted = new EnumMap<>(LogRepository.LogType.class);
+        for (Map.Entry<LogRepository.LogType, List<Partition>> entry : updated.entrySet()) {
+            List<Partition> list = new ArrayList<>(entry.getValue());
+            list.sort(Comparator.comparingLong(Partition::start).reversed());
+            sorted.put(entry.getKey(), List.copyOf(list));
+        }
+        partitions = sorted;
+    }
+
+    @FunctionalInterface
+    public interface TableInitializer {
+        void create(Connection connection, LogRepository.LogType type, String table) throws SQLException;
+    }
+
+    public record Partition(String table, LogRepository.LogType type, long start, long end) {
+        public boolean contains(long time) {
+            return time >= start && time < end;
+        }
+    }
+
+    public enum Period {
+        DAY,
+        WEEK;
+
+        public static Period parse(String value) {
+            if (value != null && value.trim().toLowerCase(Locale.ROOT).startsWith("d")) {
+                return DAY;
+            }
+            return WEEK;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.azk.pulse.modules.logs;
+
+public sealed interface LogRecord {
+    long time();
+
+    record Command(String player, String command, int repeats, long time) implements LogRecord {
+    }
+
+    record Death(String player, String killer, String cause, long time) implements LogRecord {
+    }
+
+    record Chat(String player, String message, long time) implements LogRecord {
+    }
+
+    record Sign(String player, String world, int x, int y, int z, String text, long time) implements LogRecord {
+    }
+}
@@ -0,0 +1,156 @@
+package com.azk.pulse.modules.logs;
+
+import com.azk.pulse.core.MessageUtil;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.bukkit.plugin.java.JavaPlugin;
+
+public class LogRenderer {
+    private final JavaPlugin plugin;
+    private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")
+            .withZone(ZoneId.systemDefault());
+    private final Map<String, Template> templates = new ConcurrentHashMap<>();
+
+    public LogRenderer(JavaPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    public String typeLabel(LogRepository.LogType type) {
+        return MessageUtil.tr(plugin, "lookup.log." + labelKey(type) + ".type", switch (type) {
+            case BLOCKS -> "BLOCK";
+            case CHESTS -> "CHEST";
+            case COMMANDS -> "COMMAND";
+            case DEATHS -> "DEATH";
+            case EXPLOSIONS -> "EXPLOSION";
+            case BURNS -> "BURN";
+            case FLOWS -> "FLOW";
+            case PISTONS -> "PISTON";
+            case KILLS -> "KILL";
+            case ITEMS -> "ITEM";
+            case SIGNS -> "SIGN";
+            case CHAT -> "CHAT";
+        });
+    }
+
+    public String render(LogRepository.LogEntry entry) {
+        String key = "lookup.log." + labelKey(entry.type())
+                + (entry.item() != null ? ".item-line"
+                        : entry.amount() != null && entry.type() != LogRepository.LogType.ITEMS ? ".run-line" : ".line");
+        String source = MessageUtil.tr(plugin, key);
+        Template template = templates.get(key);
+        if (template == null || !template.source().equals(source)) {
+            template = Template.compile(source);
+            templates.put(key, template);
+        }
+        StringBuilder line = new StringBuilder(source.length() + 48);
+        for (int i = 0; i < template.placeholders().length; i++) {
+            line.append(template.literals()[i]);
+            String value = value(template.placeholders()[i], entry);
+            line.append(value == null ? "" : value);
+        }
+        return line.append(template.literals()[template.placeholders().length]).toString();
+    }
+
+    public String formatTime(long millis) {
+        return formatter.format(Instant.ofEpochMilli(millis));
+    }
+
+    private String value(Placeholder placeholder, LogRepository.LogEntry entry) {
+        return switch (placeholder) {
+            case TIME -> formatTime(entry.timestamp());
+            case TYPE -> typeLabel(entry.type());
+            case PLAYER -> entry.player();
+            case ACTION -> entry.action() == null ? null : MessageUtil.tr(plugin,
+                    "lookup.action." + entry.action().toLowerCase(Locale.ROOT), entry.action());
+            case CAUSE -> entry.type() == LogRepository.LogType.DEATHS ? entry.action() : null;
+            case MATERIAL, CONTAINER, COMMAND, KILLER, ENTITY, TEXT -> entry.detail();
+            case WORLD -> entry.world();
+            case X -> entry.x() == null ? null : Integer.toString(entry.x());
+            case Y -> entry.y() == null ? null : Integer.toString(entry.y());
+            case Z -> entry.z() == null ? null : Integer.toString(entry.z());
+            case ITEM -> entry.item();
+            case AMOUNT -> entry.amount() == null ? null : Integer.toString(entry.amount());
+        };
+    }
+
+    private String labelKey(LogRepository.LogType type) {
+        return switch (type) {
+            case BLOCKS -> "block";
+            case CHESTS -> "chest";
+            case COMMANDS -> "command";
+            case DEATHS -> "death";
+            case EXPLOSIONS -> "explosion";
+            case BURNS -> "burn";
+            case FLOWS -> "flow";
+            case PISTONS -> "piston";
+            case KILLS -> "kill";
+            case ITEMS -> "item";
+            case SIGNS -> "sign";
+            case CHAT -> "chat";
+        };
+    }
+
+    private enum Placeholder {
+        TIME,
+        TYPE,
+        PLAYER,
+        ACTION,
+        MATERIAL,
+        CONTAINER,
+        COMMAND,
+        CAUSE,
+        KILLER,
+        ENTITY,
+        TEXT,
+        WORLD,
+        X,
+        Y,
+        Z,
+        ITEM,
+        AMOUNT;
+
+        private static Placeholder of(String name) {
+            for (Placeholder placeholder : values()) {
+                if (placeholder.name().equalsIgnoreCase(name)) {
+                    return placeholder;
+                }
+            }
+            return null;
+        }
+    }
+
+    private record Template(String source, String[] literals, Placeholder[] placeholders) {
+        private static Template compile(String source) {
+            List<String> literals = new ArrayList<>();
+            List<Placeholder> placeholders = new ArrayList<>();
+            StringBuilder literal = new StringBuilder();
+            int index = 0;
+            while (index < source.length()) {
+                int start = source.indexOf('%', index);
+                int end = start < 0 ? -1 : source.indexOf('%', start + 1);
+                if (end < 0) {
+                    break;
+                }
+                Placeholder placeholder = Placeholder.of(source.substring(start + 1, end));
+                if (placeholder == null) {
+                    literal.append(source, index, end);
+                    index = end;
+                    continue;
+                }
+                literal.append(source, index, start);
+                literals.add(literal.toString());
+                literal.setLength(0);
+                placeholders.add(placeholder);
+                index = end + 1;
+            }
+            literals.add(literal.append(source.substring(index)).toString());
+            return new Template(source, literals.toArray(new String[0]), placeholders.toArray(new Placeholder[0]));
+        }
+    }
+}
@@ -1,356 +1,928 @@
 package com.azk.pulse.modules.logs;
 
-import com.azk.pulse.core.MessageUtil;
+import com.azk.pulse.core.ConfigFiles;
 import com.azk.pulse.storage.DatabaseProvider;
+import com.azk.pulse.storage.SqlDialect;
+import com.azk.pulse.storage.StorageFactory;
+import com.azk.pulse.storage.StorageService;
+import java.io.File;
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.time.Instant;
-import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.BooleanSupplier;
 import org.bukkit.plugin.java.JavaPlugin;
 
 public class LogRepository {
+    static final String BLOCK_TABLE = "block_log_v2";
+    static final String CHEST_TABLE = "chest_log_v2";
+    static final String INSERT_BLOCK = insertLocation(BLOCK_TABLE, "material_id");
+    static final String INSERT_CHEST = insertLocation(CHEST_TABLE, "container_id");
+    static final String SELECT_BLOCKS = selectLocation(BLOCK_TABLE, "material_id", "material", "");
+    static final String SELECT_CHESTS = selectLocation(CHEST_TABLE, "container_id", "container", "");
+    private static final String INSERT_COMMAND =
+            "INSERT INTO command_log(player, command, repeats, time) VALUES(?,?,?,?)";
+    private static final String INSERT_DEATH = "INSERT INTO death_log(player, killer, cause, time) VALUES(?,?,?,?)";
+    private static final String INSERT_CHAT = "INSERT INTO chat_log(player, message, time) VALUES(?,?,?)";
+    private static final String INSERT_SIGN =
+            "INSERT INTO sign_log(player, world, x, y, z, text, time) VALUES(?,?,?,?,?,?,?)";
+    private static final List<LogType> REVERSIBLE = Arrays.stream(LogType.values())
+            .filter(LogType::reversible)
+            .toList();
+    private static final int MAX_CHUNK_KEYS = 256;
+    private static final int EXPORT_CHUNK_SIZE = 1000;
+
     private final JavaPlugin plugin;
+    private final ConfigFiles configFiles;
+    private final StorageService storageService;
     private final DatabaseProvider storage;
-    private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")
-            .withZone(ZoneId.systemDefault());
+    private final LogDictionary dictionary = new LogDictionary();
+    private final LogPartitions partitions;
+    private final RecentLogBuffer recentBuffer;
+    private final LogSegmentStore segments;
+    private final LookupCache cache;
+    private LogWriteQueue writeQueue;
+    private LogMigration migration;
+    private LogRetention retention;
+    private LogSegmentImporter importer;
 
-    public LogRepository(JavaPlugin plugin, DatabaseProvider storage) {
+    public LogRepository(JavaPlugin plugin, ConfigFiles configFiles, StorageService storageService) {
         this.plugin = plugin;
-        this.storage = storage;
+        this.configFiles = configFiles;
+        this.storageService = storageService;
+        this.storage = storageService.getProvider();
+        this.partitions = new LogPartitions(
+                LogPartitions.Period.parse(configFiles.getMain().getString("logs.partition.period", "week")),
+                this::createLocationTable);
+        for (LogType type : LogType.values()) {
+            if (type.partitioned()) {
+                partitions.register(type, type.table());
+            }
+        }
+        this.recentBuffer = configFiles.getMain().getBoolean("logs.recent-buffer.enabled", true)
+                ? new RecentLogBuffer(dictionary,
+                        configFiles.getMain().getInt("logs.recent-buffer.max-events-per-world", 50000),
+                        configFiles.getMain().getLong("logs.recent-buffer.minutes", 10L) * 60_000L)
+                : null;
+        this.segments = StorageFactory.usesLogSegments(configFiles.getMain())
+                ? new LogSegmentStore(new File(plugin.getDataFolder(), StorageFactory.PULSELOG), partitions,
+                        configFiles.getMain().getInt("storage.pulselog.segment-records", 1 << 20))
+                : null;
+        this.cache = configFiles.getMain().getBoolean("logs.lookup.cache.enabled", true)
+                ? new LookupCache(configFiles.getMain().getInt("logs.lookup.cache.max-entries", 256),
+                        configFiles.getMain().getLong("logs.lookup.cache.ttl-seconds", 60L) * 1000L,
+                        configFiles.getMain().getLong("logs.lookup.cache.since-granularity-seconds", 10L) * 1000L)
+                : null;
     }
 
     public void init() {
-        storage.init();
-        createTables();
+        if (!createTables()) {
+            return;
+        }
+        if (segments != null) {
+            try {
+                segments.open();
+            } catch (IOException ex) {
+                plugin.getLogger().warning("Failed to open pulselog segments: " + ex.getMessage());
+                return;
+            }
+        }
+        int batchSize = configFiles.getMain().getInt("logs.writer.batch-size", 500);
+        LogCoalescer coalescer = configFiles.getMain().getBoolean("logs.coalesce.enabled", false)
+                ? new LogCoalescer(configFiles.getMain().getLong("logs.coalesce.window-ms", 2000L),
+                        configFiles.getMain().getInt("logs.coalesce.max-run", 64), batchSize)
+                : null;
+        writeQueue = new LogWriteQueue(plugin, storageService, this::writeBatch, coalescer,
+                configFiles.getMain().getInt("logs.writer.queue-capacity", 50000),
+                batchSize,
+                configFiles.getMain().getLong("logs.writer.flush-interval-ms", 1000L));
+        writeQueue.start();
+        migration = new LogMigration(plugin, storageService, dictionary,
+                configFiles.getMain().getInt("logs.migration.batch-size", 2000),
+                configFiles.getMain().getLong("logs.migration.interval-ms", 250L));
+        migration.start();
+        retention = new LogRetention(plugin, storageService, partitions, segments, this::clearCache,
+                configFiles.getMain());
+        retention.start();
+        if (segments != null) {
+            importer = new LogSegmentImporter(plugin, storageService, partitions, segments, this::clearCache,
+                    migration::isFinished,
+                    configFiles.getMain().getInt("storage.pulselog.import-batch-size", 5000),
+                    configFiles.getMain().getLong("storage.pulselog.import-interval-ms", 100L));
+            importer.start();
+        }
     }
 
     public void shutdown() {
-        storage.shutdown();
-    }
-
-    public void logBlock(String player, String world, int x, int y, int z, String action, String material) {
-        runAsync(() -> {
-            String sql = "INSERT INTO block_log(player, world, x, y, z, action, material, time) VALUES(?,?,?,?,?,?,?,?)";
-            try (Connection connection = storage.openConnection();
-                 PreparedStatement statement = connection.prepareStatement(sql)) {
-                statement.setString(1, player);
-                statement.setString(2, world);
-                statement.setInt(3, x);
-                statement.setInt(4, y);
-                statement.setInt(5, z);
-                statement.setString(6, action);
-                statement.setString(7, material);
-                statement.setLong(8, System.currentTimeMillis());
-                statement.executeUpdate();
-            } catch (SQLException ex) {
-                plugin.getLogger().warning("Failed to log block event: " + ex.getMessage());
-            }
-        });
-    }
-
-    public void logChest(String player, String world, int x, int y, int z, String action, String containerType) {
-        runAsync(() -> {
-            String sql = "INSERT INTO chest_log(player, world, x, y, z, action, container, time) VALUES(?,?,?,?,?,?,?,?)";
-            try (Connection connection = storage.openConnection();
-                 PreparedStatement statement = connection.prepareStatement(sql)) {
-                statement.setString(1, player);
-                statement.setString(2, world);
-                statement.setInt(3, x);
-                statement.setInt(4, y);
-                statement.setInt(5, z);
-                statement.setString(6, action);
-                statement.setString(7, containerType);
-                statement.setLong(8, System.currentTimeMillis());
-                statement.executeUpdate();
-            } catch (SQLException ex) {
-                plugin.getLogger().warning("Failed to log chest event: " + ex.getMessage());
-            }
-        });
+        if (importer != null) {
+            importer.stop();
+            importer = null;
+        }
+        if (retention != null) {
+            retention.stop();
+            retention = null;
+        }
+        if (migration != null) {
+            migration.stop();
+            migration = null;
+        }
+        if (writeQueue != null) {
+            writeQueue.shutdown();
+            writeQueue = null;
+        }
+        if (segments != null) {
+            try {
+                segments.close();
+            } catch (IOException ex) {
+                plugin.getLogger().warning("Failed to seal pulselog segments: " + ex.getMessage());
+            }
+        }
+    }
+
+    public LogWriteQueue.Stats getWriterStats() {
+        return writeQueue != null ? writeQueue.getStats() : null;
+    }
+
+    public LogRetention.Stats getRetentionStats() {
+        return retention != null ? retention.getStats() : null;
+    }
+
+    public LogSegmentStore.Stats getSegmentStats() {
+        return segments != null ? segments.getStats() : null;
+    }
+
+    public LookupCache.Stats getLookupCacheStats() {
+        return cache != null ? cache.getStats() : null;
     }
 
     public void logCommand(String player, String command) {
-        runAsync(() -> {
-            String sql = "INSERT INTO command_log(player, command, time) VALUES(?,?,?)";
-            try (Connection connection = storage.openConnection();
-                 PreparedStatement statement = connection.prepareStatement(sql)) {
-                statement.setString(1, player);
-                statement.setString(2, command);
-                statement.setLong(3, System.currentTimeMillis());
-                statement.executeUpdate();
-            } catch (SQLException ex) {
-                plugin.getLogger().warning("Failed to log command: " + ex.getMessage());
-            }
-        });
+        enqueue(new LogRecord.Command(player, command, 1, System.currentTimeMillis()));
     }
 
     public void logDeath(String player, String killer, String cause) {
-        runAsync(() -> {
-            String sql = "INSERT INTO death_log(player, killer, cause, time) VALUES(?,?,?,?)";
-            try (Connection connection = storage.openConnection();
-                 PreparedStatement statement = connection.prepareStatement(sql)) {
-                statement.setString(1, player);
-                statement.setString(2, killer);
-                statement.setString(3, cause);
-                statement.setLong(4, System.currentTimeMillis());
-                statement.executeUpdate();
-            } catch (SQLException ex) {
-                plugin.getLogger().warning("Failed to log death: " + ex.getMessage());
+        enqueue(new LogRecord.Death(player, killer, cause, System.currentTimeMillis()));
+    }
+
+    public void logChat(String player, String message) {
+        enqueue(new LogRecord.Chat(player, message, System.currentTimeMillis()));
+    }
+
+    public void logSign(String player, String world, int x, int y, int z, String text) {
+        long time = System.currentTimeMillis();
+        enqueue(new LogRecord.Sign(player, world, x, y, z, text, time));
+        if (recentBuffer != null && writeQueue != null) {
+            recentBuffer.record(new LogEntry(time, LogType.SIGNS, player, null, text, world, x, y, z, null, null));
+        }
+    }
+
+    LogDictionary dictionary() {
+        return dictionary;
+    }
+
+    void capture(LogType type, long time, int playerId, int worldId, int actionId, int materialId, int detailId,
+                 int amount, int x, int y, int z) {
+        LogWriteQueue queue = writeQueue;
+        if (queue != null) {
+            queue.offer(type, time, playerId, worldId, actionId, materialId, detailId, amount, BlockKey.of(x, y, z));
+            if (recentBuffer != null) {
+                recentBuffer.record(type, time, playerId, worldId, actionId, materialId, detailId, amount, x, y, z);
+            }
+        }
+    }
+
+    private void enqueue(LogRecord record) {
+        LogWriteQueue queue = writeQueue;
+        if (queue != null) {
+            queue.enqueue(record);
+        }
+    }
+
+    private int writeBatch(Connection connection, List<LogRecord> records, LogEventRing.Batch events)
+            throws SQLException {
+        Map<String, PreparedStatement> statements = new LinkedHashMap<>();
+        try {
+            int knownPartitions = partitions.count();
+            int located = segments != null ? 0 : events.size();
+            String[] tables = new String[located];
+            for (int i = 0; i < located; i++) {
+                tables[i] = partitions.tableFor(connection, events.types[i], events.times[i]);
+            }
+            if (partitions.count() != knownPartitions) {
+                connection.commit();
             }
-        });
+
+            dictionary.writePending(connection);
+            Map<String, Integer> partitionRows = new HashMap<>();
+            for (int i = 0; i < located; i++) {
+                partitionRows.merge(tables[i], 1, Integer::sum);
+                boolean block = events.types[i].shape() == Shape.BLOCK;
+                PreparedStatement statement = statement(connection, statements, tables[i],
+                        block ? insertBlock(tables[i]) : insertChest(tables[i]));
+                long position = events.positions[i];
+                bindLocation(statement, events.times[i], events.players[i], events.worlds[i], events.actions[i],
+                        events.materials[i], BlockKey.x(position), BlockKey.y(position), BlockKey.z(position));
+                statement.setInt(10, events.details[i]);
+                if (block) {
+                    int span = events.spans[i];
+                    statement.setInt(11, events.axes[i] == 1 ? span : 0);
+                    statement.setInt(12, events.axes[i] == 2 ? span : 0);
+                    statement.setInt(13, events.axes[i] == 3 ? span : 0);
+                } else {
+                    statement.setInt(11, events.amounts[i]);
+                }
+                statement.addBatch();
+            }
+            for (LogRecord record : records) {
+                switch (record) {
+                    case LogRecord.Command command -> {
+                        PreparedStatement statement = statement(connection, statements, "command_log", INSERT_COMMAND);
+                        statement.setString(1, command.player());
+                        statement.setString(2, command.command());
+                        statement.setInt(3, command.repeats());
+                        statement.setLong(4, command.time());
+                        statement.addBatch();
+                    }
+                    case LogRecord.Death death -> {
+                        PreparedStatement statement = statement(connection, statements, "death_log", INSERT_DEATH);
+                        statement.setString(1, death.player());
+                        statement.setString(2, death.killer());
+                        statement.setString(3, death.cause());
+                        statement.setLong(4, death.time());
+                        statement.addBatch();
+                    }
+                    case LogRecord.Chat chat -> {
+                        PreparedStatement statement = statement(connection, statements, "chat_log", INSERT_CHAT);
+                        statement.setString(1, chat.player());
+                        statement.setString(2, chat.message());
+                        statement.setLong(3, chat.time());
+                        statement.addBatch();
+                    }
+                    case LogRecord.Sign sign -> {
+                        PreparedStatement statement = statement(connection, statements, "sign_log", INSERT_SIGN);
+                        statement.setString(1, sign.player());
+                        statement.setString(2, sign.world());
+                        statement.setInt(3, sign.x());
+                        statement.setInt(4, sign.y());
+                        statement.setInt(5, sign.z());
+                        statement.setString(6, sign.text());
+                        statement.setLong(7, sign.time());
+                        statement.addBatch();
+                    }
+                }
+            }
+            for (PreparedStatement statement : statements.values()) {
+                statement.executeBatch();
+            }
+            for (Map.Entry<String, Integer> entry : partitionRows.entrySet()) {
+                LogPartitions.addRows(connection, entry.getKey(), entry.getValue());
+            }
+            if (segments != null || cache != null) {
+                connection.commit();
+            }
+            int lost = 0;
+            if (segments != null && events.size() > 0) {
+                try {
+                    segments.append(events);
+                } catch (IOException ex) {
+                    // The rows and dictionary entries above are committed; only these events are lost.
+                    plugin.getLogger().warning("Failed to append " + events.size()
+                            + " events to the pulselog segment: " + ex.getMessage());
+                    lost = events.size();
+                }
+            }
+            dictionary.commitPending();
+            invalidateCache(records, events);
+            return lost;
+        } catch (SQLException | RuntimeException ex) {
+            dictionary.restorePending();
+            throw ex;
+        } finally {
+            for (PreparedStatement statement : statements.values()) {
+                close(statement);
+            }
+        }
+    }
+
+    private void invalidateCache(List<LogRecord> records, LogEventRing.Batch events) {
+        if (cache == null) {
+            return;
+        }
+        LookupCache.Touched touched = new LookupCache.Touched();
+        for (int i = 0; i < events.size(); i++) {
+            long position = events.positions[i];
+            boolean block = events.types[i].shape() == Shape.BLOCK;
+            int span = block ? events.spans[i] : 0;
+            touched.add(events.types[i], events.times[i], dictionary.playerName(events.players[i]),
+                    dictionary.worldName(events.worlds[i]), BlockKey.x(position), BlockKey.y(position),
+                    BlockKey.z(position), events.axes[i] == 1 ? span : 0, events.axes[i] == 2 ? span : 0,
+                    events.axes[i] == 3 ? span : 0);
+        }
+        for (LogRecord record : records) {
+            switch (record) {
+                case LogRecord.Command command -> touched.add(LogType.COMMANDS, command.time(), command.player(),
+                        null, null, null, null, 0, 0, 0);
+                case LogRecord.Death death -> touched.add(LogType.DEATHS, death.time(), death.player(),
+                        null, null, null, null, 0, 0, 0);
+                case LogRecord.Chat chat -> touched.add(LogType.CHAT, chat.time(), chat.player(),
+                        null, null, null, null, 0, 0, 0);
+                case LogRecord.Sign sign -> touched.add(LogType.SIGNS, sign.time(), sign.player(),
+                        sign.world(), sign.x(), sign.y(), sign.z(), 0, 0, 0);
+            }
+        }
+        if (!touched.isEmpty()) {
+            cache.invalidate(touched);
+        }
+    }
+
+    private void clearCache() {
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    private PreparedStatement statement(Connection connection, Map<String, PreparedStatement> statements, String table,
+                                        String sql) throws SQLException {
+        PreparedStatement statement = statements.get(table);
+        if (statement == null) {
+            statement = connection.prepareStatement(sql);
+            statements.put(table, statement);
+        }
+        return statement;
+    }
+
+    static String insertLocation(String table, String materialColumn) {
+        return "INSERT INTO " + table + "(time, player_id, world_id, x, y, z, action_id, " + materialColumn
+                + ", chunk_key) VALUES(?,?,?,?,?,?,?,?,?)";
+    }
+
+    static String insertBlock(String table) {
+        return "INSERT INTO " + table + "(time, player_id, world_id, x, y, z, action_id, material_id, chunk_key,"
+                + " data_id, dx, dy, dz) VALUES(?,?,?,?,?,?,?,?,?,?,?,?,?)";
+    }
+
+    static String insertChest(String table) {
+        return "INSERT INTO " + table + "(time, player_id, world_id, x, y, z, action_id, container_id, chunk_key,"
+                + " item_id, amount) VALUES(?,?,?,?,?,?,?,?,?,?,?)";
+    }
+
+    static void bindLocation(PreparedStatement statement, long time, int[] key, int x, int y, int z)
+            throws SQLException {
+        bindLocation(statement, time, key[0], key[1], key[2], key[3], x, y, z);
+    }
+
+    static void bindLocation(PreparedStatement statement, long time, int playerId, int worldId, int actionId,
+                             int materialId, int x, int y, int z) throws SQLException {
+        statement.setLong(1, time);
+        statement.setInt(2, playerId);
+        statement.setInt(3, worldId);
+        statement.setInt(4, x);
+        statement.setInt(5, y);
+        statement.setInt(6, z);
+        statement.setInt(7, actionId);
+        statement.setInt(8, materialId);
+        statement.setLong(9, ChunkKey.of(x, z));
+    }
+
+    private void close(Statement statement) {
+        if (statement == null) {
+            return;
+        }
+        try {
+            statement.close();
+        } catch (SQLException ignored) {
+        }
     }
 
     public List<LogEntry> fetchRecent(LookupQuery query) {
+        return fetchPage(query).entries();
+    }
+
+    public LookupPage recentPage(LookupQuery query) {
         int safeLimit = Math.max(1, Math.min(query.limit(), 200));
-        List<LogEntry> entries = new ArrayList<>();
-        boolean hasActionFilter = query.action() != null && !query.action().isBlank();
-        boolean hasMaterialFilter = query.material() != null && !query.material().isBlank();
+        RecentLogBuffer.Hit recent = recentBuffer != null ? recentBuffer.lookup(query, safeLimit) : null;
+        return recent != null && recent.complete() ? recentPage(recent.entries(), safeLimit) : null;
+    }
 
-        if (query.type() == null || query.type() == LogType.BLOCKS) {
-            entries.addAll(fetchBlocks(query, safeLimit));
-        }
-        if (query.type() == null || query.type() == LogType.CHESTS) {
-            entries.addAll(fetchChests(query, safeLimit));
+    public LookupPage fetchPage(LookupQuery query) {
+        return fetchPage(query, null);
+    }
+
+    public LookupPage fetchPage(LookupQuery query, LookupJob job) {
+        if (cache == null) {
+            LookupPage page = fetchUncached(query, job);
+            return page != null ? page : new LookupPage(List.of(), null);
         }
-        if (query.type() == LogType.COMMANDS || (query.type() == null && !hasActionFilter && !hasMaterialFilter)) {
-            entries.addAll(fetchCommands(query, safeLimit));
+        LookupQuery normalized = cache.normalize(query);
+        LookupPage cached = cache.get(normalized);
+        if (cached != null) {
+            return cached;
         }
-        if (query.type() == LogType.DEATHS || (query.type() == null && !hasActionFilter && !hasMaterialFilter)) {
-            entries.addAll(fetchDeaths(query, safeLimit));
+        LookupCache.Fetch fetch = cache.begin(normalized);
+        LookupPage page = null;
+        try {
+            page = fetchUncached(normalized, job);
+        } finally {
+            cache.finish(fetch, job == null || !job.cancelled() ? page : null);
         }
+        return page != null ? page : new LookupPage(List.of(), null);
+    }
 
-        if (query.type() == null) {
-            entries.sort(Comparator.comparingLong(LogEntry::timestamp).reversed());
-            if (entries.size() > safeLimit) {
-                return new ArrayList<>(entries.subList(0, safeLimit));
+    private LookupPage fetchUncached(LookupQuery query, LookupJob job) {
+        int safeLimit = Math.max(1, Math.min(query.limit(), 200));
+        RecentLogBuffer.Hit recent = recentBuffer != null ? recentBuffer.lookup(query, safeLimit) : null;
+        if (recent != null && recent.complete()) {
+            return recentPage(recent.entries(), safeLimit);
+        }
+        List<LogEntry> entries = new ArrayList<>(safeLimit);
+        LookupQuery remaining = query;
+        LookupCursor last = null;
+        if (recent != null) {
+            entries.addAll(recent.entries());
+            remaining = query.after(LookupCursor.before(recent.coveredFrom()));
+            last = recent.entries().isEmpty() ? null : recentCursor(recent.entries().get(recent.entries().size() - 1));
+        }
+        try (Connection connection = storage.openConnection()) {
+            LookupCursor older = merge(connection, remaining, typesFor(remaining), safeLimit - entries.size(),
+                    safeLimit, false, row -> entries.add(row.entry()), job);
+            last = older != null ? older : last;
+        } catch (SQLException | IOException ex) {
+            if (job == null || !job.cancelled()) {
+                plugin.getLogger().warning("Failed to fetch logs: " + ex.getMessage());
             }
+            return null;
         }
+        return new LookupPage(entries, entries.size() >= safeLimit ? last : null);
+    }
 
-        return entries;
+    private LookupPage recentPage(List<LogEntry> entries, int limit) {
+        return new LookupPage(entries, entries.size() >= limit ? recentCursor(entries.get(entries.size() - 1)) : null);
     }
 
-    private List<LogEntry> fetchBlocks(LookupQuery query, int limit) {
-        List<LogEntry> entries = new ArrayList<>();
-        QueryStatement statementData = buildLocationQuery(
-                "SELECT player, action, material, world, x, y, z, time FROM block_log",
-                query, limit, true, "action", "material");
+    private LookupCursor recentCursor(LogEntry entry) {
+        // Buffered entries have no row id yet; id 0 resumes after the whole (time, type) group the buffer served.
+        return new LookupCursor(entry.timestamp(), entry.type().ordinal(), 0L);
+    }
 
-        try (Connection connection = storage.openConnection();
-             PreparedStatement statement = connection.prepareStatement(statementData.sql())) {
-            statementData.apply(statement);
-            try (ResultSet resultSet = statement.executeQuery()) {
-                while (resultSet.next()) {
-                    String player = resultSet.getString("player");
-                    String action = resultSet.getString("action");
-                    String material = resultSet.getString("material");
-                    String world = resultSet.getString("world");
-                    int x = resultSet.getInt("x");
-                    int y = resultSet.getInt("y");
-                    int z = resultSet.getInt("z");
-                    long time = resultSet.getLong("time");
-                    String typeLabel = MessageUtil.tr(plugin, "lookup.log.block.type", "BLOCK");
-                    String actionLabel = MessageUtil.tr(plugin,
-                            "lookup.action." + action.toLowerCase(Locale.ROOT), action);
-                    String message = MessageUtil.tr(plugin, "lookup.log.block.line", java.util.Map.of(
-                            "time", formatTime(time),
-                            "type", typeLabel,
-                            "player", player,
-                            "action", actionLabel,
-                            "material", material,
-                            "world", world,
-                            "x", Integer.toString(x),
-                            "y", Integer.toString(y),
-                            "z", Integer.toString(z)
-                    ));
-                    entries.add(new LogEntry(time, typeLabel, message, world, x, y, z));
+    public long exportRows(LookupQuery query, long maxRows, RowSink sink, BooleanSupplier cancelled)
+            throws SQLException, IOException {
+        long[] written = new long[1];
+        try (Connection connection = storage.openConnection()) {
+            merge(connection, query, maxRows > 0 ? maxRows : Long.MAX_VALUE, EXPORT_CHUNK_SIZE, false, row -> {
+                sink.accept(row.entry());
+                written[0]++;
+            }, cancelled);
+        }
+        return written[0];
+    }
+
+    public long blockChanges(LookupQuery query, BlockChangeSink sink, BooleanSupplier cancelled)
+            throws SQLException, IOException {
+        long[] read = new long[1];
+        List<LogType> types = query.type() != null ? List.of(query.type()) : REVERSIBLE;
+        try (Connection connection = storage.openConnection()) {
+            merge(connection, query, types, Long.MAX_VALUE, EXPORT_CHUNK_SIZE, true, row -> {
+                LogEntry entry = row.entry();
+                int count = entry.amount() != null ? entry.amount() : 1;
+                for (int i = 0; i < count; i++) {
+                    sink.accept(new BlockChange(entry.timestamp(), entry.world(),
+                            entry.x() + (row.axis() == 1 ? i : 0), entry.y() + (row.axis() == 2 ? i : 0),
+                            entry.z() + (row.axis() == 3 ? i : 0), entry.action(), entry.detail(), row.state()));
                 }
+                read[0] += count;
+            }, cancelled);
+        }
+        return read[0];
+    }
+
+    private LookupCursor merge(Connection connection, LookupQuery query, long total, int chunk, boolean withState,
+                               RowHandler handler, BooleanSupplier cancelled) throws SQLException, IOException {
+        return merge(connection, query, typesFor(query), total, chunk, withState, handler, cancelled);
+    }
+
+    private List<LogType> typesFor(LookupQuery query) {
+        if (query.type() != null) {
+            return List.of(query.type());
+        }
+        boolean filtered = query.action() != null && !query.action().isBlank()
+                || query.material() != null && !query.material().isBlank();
+        boolean hasLocation = query.world() != null || query.x() != null || query.z() != null || query.minX() != null;
+        List<LogType> types = new ArrayList<>();
+        for (LogType type : LogType.values()) {
+            if (type.partitioned() || type.located() && !filtered || !filtered && !hasLocation) {
+                types.add(type);
             }
-        } catch (SQLException ex) {
-            plugin.getLogger().warning("Failed to fetch block logs: " + ex.getMessage());
         }
-        return entries;
+        return types;
     }
 
-    private List<LogEntry> fetchChests(LookupQuery query, int limit) {
-        List<LogEntry> entries = new ArrayList<>();
-        QueryStatement statementData = buildLocationQuery(
-                "SELECT player, action, container, world, x, y, z, time FROM chest_log",
-                query, limit, true, "action", "container");
+    private LookupCursor merge(Connection connection, LookupQuery query, List<LogType> types, long total, int chunk,
+                               boolean withState, RowHandler handler, BooleanSupplier cancelled)
+            throws SQLException, IOException {
+        return merge(connection, query, types, total, chunk, withState, handler, cancelled, null);
+    }
 
-        try (Connection connection = storage.openConnection();
-             PreparedStatement statement = connection.prepareStatement(statementData.sql())) {
-            statementData.apply(statement);
-            try (ResultSet resultSet = statement.executeQuery()) {
-                while (resultSet.next()) {
-                    String player = resultSet.getString("player");
-                    String action = resultSet.getString("action");
-                    String container = resultSet.getString("container");
-                    String world = resultSet.getString("world");
-                    int x = resultSet.getInt("x");
-                    int y = resultSet.getInt("y");
-                    int z = resultSet.getInt("z");
-                    long time = resultSet.getLong("time");
-                    String typeLabel = MessageUtil.tr(plugin, "lookup.log.chest.type", "CHEST");
-                    String actionLabel = MessageUtil.tr(plugin,
-                            "lookup.action." + action.toLowerCase(Locale.ROOT), action);
-                    String message = MessageUtil.tr(plugin, "lookup.log.chest.line", java.util.Map.of(
-                            "time", formatTime(time),
-                            "type", typeLabel,
-                            "player", player,
-                            "action", actionLabel,
-                            "container", container,
-                            "world", world,
-                            "x", Integer.toString(x),
-                            "y", Integer.toString(y),
-                            "z", Integer.toString(z)
-                    ));
-                    entries.add(new LogEntry(time, typeLabel, message, world, x, y, z));
+    private LookupCursor merge(Connection connection, LookupQuery query, List<LogType> types, long total, int chunk,
+                               boolean withState, RowHandler handler, LookupJob job)
+            throws SQLException, IOException {
+        return merge(connection, query, types, total, chunk, withState, handler,
+                job != null ? job::cancelled : () -> false, job);
+    }
+
+    private LookupCursor merge(Connection connection, LookupQuery query, List<LogType> types, long total, int chunk,
+                               boolean withState, RowHandler handler, BooleanSupplier cancelled, LookupJob job)
+            throws SQLException, IOException {
+        List<Integer> playerIds = query.player() != null ? playerIds(connection, query.player()) : null;
+        List<RowStream> sources = new ArrayList<>();
+        for (LogType type : types) {
+            sources.add(new RowStream(type, query, playerIds, total, chunk, withState, job));
+        }
+        LookupCursor last = null;
+        long emitted = 0;
+        try {
+            PriorityQueue<RowStream> heads = new PriorityQueue<>(
+                    Comparator.comparing(RowStream::head, Row.NEWEST_FIRST));
+            for (RowStream source : sources) {
+                if (source.advance(connection)) {
+                    heads.add(source);
                 }
             }
-        } catch (SQLException ex) {
-            plugin.getLogger().warning("Failed to fetch chest logs: " + ex.getMessage());
+            while (emitted < total && !heads.isEmpty() && !cancelled.getAsBoolean()) {
+                RowStream source = heads.poll();
+                Row row = source.head();
+                handler.accept(row);
+                emitted++;
+                last = row.cursor();
+                if (source.advance(connection)) {
+                    heads.add(source);
+                }
+            }
+        } finally {
+            for (RowStream source : sources) {
+                source.close();
+            }
         }
-        return entries;
+        return last;
     }
 
-    private List<LogEntry> fetchCommands(LookupQuery query, int limit) {
-        List<LogEntry> entries = new ArrayList<>();
-        QueryStatement statementData = buildSimpleQuery(
-                "SELECT player, command, time FROM command_log", query, limit);
-        try (Connection connection = storage.openConnection();
-             PreparedStatement statement = connection.prepareStatement(statementData.sql())) {
-            statementData.apply(statement);
-            try (ResultSet resultSet = statement.executeQuery()) {
-                while (resultSet.next()) {
-                    String player = resultSet.getString("player");
-                    String command = resultSet.getString("command");
-                    long time = resultSet.getLong("time");
-                    String typeLabel = MessageUtil.tr(plugin, "lookup.log.command.type", "COMMAND");
-                    String message = MessageUtil.tr(plugin, "lookup.log.command.line", java.util.Map.of(
-                            "time", formatTime(time),
-                            "type", typeLabel,
-                            "player", player,
-                            "command", command
-                    ));
-                    entries.add(new LogEntry(time, typeLabel, message, null, null, null, null));
-                }
+    private Row readRow(LogType type, ResultSet resultSet, boolean withState, int[] bounds) throws SQLException {
+        long time = resultSet.getLong("time");
+        String player = resultSet.getString("player");
+        LogEntry entry = switch (type) {
+            case BLOCKS, EXPLOSIONS, BURNS, FLOWS, PISTONS, KILLS -> readBlock(type, resultSet, time, player, bounds);
+            case CHESTS, ITEMS -> {
+                int amount = resultSet.getInt("amount");
+                yield new LogEntry(time, type, player, resultSet.getString("action"),
+                        resultSet.getString("container"), resultSet.getString("world"), resultSet.getInt("x"),
+                        resultSet.getInt("y"), resultSet.getInt("z"), resultSet.getString("item"),
+                        amount > 0 ? amount : null);
             }
-        } catch (SQLException ex) {
-            plugin.getLogger().warning("Failed to fetch command logs: " + ex.getMessage());
+            case COMMANDS -> {
+                int repeats = resultSet.getInt("repeats");
+                yield new LogEntry(time, type, player, null, resultSet.getString("command"),
+                        null, null, null, null, null, repeats > 1 ? repeats : null);
+            }
+            case DEATHS -> new LogEntry(time, type, player, resultSet.getString("cause"), resultSet.getString("killer"),
+                    null, null, null, null, null, null);
+            case CHAT -> new LogEntry(time, type, player, null, resultSet.getString("message"),
+                    null, null, null, null, null, null);
+            case SIGNS -> new LogEntry(time, type, player, null, resultSet.getString("text"),
+                    resultSet.getString("world"), resultSet.getInt("x"), resultSet.getInt("y"), resultSet.getInt("z"),
+                    null, null);
+        };
+        int axis = 0;
+        if (type.shape() == Shape.BLOCK) {
+            axis = resultSet.getInt("dx") > 0 ? 1
+                    : resultSet.getInt("dy") > 0 ? 2
+                    : resultSet.getInt("dz") > 0 ? 3 : 0;
         }
-        return entries;
+        return new Row(entry, new LookupCursor(time, type.ordinal(), resultSet.getLong("id")),
+                withState ? resultSet.getString("state") : null, axis);
     }
 
-    private List<LogEntry> fetchDeaths(LookupQuery query, int limit) {
-        List<LogEntry> entries = new ArrayList<>();
-        QueryStatement statementData = buildSimpleQuery(
-                "SELECT player, killer, cause, time FROM death_log", query, limit);
-        try (Connection connection = storage.openConnection();
-             PreparedStatement statement = connection.prepareStatement(statementData.sql())) {
-            statementData.apply(statement);
+    private LogEntry readBlock(LogType type, ResultSet resultSet, long time, String player, int[] bounds)
+            throws SQLException {
+        return clippedBlock(type, time, player, resultSet.getString("action"), resultSet.getString("material"),
+                resultSet.getString("world"), resultSet.getInt("x"), resultSet.getInt("y"), resultSet.getInt("z"),
+                resultSet.getInt("dx"), resultSet.getInt("dy"), resultSet.getInt("dz"), bounds);
+    }
+
+    private Row readSegmentRow(LogType type, LogSegmentStore.Scan scan, boolean withState, int[] bounds) {
+        long time = scan.time();
+        String player = dictionary.playerName(scan.player());
+        String action = dictionary.actionName(scan.action());
+        String material = dictionary.materialName(scan.material());
+        String world = dictionary.worldName(scan.world());
+        long position = scan.position();
+        int x = BlockKey.x(position);
+        int y = BlockKey.y(position);
+        int z = BlockKey.z(position);
+        LogEntry entry;
+        int axis = 0;
+        if (type.shape() == Shape.BLOCK) {
+            axis = scan.axis();
+            int span = scan.amount();
+            entry = clippedBlock(type, time, player, action, material, world, x, y, z, axis == 1 ? span : 0,
+                    axis == 2 ? span : 0, axis == 3 ? span : 0, bounds);
+        } else {
+            int amount = scan.amount();
+            entry = new LogEntry(time, type, player, action, material, world, x, y, z,
+                    scan.detail() > 0 ? dictionary.materialName(scan.detail()) : null, amount > 0 ? amount : null);
+        }
+        return new Row(entry, new LookupCursor(time, type.ordinal(), scan.id()),
+                withState ? dictionary.blockDataName(scan.detail()) : null, axis);
+    }
+
+    private LogEntry clippedBlock(LogType type, long time, String player, String action, String material,
+                                  String world, int x, int y, int z, int dx, int dy, int dz, int[] bounds) {
+        int fromX = Math.max(x, bounds[0]);
+        int toX = Math.min(x + dx, bounds[1]);
+        int fromY = Math.max(y, bounds[2]);
+        int toY = Math.min(y + dy, bounds[3]);
+        int fromZ = Math.max(z, bounds[4]);
+        int toZ = Math.min(z + dz, bounds[5]);
+        int count = (toX - fromX) + (toY - fromY) + (toZ - fromZ) + 1;
+        return new LogEntry(time, type, player, action, material, world, fromX, fromY, fromZ, null,
+                count > 1 ? count : null);
+    }
+
+    static int[] locationBounds(LookupQuery query) {
+        int[] bounds = {Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE,
+                Integer.MIN_VALUE, Integer.MAX_VALUE};
+        if (query.minX() != null && query.maxX() != null && query.minZ() != null && query.maxZ() != null) {
+            bounds[0] = query.minX();
+            bounds[1] = query.maxX();
+            bounds[4] = query.minZ();
+            bounds[5] = query.maxZ();
+            if (query.minY() != null && query.maxY() != null) {
+                bounds[2] = query.minY();
+                bounds[3] = query.maxY();
+            }
+            return bounds;
+        }
+        int radius = query.radius() != null && query.radius() > 0 ? query.radius() : 0;
+        if (query.x() != null && query.z() != null) {
+            bounds[0] = query.x() - radius;
+            bounds[1] = query.x() + radius;
+            bounds[4] = query.z() - radius;
+            bounds[5] = query.z() + radius;
+        }
+        if (query.y() != null) {
+            bounds[2] = query.y();
+            bounds[3] = query.y();
+        }
+        return bounds;
+    }
+
+    private List<Integer> playerIds(Connection connection, String player) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT id FROM " + LogDictionary.PLAYER_TABLE + " WHERE name_lower = ?")) {
+            statement.setString(1, player.toLowerCase(Locale.ROOT));
             try (ResultSet resultSet = statement.executeQuery()) {
                 while (resultSet.next()) {
-                    String player = resultSet.getString("player");
-                    String killer = resultSet.getString("killer");
-                    String cause = resultSet.getString("cause");
-                    long time = resultSet.getLong("time");
-                    String typeLabel = MessageUtil.tr(plugin, "lookup.log.death.type", "DEATH");
-                    String message = MessageUtil.tr(plugin, "lookup.log.death.line", java.util.Map.of(
-                            "time", formatTime(time),
-                            "type", typeLabel,
-                            "player", player,
-                            "cause", cause,
-                            "killer", killer
-                    ));
-                    entries.add(new LogEntry(time, typeLabel, message, null, null, null, null));
+                    ids.add(resultSet.getInt(1));
                 }
             }
-        } catch (SQLException ex) {
-            plugin.getLogger().warning("Failed to fetch death logs: " + ex.getMessage());
         }
-        return entries;
+        return ids;
     }
 
-    private QueryStatement buildLocationQuery(String baseSql, LookupQuery query, int limit, boolean includeLocation,
-                                              String actionColumn, String materialColumn) {
-        StringBuilder sql = new StringBuilder(baseSql + " WHERE 1=1");
+    private List<String> sourceTables(LogType type, LookupQuery query) {
+        if (!type.partitioned()) {
+            return List.of(type.table());
+        }
+        List<String> tables = new ArrayList<>();
+        Long since = query.since() != null ? query.since().toEpochMilli() : null;
+        for (LogPartitions.Partition partition : partitions.newestFirst(type, since)) {
+            if (query.after() == null || partition.start() <= query.after().time()) {
+                tables.add(partition.table());
+            }
+        }
+        return tables;
+    }
+
+    private QueryStatement buildQuery(LogType type, String table, LookupQuery query, List<Integer> playerIds,
+                                      long limit, boolean withState) {
+        return switch (type) {
+            case BLOCKS, EXPLOSIONS, BURNS, FLOWS, PISTONS, KILLS -> buildLocationQuery(type, table, "material_id",
+                    "material", query, playerIds, limit, withState);
+            case CHESTS, ITEMS -> buildLocationQuery(type, table, "container_id", "container", query, playerIds,
+                    limit, false);
+            case COMMANDS -> buildSimpleQuery(type, "SELECT id, player, command, repeats, time FROM command_log", query,
+                    limit);
+            case DEATHS -> buildSimpleQuery(type, "SELECT id, player, killer, cause, time FROM death_log", query, limit);
+            case CHAT -> buildSimpleQuery(type, "SELECT id, player, message, time FROM chat_log", query, limit);
+            case SIGNS -> buildSignQuery(query, limit);
+        };
+    }
+
+    static String selectLocation(String table, String materialColumn, String materialAlias, String indexHint) {
+        return selectLocation(table, materialColumn, materialAlias, indexHint, false);
+    }
+
+    static String selectLocation(String table, String materialColumn, String materialAlias, String indexHint,
+                                 boolean withState) {
+        boolean chest = materialColumn.equals("container_id");
+        return "SELECT l.id, p.name AS player, a.name AS action, m.name AS " + materialAlias + ","
+                + (withState ? " s.name AS state," : "")
+                + (chest ? " i.name AS item, l.amount," : " l.dx, l.dy, l.dz,")
+                + " w.name AS world, l.x, l.y, l.z, l.time FROM " + table + " l" + indexHint
+                + " JOIN pulse_player p ON p.id = l.player_id"
+                + " JOIN pulse_world w ON w.id = l.world_id"
+                + " JOIN pulse_action a ON a.id = l.action_id"
+                + " JOIN pulse_material m ON m.id = l." + materialColumn
+                + (withState ? " LEFT JOIN " + LogDictionary.BLOCK_DATA_TABLE + " s ON s.id = l.data_id" : "")
+                + (chest ? " LEFT JOIN pulse_material i ON i.id = l.item_id" : "");
+    }
+
+    private QueryStatement buildLocationQuery(LogType type, String table, String materialColumn, String materialAlias,
+                                              LookupQuery query, List<Integer> playerIds, long limit,
+                                              boolean withState) {
+        StringBuilder sql = new StringBuilder(" WHERE 1=1");
+        List<Object> params = new ArrayList<>();
+
+        if (playerIds != null && playerIds.isEmpty()) {
+            sql.append(" AND 1=0");
+        } else if (playerIds != null) {
+            sql.append(" AND l.player_id IN (");
+            for (int i = 0; i < playerIds.size(); i++) {
+                sql.append(i == 0 ? "?" : ",?");
+                params.add(playerIds.get(i));
+            }
+            sql.append(')');
+        }
+        if (query.since() != null) {
+            sql.append(" AND l.time >= ?");
+            params.add(query.since().toEpochMilli());
+        }
+        if (query.world() != null) {
+            sql.append(" AND l.world_id = (SELECT id FROM pulse_world WHERE name = ?)");
+            params.add(query.world());
+        }
+        if (query.action() != null && !query.action().isBlank()) {
+            sql.append(" AND l.action_id = (SELECT id FROM pulse_action WHERE name = ?)");
+            params.add(LogDictionary.normalize(query.action()));
+        }
+        if (query.material() != null && !query.material().isBlank() && type.shape() == Shape.CONTAINER) {
+            sql.append(" AND (l.container_id = (SELECT id FROM pulse_material WHERE name = ?)"
+                    + " OR l.item_id = (SELECT id FROM pulse_material WHERE name = ?))");
+            params.add(LogDictionary.normalize(query.material()));
+            params.add(LogDictionary.normalize(query.material()));
+        } else if (query.material() != null && !query.material().isBlank()) {
+            sql.append(" AND l.").append(materialColumn).append(" = (SELECT id FROM pulse_material WHERE name = ?)");
+            params.add(LogDictionary.normalize(query.material()));
+        }
+        long[] chunks = chunkKeys(query);
+        boolean spatial = chunks != null;
+        if (spatial) {
+            appendChunkFilter(sql, params, chunks);
+        }
+        int[] bounds = locationBounds(query);
+        boolean runs = type.shape() == Shape.BLOCK;
+        appendRange(sql, params, "x", bounds[0], bounds[1], runs);
+        appendRange(sql, params, "z", bounds[4], bounds[5], runs);
+        appendRange(sql, params, "y", bounds[2], bounds[3], runs);
+
+        appendCursor(sql, params, type, query.after(), "l.");
+        sql.append(" ORDER BY l.time DESC, l.id DESC LIMIT ?");
+        params.add(limit);
+
+        String indexHint = spatial
+                ? storage.getDialect().indexHint(indexName(table, "world_chunk_time"))
+                : "";
+        return new QueryStatement(selectLocation(table, materialColumn, materialAlias, indexHint, withState) + sql,
+                params);
+    }
+
+    private void appendRange(StringBuilder sql, List<Object> params, String axis, int min, int max, boolean runs) {
+        if (min == Integer.MIN_VALUE && max == Integer.MAX_VALUE) {
+            return;
+        }
+        if (runs) {
+            sql.append(" AND l.").append(axis).append(" <= ? AND l.").append(axis).append(" + l.d").append(axis)
+                    .append(" >= ?");
+            params.add(max);
+            params.add(min);
+        } else if (min == max) {
+            sql.append(" AND l.").append(axis).append(" = ?");
+            params.add(min);
+        } else {
+            sql.append(" AND l.").append(axis).append(" BETWEEN ? AND ?");
+            params.add(min);
+            params.add(max);
+        }
+    }
+
+    private void appendChunkFilter(StringBuilder sql, List<Object> params, long[] chunks) {
+        if (chunks.length == 1) {
+            sql.append(" AND l.chunk_key = ?");
+            params.add(chunks[0]);
+            return;
+        }
+        sql.append(" AND l.chunk_key IN (");
+        for (long chunk : chunks) {
+            sql.append(sql.charAt(sql.length() - 1) == '(' ? "?" : ",?");
+            params.add(chunk);
+        }
+        sql.append(')');
+    }
+
+    private long[] chunkKeys(LookupQuery query) {
+        if (query.world() == null) {
+            return null;
+        }
+        if (query.minX() != null && query.maxX() != null && query.minZ() != null && query.maxZ() != null) {
+            return chunkKeys(query.minX(), query.maxX(), query.minZ(), query.maxZ());
+        }
+        if (query.radius() != null && query.radius() > 0 && query.x() != null && query.z() != null) {
+            return chunkKeys(query.x() - query.radius(), query.x() + query.radius(),
+                    query.z() - query.radius(), query.z() + query.radius());
+        }
+        if (query.x() != null && query.z() != null) {
+            return chunkKeys(query.x(), query.x(), query.z(), query.z());
+        }
+        return null;
+    }
+
+    private long[] chunkKeys(int minX, int maxX, int minZ, int maxZ) {
+        int minChunkX = Math.min(minX, maxX) >> 4;
+        int maxChunkX = Math.max(minX, maxX) >> 4;
+        int minChunkZ = Math.min(minZ, maxZ) >> 4;
+        int maxChunkZ = Math.max(minZ, maxZ) >> 4;
+        long count = (long) (maxChunkX - minChunkX + 1) * (maxChunkZ - minChunkZ + 1);
+        if (count > MAX_CHUNK_KEYS) {
+            return null;
+        }
+        long[] chunks = new long[(int) count];
+        int index = 0;
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                chunks[index++] = ChunkKey.ofChunk(chunkX, chunkZ);
+            }
+        }
+        return chunks;
+    }
+
+    private LogSegmentStore.Filter segmentFilter(LogType type, LookupQuery query, List<Integer> playerIds) {
+        int[] players = playerIds != null ? playerIds.stream().mapToInt(Integer::intValue).sorted().toArray() : null;
+        int world = query.world() != null ? dictionary.findWorld(query.world()) : 0;
+        boolean hasAction = query.action() != null && !query.action().isBlank();
+        int action = hasAction ? dictionary.findAction(query.action()) : 0;
+        boolean hasMaterial = query.material() != null && !query.material().isBlank();
+        int material = hasMaterial ? dictionary.findMaterial(query.material()) : 0;
+        if (query.world() != null && world == 0 || hasAction && action == 0 || hasMaterial && material == 0) {
+            return null;
+        }
+        return new LogSegmentStore.Filter(players,
+                query.since() != null ? query.since().toEpochMilli() : Long.MIN_VALUE, world, action, material,
+                type.shape() == Shape.CONTAINER, locationBounds(query), type.shape() == Shape.BLOCK,
+                chunkKeys(query), query.after(), type.ordinal());
+    }
+
+    private QueryStatement buildSignQuery(LookupQuery query, long limit) {
+        StringBuilder sql = new StringBuilder("SELECT l.id, l.player, l.world, l.x, l.y, l.z, l.text, l.time"
+                + " FROM sign_log l WHERE 1=1");
         List<Object> params = new ArrayList<>();
 
         if (query.player() != null) {
-            sql.append(" AND LOWER(player) = LOWER(?)");
+            sql.append(" AND LOWER(l.player) = LOWER(?)");
             params.add(query.player());
         }
         if (query.since() != null) {
-            sql.append(" AND time >= ?");
+            sql.append(" AND l.time >= ?");
             params.add(query.since().toEpochMilli());
         }
-        if (includeLocation && query.world() != null) {
-            sql.append(" AND world = ?");
+        if (query.world() != null) {
+            sql.append(" AND l.world = ?");
             params.add(query.world());
         }
-        if (actionColumn != null && query.action() != null && !query.action().isBlank()) {
-            sql.append(" AND LOWER(").append(actionColumn).append(") = LOWER(?)");
-            params.add(query.action());
-        }
-        if (materialColumn != null && query.material() != null && !query.material().isBlank()) {
-            sql.append(" AND LOWER(").append(materialColumn).append(") = LOWER(?)");
-            params.add(query.material());
-        }
-        boolean hasBox = includeLocation
-                && query.minX() != null && query.maxX() != null
-                && query.minZ() != null && query.maxZ() != null;
-        if (hasBox) {
-            sql.append(" AND x BETWEEN ? AND ? AND z BETWEEN ? AND ?");
-            params.add(query.minX());
-            params.add(query.maxX());
-            params.add(query.minZ());
-            params.add(query.maxZ());
-            if (query.minY() != null && query.maxY() != null) {
-                sql.append(" AND y BETWEEN ? AND ?");
-                params.add(query.minY());
-                params.add(query.maxY());
-            }
-        } else if (includeLocation && query.radius() != null && query.radius() > 0 && query.x() != null && query.z() != null) {
-            int radius = query.radius();
-            sql.append(" AND x BETWEEN ? AND ? AND z BETWEEN ? AND ?");
-            params.add(query.x() - radius);
-            params.add(query.x() + radius);
-            params.add(query.z() - radius);
-            params.add(query.z() + radius);
-            if (query.y() != null) {
-                sql.append(" AND y = ?");
-                params.add(query.y());
-            }
-        } else if (includeLocation && query.x() != null && query.z() != null) {
-            sql.append(" AND x = ? AND z = ?");
-            params.add(query.x());
-            params.add(query.z());
-            if (query.y() != null) {
-                sql.append(" AND y = ?");
-                params.add(query.y());
-            }
-        } else if (includeLocation && query.y() != null) {
-            sql.append(" AND y = ?");
-            params.add(query.y());
-        }
-
-        int offset = Math.max(0, query.offset());
-        sql.append(" ORDER BY time DESC LIMIT ? OFFSET ?");
+        int[] bounds = locationBounds(query);
+        appendRange(sql, params, "x", bounds[0], bounds[1], false);
+        appendRange(sql, params, "z", bounds[4], bounds[5], false);
+        appendRange(sql, params, "y", bounds[2], bounds[3], false);
+
+        appendCursor(sql, params, LogType.SIGNS, query.after(), "l.");
+        sql.append(" ORDER BY l.time DESC, l.id DESC LIMIT ?");
         params.add(limit);
-        params.add(offset);
 
         return new QueryStatement(sql.toString(), params);
     }
 
-    private QueryStatement buildSimpleQuery(String baseSql, LookupQuery query, int limit) {
+    private QueryStatement buildSimpleQuery(LogType type, String baseSql, LookupQuery query, long limit) {
         StringBuilder sql = new StringBuilder(baseSql + " WHERE 1=1");
         List<Object> params = new ArrayList<>();
 
@@ -363,48 +935,58 @@ public class LogRepository {
             params.add(query.since().toEpochMilli());
         }
 
-        int offset = Math.max(0, query.offset());
-        sql.append(" ORDER BY time DESC LIMIT ? OFFSET ?");
+        appendCursor(sql, params, type, query.after(), "");
+        sql.append(" ORDER BY time DESC, id DESC LIMIT ?");
         params.add(limit);
-        params.add(offset);
 
         return new QueryStatement(sql.toString(), params);
     }
 
-    private void createTables() {
-        try (Connection connection = storage.openConnection();
+    private void appendCursor(StringBuilder sql, List<Object> params, LogType type, LookupCursor cursor,
+                              String alias) {
+        if (cursor == null) {
+            return;
+        }
+        if (type.ordinal() > cursor.order()) {
+            sql.append(" AND ").append(alias).append("time <= ?");
+            params.add(cursor.time());
+        } else if (type.ordinal() < cursor.order()) {
+            sql.append(" AND ").append(alias).append("time < ?");
+            params.add(cursor.time());
+        } else {
+            sql.append(" AND ").append(alias).append("time <= ? AND (").append(alias).append("time < ? OR ")
+                    .append(alias).append("id < ?)");
+            params.add(cursor.time());
+            params.add(cursor.time());
+            params.add(cursor.id());
+        }
+    }
+
+    private boolean createTables() {
+        SqlDialect dialect = storage.getDialect();
+        try (Connection connection = storage.openWriteConnection();
              Statement statement = connection.createStatement()) {
-            statement.executeUpdate(
-                    "CREATE TABLE IF NOT EXISTS block_log ("
-                            + "id INTEGER PRIMARY KEY AUTOINCREMENT,"
-                            + "player TEXT NOT NULL,"
-                            + "world TEXT NOT NULL,"
-                            + "x INTEGER, y INTEGER, z INTEGER,"
-                            + "action TEXT, material TEXT,"
-                            + "time BIGINT)"
-            );
-            statement.executeUpdate("CREATE INDEX IF NOT EXISTS idx_block_player_time ON block_log(player, time)");
-            statement.executeUpdate("CREATE INDEX IF NOT EXISTS idx_block_world_time ON block_log(world, time)");
+            LogDictionary.createTables(connection);
+            createIndex(connection, statement, "idx_player_name", LogDictionary.PLAYER_TABLE, "name_lower");
+            LogMigration.createMetaTable(connection);
 
-            statement.executeUpdate(
-                    "CREATE TABLE IF NOT EXISTS chest_log ("
-                            + "id INTEGER PRIMARY KEY AUTOINCREMENT,"
-                            + "player TEXT NOT NULL,"
-                            + "world TEXT NOT NULL,"
-                            + "x INTEGER, y INTEGER, z INTEGER,"
-                            + "action TEXT, container TEXT,"
-                            + "time BIGINT)"
-            );
-            statement.executeUpdate("CREATE INDEX IF NOT EXISTS idx_chest_player_time ON chest_log(player, time)");
-            statement.executeUpdate("CREATE INDEX IF NOT EXISTS idx_chest_world_time ON chest_log(world, time)");
+            for (LogType type : LogType.values()) {
+                if (type.partitioned()) {
+                    createLocationTable(connection, type, type.table());
+                }
+            }
 
             statement.executeUpdate(
                     "CREATE TABLE IF NOT EXISTS command_log ("
                             + "id INTEGER PRIMARY KEY AUTOINCREMENT,"
                             + "player TEXT NOT NULL,"
                             + "command TEXT,"
+                            + "repeats INTEGER NOT NULL DEFAULT 1,"
                             + "time BIGINT)"
             );
+            if (!dialect.columnExists(connection, "command_log", "repeats")) {
+                statement.executeUpdate("ALTER TABLE command_log ADD COLUMN repeats INTEGER NOT NULL DEFAULT 1");
+            }
             statement.executeUpdate("CREATE INDEX IF NOT EXISTS idx_command_player_time ON command_log(player, time)");
 
             statement.executeUpdate(
@@ -416,24 +998,154 @@ public class LogRepository {
                             + "time BIGINT)"
             );
             statement.executeUpdate("CREATE INDEX IF NOT EXISTS idx_death_player_time ON death_log(player, time)");
+
+            statement.executeUpdate(
+                    "CREATE TABLE IF NOT EXISTS chat_log ("
+                            + "id " + dialect.autoIncrementKey() + ","
+                            + "player VARCHAR(64) NOT NULL,"
+                            + "message TEXT,"
+                            + "time BIGINT)"
+            );
+            createIndex(connection, statement, "idx_chat_player_time", "chat_log", "player, time");
+
+            statement.executeUpdate(
+                    "CREATE TABLE IF NOT EXISTS sign_log ("
+                            + "id " + dialect.autoIncrementKey() + ","
+                            + "player VARCHAR(64) NOT NULL,"
+                            + "world VARCHAR(64),"
+                            + "x INTEGER, y INTEGER, z INTEGER,"
+                            + "text TEXT,"
+                            + "time BIGINT)"
+            );
+            createIndex(connection, statement, "idx_sign_player_time", "sign_log", "player, time");
+            createIndex(connection, statement, "idx_sign_world_xz", "sign_log", "world, x, z");
+
+            dictionary.load(connection);
+            partitions.load(connection, dialect);
+            for (LogType type : LogType.values()) {
+                if (!type.partitioned()) {
+                    continue;
+                }
+                for (LogPartitions.Partition partition : partitions.newestFirst(type, null)) {
+                    ensureDetailColumns(connection, statement, type, partition.table());
+                }
+            }
+            partitions.ensureCurrent(connection, System.currentTimeMillis());
+            return true;
         } catch (SQLException ex) {
             plugin.getLogger().warning("Failed to initialize log tables: " + ex.getMessage());
+            return false;
+        }
+    }
+
+    private void createLocationTable(Connection connection, LogType type, String table) throws SQLException {
+        String materialColumn = type.shape() == Shape.CONTAINER ? "container_id" : "material_id";
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate(
+                    "CREATE TABLE IF NOT EXISTS " + table + " ("
+                            + "id " + storage.getDialect().autoIncrementKey() + ","
+                            + "time BIGINT NOT NULL,"
+                            + "player_id INTEGER NOT NULL,"
+                            + "world_id INTEGER NOT NULL,"
+                            + "x INTEGER NOT NULL, y INTEGER NOT NULL, z INTEGER NOT NULL,"
+                            + "action_id INTEGER NOT NULL,"
+                            + materialColumn + " INTEGER NOT NULL,"
+                            + "chunk_key BIGINT NOT NULL"
+                            + (type.shape() == Shape.BLOCK
+                                    ? ", data_id INTEGER NOT NULL DEFAULT 0, dx INTEGER NOT NULL DEFAULT 0,"
+                                            + " dy INTEGER NOT NULL DEFAULT 0, dz INTEGER NOT NULL DEFAULT 0)"
+                                    : ", item_id INTEGER NOT NULL DEFAULT 0, amount INTEGER NOT NULL DEFAULT 0)")
+            );
+            ensureChunkKey(connection, statement, table);
+            ensureDetailColumns(connection, statement, type, table);
+            createIndex(connection, statement, indexName(table, "player_time"), table, "player_id, time");
+            createIndex(connection, statement, indexName(table, "world_time"), table, "world_id, time");
+            createIndex(connection, statement, indexName(table, "world_chunk_time"), table, "world_id, chunk_key, time");
+        }
+    }
+
+    private String indexName(String table, String suffix) {
+        if (table.equals(BLOCK_TABLE)) {
+            return "idx_block2_" + suffix;
+        }
+        if (table.equals(CHEST_TABLE)) {
+            return "idx_chest2_" + suffix;
         }
+        return "idx_" + table + "_" + suffix;
     }
 
-    private void runAsync(Runnable task) {
-        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, task);
+    private void ensureChunkKey(Connection connection, Statement statement, String table) throws SQLException {
+        SqlDialect dialect = storage.getDialect();
+        if (dialect.columnExists(connection, table, "chunk_key")) {
+            return;
+        }
+        plugin.getLogger().info("Adding chunk_key to " + table + "; existing rows are being backfilled.");
+        statement.executeUpdate("ALTER TABLE " + table + " ADD COLUMN chunk_key BIGINT NOT NULL DEFAULT 0");
+        statement.executeUpdate("UPDATE " + table + " SET chunk_key = " + dialect.chunkKeyExpression("x", "z"));
+    }
+
+    private void ensureDetailColumns(Connection connection, Statement statement, LogType type, String table)
+            throws SQLException {
+        List<String> columns = type.shape() == Shape.BLOCK
+                ? List.of("data_id", "dx", "dy", "dz")
+                : List.of("item_id", "amount");
+        for (String column : columns) {
+            if (!storage.getDialect().columnExists(connection, table, column)) {
+                statement.executeUpdate("ALTER TABLE " + table + " ADD COLUMN " + column + " INTEGER NOT NULL DEFAULT 0");
+            }
+        }
     }
 
-    private String formatTime(long millis) {
-        return formatter.format(Instant.ofEpochMilli(millis));
+    private void createIndex(Connection connection, Statement statement, String name, String table, String columns)
+            throws SQLException {
+        SqlDialect dialect = storage.getDialect();
+        if (dialect == SqlDialect.MYSQL && dialect.indexExists(connection, table, name)) {
+            return;
+        }
+        statement.executeUpdate(dialect.createIndex(name, table, columns));
     }
 
     public enum LogType {
-        BLOCKS,
-        CHESTS,
-        COMMANDS,
-        DEATHS;
+        BLOCKS(Shape.BLOCK, BLOCK_TABLE),
+        CHESTS(Shape.CONTAINER, CHEST_TABLE),
+        COMMANDS(Shape.TEXT, "command_log"),
+        DEATHS(Shape.TEXT, "death_log"),
+        EXPLOSIONS(Shape.BLOCK, "explosion_log"),
+        BURNS(Shape.BLOCK, "burn_log"),
+        FLOWS(Shape.BLOCK, "flow_log"),
+        PISTONS(Shape.BLOCK, "piston_log"),
+        KILLS(Shape.BLOCK, "kill_log"),
+        ITEMS(Shape.CONTAINER, "item_log"),
+        SIGNS(Shape.TEXT, "sign_log"),
+        CHAT(Shape.TEXT, "chat_log");
+
+        private final Shape shape;
+        private final String table;
+
+        LogType(Shape shape, String table) {
+            this.shape = shape;
+            this.table = table;
+        }
+
+        public Shape shape() {
+            return shape;
+        }
+
+        String table() {
+            return table;
+        }
+
+        public boolean partitioned() {
+            return shape != Shape.TEXT;
+        }
+
+        public boolean located() {
+            return shape != Shape.TEXT || this == SIGNS;
+        }
+
+        public boolean reversible() {
+            return this == BLOCKS || this == EXPLOSIONS || this == BURNS || this == FLOWS;
+        }
 
         public static LogType fromString(String input) {
             if (input == null || input.isBlank()) {
@@ -449,13 +1161,190 @@ public class LogRepository {
         }
     }
 
-    public record LogEntry(long timestamp, String type, String message, String world, Integer x, Integer y, Integer z) {
+    public enum Shape {
+        BLOCK,
+        CONTAINER,
+        TEXT
+    }
+
+    public record LogEntry(long timestamp, LogType type, String player, String action, String detail, String world,
+                           Integer x, Integer y, Integer z, String item, Integer amount) {
     }
 
     public record LookupQuery(String player, LogType type, String world, Integer x, Integer y, Integer z,
                               Integer radius, Integer minX, Integer maxX, Integer minY, Integer maxY,
                               Integer minZ, Integer maxZ, String action, String material, Instant since,
-                              int limit, int offset) {
+                              int limit, LookupCursor after) {
+        public LookupQuery after(LookupCursor cursor) {
+            return new LookupQuery(player, type, world, x, y, z, radius, minX, maxX, minY, maxY, minZ, maxZ,
+                    action, material, since, limit, cursor);
+        }
+
+        public LookupQuery since(Instant bound) {
+            return new LookupQuery(player, type, world, x, y, z, radius, minX, maxX, minY, maxY, minZ, maxZ,
+                    action, material, bound, limit, after);
+        }
+
+        LookupQuery pageKey() {
+            return new LookupQuery(player, type, world, x, y, z, radius, minX, maxX, minY, maxY, minZ, maxZ,
+                    action, material, null, limit, null);
+        }
+    }
+
+    public record LookupCursor(long time, int order, long id) {
+        public static LookupCursor before(long time) {
+            return new LookupCursor(time, Integer.MAX_VALUE, 0L);
+        }
+
+        public String token() {
+            return Long.toString(time, 36) + "." + Integer.toString(order, 36) + "." + Long.toString(id, 36);
+        }
+
+        public static LookupCursor parse(String token) {
+            String[] parts = token == null ? new String[0] : token.split("\\.");
+            if (parts.length != 3) {
+                return null;
+            }
+            try {
+                int order = Integer.parseInt(parts[1], 36);
+                if (order < 0 || order >= LogType.values().length) {
+                    return null;
+                }
+                return new LookupCursor(Long.parseLong(parts[0], 36), order, Long.parseLong(parts[2], 36));
+            } catch (NumberFormatException ex) {
+                return null;
+            }
+        }
+    }
+
+    public record LookupPage(List<LogEntry> entries, LookupCursor next) {
+    }
+
+    @FunctionalInterface
+    public interface RowSink {
+        void accept(LogEntry entry) throws IOException;
+    }
+
+    public record BlockChange(long time, String world, int x, int y, int z, String action, String material,
+                              String state) {
+    }
+
+    @FunctionalInterface
+    public interface BlockChangeSink {
+        void accept(BlockChange change) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface RowHandler {
+        void accept(Row row) throws IOException;
+    }
+
+    private record Row(LogEntry entry, LookupCursor cursor, String state, int axis) {
+        private static final Comparator<Row> NEWEST_FIRST = Comparator
+                .comparingLong((Row row) -> row.cursor().time()).reversed()
+                .thenComparingInt(row -> row.cursor().order())
+                .thenComparing(Comparator.comparingLong((Row row) -> row.cursor().id()).reversed());
+    }
+
+    private final class RowStream {
+        private final LogType type;
+        private final LookupQuery query;
+        private final List<Integer> playerIds;
+        private final long total;
+        private final int chunk;
+        private final boolean withState;
+        private final LookupJob job;
+        private final int[] bounds;
+        private final Iterator<String> tables;
+        private final LogSegmentStore.Scan scan;
+        private String table;
+        private PreparedStatement statement;
+        private ResultSet resultSet;
+        private Row head;
+        private long read;
+        private int readInChunk;
+        private int chunkLimit;
+
+        private RowStream(LogType type, LookupQuery query, List<Integer> playerIds, long total, int chunk,
+                          boolean withState, LookupJob job) {
+            this.type = type;
+            this.query = query;
+            this.playerIds = playerIds;
+            this.total = total;
+            this.chunk = chunk;
+            this.withState = withState;
+            this.job = job;
+            this.bounds = locationBounds(query);
+            boolean segmented = segments != null && type.partitioned();
+            this.tables = segmented ? Collections.emptyIterator() : sourceTables(type, query).iterator();
+            LogSegmentStore.Filter filter = segmented ? segmentFilter(type, query, playerIds) : null;
+            this.scan = filter != null ? segments.scan(type, filter) : null;
+        }
+
+        private Row head() {
+            return head;
+        }
+
+        private boolean advance(Connection connection) throws SQLException, IOException {
+            Row previous = head;
+            head = null;
+            if (scan != null) {
+                if (read < total && scan.next()) {
+                    head = readSegmentRow(type, scan, withState, bounds);
+                    read++;
+                    return true;
+                }
+                return false;
+            }
+            while (read < total) {
+                if (resultSet != null && resultSet.next()) {
+                    head = readRow(type, resultSet, withState, bounds);
+                    read++;
+                    readInChunk++;
+                    return true;
+                }
+                boolean chunkFull = resultSet != null && readInChunk >= chunkLimit;
+                close();
+                if (chunkFull && previous != null) {
+                    open(connection, query.after(previous.cursor()));
+                } else if (tables.hasNext()) {
+                    table = tables.next();
+                    open(connection, query);
+                } else {
+                    return false;
+                }
+            }
+            return false;
+        }
+
+        private void open(Connection connection, LookupQuery window) throws SQLException {
+            chunkLimit = (int) Math.min(chunk, total - read);
+            readInChunk = 0;
+            QueryStatement statementData = buildQuery(type, table, window, playerIds, chunkLimit, withState);
+            statement = connection.prepareStatement(statementData.sql(), ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(chunkLimit);
+            if (job != null) {
+                job.attach(statement);
+            }
+            statementData.apply(statement);
+            resultSet = statement.executeQuery();
+        }
+
+        private void close() {
+            if (resultSet != null) {
+                try {
+                    resultSet.close();
+                } catch (SQLException ignored) {
+                }
+                resultSet = null;
+            }
+            if (job != null && statement != null) {
+                job.detach(statement);
+            }
+            LogRepository.this.close(statement);
+            statement = null;
+        }
     }
 
     private record QueryStatement(String sql, List<Object> params) {
@@ -0,0 +1,160 @@
+package com.azk.pulse.modules.logs;
+
+import com.azk.pulse.storage.DatabaseProvider;
+import com.azk.pulse.storage.SqlDialect;
+import com.azk.pulse.storage.StorageService;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.plugin.java.JavaPlugin;
+
+public class LogRetention {
+    private final JavaPlugin plugin;
+    private final StorageService storageService;
+    private final LogPartitions partitions;
+    private final LogSegmentStore segments;
+    private final Runnable pruned;
+    private final Map<LogRepository.LogType, Long> retention = new EnumMap<>(LogRepository.LogType.class);
+    private final long intervalMillis;
+    private final int maxPartitionsPerRun;
+    private final int maxRowsPerRun;
+    private final AtomicLong rowsReclaimed = new AtomicLong();
+    private final AtomicLong bytesReclaimed = new AtomicLong();
+    private volatile long lastRun;
+    private ScheduledFuture<?> task;
+
+    public LogRetention(JavaPlugin plugin, StorageService storageService, LogPartitions partitions,
+                        LogSegmentStore segments, Runnable pruned, FileConfiguration config) {
+        this.plugin = plugin;
+        this.storageService = storageService;
+        this.partitions = partitions;
+        this.segments = segments;
+        this.pruned = pruned;
+        for (LogRepository.LogType type : LogRepository.LogType.values()) {
+            retention.put(type, parseDuration(config.getString(
+                    "logs.retention." + type.name().toLowerCase(Locale.ROOT), "0")));
+        }
+        this.intervalMillis = Math.max(1L, config.getLong("logs.retention.prune-interval-minutes", 60L)) * 60_000L;
+        this.maxPartitionsPerRun = Math.max(1, config.getInt("logs.retention.max-partitions-per-run", 4));
+        this.maxRowsPerRun = Math.max(100, config.getInt("logs.retention.max-rows-per-run", 5000));
+    }
+
+    public void start() {
+        if (task != null) {
+            return;
+        }
+        storageService.submitWrite(this::run);
+        task = storageService.scheduleWrite(this::run, intervalMillis);
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel(false);
+            task = null;
+        }
+    }
+
+    public Stats getStats() {
+        return new Stats(rowsReclaimed.get(), bytesReclaimed.get(), partitions.count(), lastRun);
+    }
+
+    private void run() {
+        DatabaseProvider storage = storageService.getProvider();
+        if (storage == null) {
+            return;
+        }
+        SqlDialect dialect = storage.getDialect();
+        long now = System.currentTimeMillis();
+        long rows = 0L;
+        long bytes = 0L;
+        int dropped = 0;
+        try (Connection connection = storage.openWriteConnection()) {
+            partitions.ensureCurrent(connection, now);
+            for (LogRepository.LogType type : LogRepository.LogType.values()) {
+                long keep = retention.get(type);
+                if (keep <= 0 || !type.partitioned()) {
+                    continue;
+                }
+                for (LogPartitions.Partition partition : partitions.expired(type, now - keep)) {
+                    if (dropped >= maxPartitionsPerRun) {
+                        break;
+                    }
+                    long partitionBytes = dialect.tableSizeBytes(connection, partition.table());
+                    rows += Math.max(0L, partitions.rowCount(connection, partition));
+                    partitions.drop(connection, partition);
+                    bytes += Math.max(0L, partitionBytes);
+                    dropped++;
+                }
+                if (segments != null) {
+                    LogSegmentStore.Expired expired = segments.expire(type, now - keep);
+                    rows += expired.rows();
+                    bytes += expired.bytes();
+                    dropped += expired.segments();
+                }
+            }
+            for (LogRepository.LogType type : LogRepository.LogType.values()) {
+                long keep = retention.get(type);
+                if (keep <= 0 || type.partitioned()) {
+                    continue;
+                }
+                long before = dialect.tableSizeBytes(connection, type.table());
+                try (PreparedStatement delete = connection.prepareStatement(
+                        dialect.boundedDelete(type.table(), "time < ?"))) {
+                    delete.setLong(1, now - keep);
+                    delete.setInt(2, maxRowsPerRun);
+                    int deleted = delete.executeUpdate();
+                    if (deleted > 0) {
+                        rows += deleted;
+                        long after = dialect.tableSizeBytes(connection, type.table());
+                        if (before >= 0 && after >= 0) {
+                            bytes += Math.max(0L, before - after);
+                        }
+                    }
+                }
+            }
+        } catch (SQLException ex) {
+            plugin.getLogger().warning("Log retention run failed: " + ex.getMessage());
+        }
+        lastRun = now;
+        if (rows > 0 || dropped > 0) {
+            pruned.run();
+            rowsReclaimed.addAndGet(rows);
+            bytesReclaimed.addAndGet(bytes);
+            plugin.getLogger().info(String.format(Locale.ROOT,
+                    "Log retention pruned %d rows (%.1f MB) including %d expired partition(s) or segment(s).",
+                    rows, bytes / 1024.0 / 1024.0, dropped));
+        }
+    }
+
+    private long parseDuration(String value) {
+        if (value == null || value.isBlank()) {
+            return 0L;
+        }
+        String trimmed = value.trim().toLowerCase(Locale.ROOT);
+        long multiplier;
+        if (trimmed.endsWith("h")) {
+            multiplier = 3_600_000L;
+        } else if (trimmed.endsWith("d")) {
+            multiplier = 86_400_000L;
+        } else if (trimmed.endsWith("w")) {
+            multiplier = 604_800_000L;
+        } else {
+            return 0L;
+        }
+        try {
+            return Math.max(0L, Long.parseLong(trimmed.substring(0, trimmed.length() - 1))) * multiplier;
+        } catch (NumberFormatException ex) {
+            plugin.getLogger().warning("Invalid log retention value: " + value);
+            return 0L;
+        }
+    }
+
+    public record Stats(long rowsReclaimed, long bytesReclaimed, int partitions, long lastRun) {
+    }
+}
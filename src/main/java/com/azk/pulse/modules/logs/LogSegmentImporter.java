@@ -0,0 +1,205 @@
+package com.azk.pulse.modules.logs;
+
+import com.azk.pulse.storage.DatabaseProvider;
+import com.azk.pulse.storage.StorageService;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ScheduledFuture;
+import java.util.function.BooleanSupplier;
+import org.bukkit.plugin.java.JavaPlugin;
+
+/**
+ * Copies SQL location rows into pulselog segments. Passes repeat over every partition until the legacy migration
+ * has finished and a whole pass finds nothing new, since the migration keeps filling partitions in the background.
+ * Each batch's cursor is committed together with the segment checkpoint, so a crash in between is rolled back on
+ * the next start instead of importing the batch twice.
+ */
+public class LogSegmentImporter {
+    private static final String CHECKPOINT_KEY = "pulselog.import.segment.";
+
+    private final JavaPlugin plugin;
+    private final StorageService storageService;
+    private final LogPartitions partitions;
+    private final LogSegmentStore store;
+    private final Runnable imported;
+    private final BooleanSupplier migrationFinished;
+    private final LogEventRing.Batch batch;
+    private final long intervalMillis;
+    private List<LogPartitions.Partition> sources;
+    private ScheduledFuture<?> task;
+    private int sourceIndex;
+    private boolean passImported;
+    private boolean finalPass;
+    private boolean recovered;
+    private long importedRows;
+    private long lastFailureWarning;
+
+    public LogSegmentImporter(JavaPlugin plugin, StorageService storageService, LogPartitions partitions,
+                              LogSegmentStore store, Runnable imported, BooleanSupplier migrationFinished,
+                              int batchSize, long intervalMillis) {
+        this.plugin = plugin;
+        this.storageService = storageService;
+        this.partitions = partitions;
+        this.store = store;
+        this.imported = imported;
+        this.migrationFinished = migrationFinished;
+        this.batch = new LogEventRing.Batch(Math.max(100, batchSize));
+        this.intervalMillis = Math.max(10L, intervalMillis);
+    }
+
+    public void start() {
+        if (task == null) {
+            task = storageService.scheduleWrite(this::step, intervalMillis);
+        }
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel(false);
+            task = null;
+        }
+    }
+
+    private void step() {
+        DatabaseProvider storage = storageService.getProvider();
+        if (storage == null) {
+            return;
+        }
+        if (sources == null) {
+            finalPass = migrationFinished.getAsBoolean();
+            passImported = false;
+            sourceIndex = 0;
+            sources = new ArrayList<>();
+            for (LogRepository.LogType type : LogRepository.LogType.values()) {
+                if (type.partitioned()) {
+                    List<LogPartitions.Partition> oldestFirst = new ArrayList<>(partitions.newestFirst(type, null));
+                    Collections.reverse(oldestFirst);
+                    sources.addAll(oldestFirst);
+                }
+            }
+        }
+        try (Connection connection = storage.openWriteConnection()) {
+            if (!recovered) {
+                for (LogRepository.LogType type : LogRepository.LogType.values()) {
+                    if (type.partitioned()) {
+                        store.recoverImport(type, LogMigration.getMeta(connection, checkpointKey(type)));
+                    }
+                }
+                recovered = true;
+            }
+            while (sourceIndex < sources.size()) {
+                if (importBatch(connection, sources.get(sourceIndex))) {
+                    passImported = true;
+                    return;
+                }
+                sourceIndex++;
+            }
+        } catch (SQLException | IOException | RuntimeException ex) {
+            long now = System.currentTimeMillis();
+            if (now - lastFailureWarning >= 60_000L) {
+                lastFailureWarning = now;
+                plugin.getLogger().warning("Log segment import step failed: " + ex.getMessage());
+            }
+            return;
+        }
+        sources = null;
+        if (passImported || !finalPass) {
+            return;
+        }
+        if (importedRows > 0) {
+            plugin.getLogger().info("Imported " + importedRows + " location log rows into pulselog segments.");
+        }
+        stop();
+    }
+
+    private boolean importBatch(Connection connection, LogPartitions.Partition partition)
+            throws SQLException, IOException {
+        String key = "pulselog.import." + partition.table();
+        String cursorValue = LogMigration.getMeta(connection, key);
+        long cursor = cursorValue != null ? Long.parseLong(cursorValue) : 0L;
+        boolean block = partition.type().shape() == LogRepository.Shape.BLOCK;
+        long last = cursor;
+        int size = 0;
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT id, time, player_id, world_id, action_id, "
+                        + (block ? "material_id, data_id, dx, dy, dz" : "container_id, item_id, amount")
+                        + ", x, y, z FROM " + partition.table() + " WHERE id > ? ORDER BY id LIMIT ?")) {
+            select.setLong(1, cursor);
+            select.setInt(2, batch.capacity());
+            try (ResultSet resultSet = select.executeQuery()) {
+                while (resultSet.next()) {
+                    last = resultSet.getLong("id");
+                    batch.types[size] = partition.type();
+                    batch.times[size] = resultSet.getLong("time");
+                    batch.players[size] = resultSet.getInt("player_id");
+                    batch.worlds[size] = resultSet.getInt("world_id");
+                    batch.actions[size] = resultSet.getInt("action_id");
+                    batch.positions[size] = BlockKey.of(resultSet.getInt("x"), resultSet.getInt("y"),
+                            resultSet.getInt("z"));
+                    batch.spans[size] = 0;
+                    batch.axes[size] = 0;
+                    if (block) {
+                        batch.materials[size] = resultSet.getInt("material_id");
+                        batch.details[size] = resultSet.getInt("data_id");
+                        batch.amounts[size] = 0;
+                        int dx = resultSet.getInt("dx");
+                        int dy = resultSet.getInt("dy");
+                        int dz = resultSet.getInt("dz");
+                        batch.axes[size] = (byte) (dx > 0 ? 1 : dy > 0 ? 2 : dz > 0 ? 3 : 0);
+                        batch.spans[size] = Math.max(dx, Math.max(dy, dz));
+                    } else {
+                        batch.materials[size] = resultSet.getInt("container_id");
+                        batch.details[size] = resultSet.getInt("item_id");
+                        batch.amounts[size] = resultSet.getInt("amount");
+                    }
+                    size++;
+                }
+            }
+        }
+        if (size == 0) {
+            return false;
+        }
+        if (importedRows == 0L) {
+            plugin.getLogger().info("Importing location logs from SQL into pulselog segments in the background.");
+        }
+        batch.size(size);
+        try {
+            store.importBatch(batch);
+            saveCursor(connection, partition.type(), key, last);
+        } catch (SQLException | IOException | RuntimeException ex) {
+            store.abortImport(partition.type());
+            throw ex;
+        }
+        store.confirmImport(partition.type());
+        importedRows += size;
+        imported.run();
+        return true;
+    }
+
+    private void saveCursor(Connection connection, LogRepository.LogType type, String key, long last)
+            throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            LogMigration.putMeta(connection, key, Long.toString(last));
+            LogMigration.putMeta(connection, checkpointKey(type), store.importCheckpoint(type));
+            connection.commit();
+        } catch (SQLException ex) {
+            connection.rollback();
+            throw ex;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static String checkpointKey(LogRepository.LogType type) {
+        return CHECKPOINT_KEY + type.name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,912 @@
+package com.azk.pulse.modules.logs;
+
+import com.azk.pulse.core.LongIntMap;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class LogSegmentStore {
+    static final int RECORD_BYTES = 48;
+    private static final int INDEX_MAGIC = 0x504C5349;
+    private static final int INDEX_VERSION = 1;
+    private static final int HEADER_BYTES = 36;
+    private static final int BLOCK_SHIFT = 10;
+    private static final int MAX_SEGMENT_RECORDS = 1 << 22;
+    private static final int ORDINAL_BITS = 22;
+    private static final long ORDINAL_MASK = (1L << ORDINAL_BITS) - 1;
+    private static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    private final File directory;
+    private final LogPartitions partitions;
+    private final int segmentRecords;
+    private final Map<LogRepository.LogType, Series> series = new EnumMap<>(LogRepository.LogType.class);
+    private final List<File> undeleted = new ArrayList<>();
+    private int nextId = 1;
+
+    public LogSegmentStore(File directory, LogPartitions partitions, int segmentRecords) {
+        this.directory = directory;
+        this.partitions = partitions;
+        this.segmentRecords = Math.max(1 << BLOCK_SHIFT, Math.min(segmentRecords, MAX_SEGMENT_RECORDS));
+    }
+
+    public synchronized void open() throws IOException {
+        for (LogRepository.LogType type : LogRepository.LogType.values()) {
+            if (!type.partitioned()) {
+                continue;
+            }
+            File folder = new File(directory, type.name().toLowerCase(Locale.ROOT));
+            if (!folder.isDirectory() && !folder.mkdirs()) {
+                throw new IOException("Cannot create " + folder);
+            }
+            Series list = new Series(folder);
+            File[] files = folder.listFiles((dir, name) -> name.endsWith(".seg"));
+            for (File file : files != null ? files : new File[0]) {
+                int id = segmentId(file);
+                if (id <= 0) {
+                    continue;
+                }
+                if (marker(file).isFile()) {
+                    list.unconfirmed.add(file);
+                } else {
+                    list.segments.add(Segment.load(file, id));
+                }
+                nextId = Math.max(nextId, id + 1);
+            }
+            series.put(type, list);
+        }
+    }
+
+    public synchronized void close() throws IOException {
+        for (Series list : series.values()) {
+            list.live = seal(list.live);
+            if (list.dirty) {
+                // Unconfirmed import rows stay marked so the next start rolls them back.
+                for (Segment segment : list.retired) {
+                    segment.release();
+                }
+                if (list.importing != null) {
+                    list.importing.release();
+                }
+                list.retired.clear();
+                list.importing = null;
+            } else {
+                list.confirm();
+                if (list.importing != null) {
+                    seal(list.importing);
+                    delete(marker(list.importing.file));
+                    list.importing = null;
+                }
+            }
+        }
+    }
+
+    public synchronized void append(LogEventRing.Batch events) throws IOException {
+        write(events, false);
+    }
+
+    public synchronized void importBatch(LogEventRing.Batch events) throws IOException {
+        for (Segment segment : write(events, true)) {
+            if (segment.channel != null) {
+                segment.channel.force(false);
+            }
+        }
+    }
+
+    /**
+     * Position of the import tail, to be saved with the import cursor. Import segments carry a marker file until
+     * they are sealed after such a checkpoint, so rows written past it can be rolled back.
+     */
+    public synchronized String importCheckpoint(LogRepository.LogType type) {
+        Segment importing = series.get(type).importing;
+        return importing != null ? importing.id + ":" + importing.count() : "0:0";
+    }
+
+    public synchronized void confirmImport(LogRepository.LogType type) throws IOException {
+        series.get(type).confirm();
+    }
+
+    /**
+     * Drops every import row written after the last confirmed checkpoint, after the cursor could not be saved.
+     */
+    public synchronized void abortImport(LogRepository.LogType type) throws IOException {
+        Series list = series.get(type);
+        List<Segment> open = new ArrayList<>(list.retired);
+        if (list.importing != null) {
+            open.add(list.importing);
+        }
+        for (Segment segment : open) {
+            list.segments.remove(segment);
+            segment.release();
+            list.unconfirmed.add(segment.file);
+        }
+        list.retired.clear();
+        list.importing = null;
+        list.restore();
+    }
+
+    /**
+     * Rolls segments left marked by a crash back to the checkpoint saved with the import cursor.
+     */
+    public synchronized void recoverImport(LogRepository.LogType type, String checkpoint) throws IOException {
+        Series list = series.get(type);
+        if (list == null) {
+            return;
+        }
+        String[] parts = checkpoint != null ? checkpoint.split(":") : new String[0];
+        try {
+            list.tailId = parts.length == 2 ? Integer.parseInt(parts[0]) : 0;
+            list.tailCount = parts.length == 2 ? Integer.parseInt(parts[1]) : 0;
+        } catch (NumberFormatException ex) {
+            list.tailId = 0;
+            list.tailCount = 0;
+        }
+        list.restore();
+    }
+
+    public synchronized Expired expire(LogRepository.LogType type, long cutoff) {
+        Series list = series.get(type);
+        retryDeletes();
+        if (list == null) {
+            return new Expired(0L, 0L, 0);
+        }
+        long rows = 0L;
+        long bytes = 0L;
+        int dropped = 0;
+        for (Segment segment : list.segments) {
+            if (segment == list.live || segment == list.importing || list.retired.contains(segment)
+                    || segment.maxTime() >= cutoff) {
+                continue;
+            }
+            list.segments.remove(segment);
+            rows += segment.count();
+            bytes += segment.file.length() + segment.indexFile.length();
+            delete(segment.file);
+            delete(segment.indexFile);
+            dropped++;
+        }
+        return new Expired(rows, bytes, dropped);
+    }
+
+    public Stats getStats() {
+        int segments = 0;
+        long records = 0L;
+        long bytes = 0L;
+        for (Series list : series.values()) {
+            for (Segment segment : list.segments) {
+                segments++;
+                records += segment.count();
+                bytes += segment.file.length() + segment.indexFile.length();
+            }
+        }
+        return new Stats(segments, records, bytes);
+    }
+
+    public Scan scan(LogRepository.LogType type, Filter filter) {
+        Series list = series.get(type);
+        List<Segment> candidates = new ArrayList<>();
+        if (list != null) {
+            for (Segment segment : list.segments) {
+                if (segment.count() > 0 && !filter.skips(segment.minTime(), segment.maxTime())) {
+                    candidates.add(segment);
+                }
+            }
+        }
+        candidates.sort(Comparator.comparingLong(Segment::maxTime).reversed());
+        return new Scan(candidates, filter);
+    }
+
+    private List<Segment> write(LogEventRing.Batch events, boolean imported) throws IOException {
+        List<Segment> touched = new ArrayList<>(2);
+        for (int i = 0; i < events.size(); i++) {
+            Segment segment = series.get(events.types[i]).writable(imported, events.times[i]);
+            if (!touched.contains(segment)) {
+                touched.add(segment);
+            }
+            segment.stage(events, i);
+        }
+        for (Segment segment : touched) {
+            segment.commit();
+        }
+        return touched;
+    }
+
+    private Segment seal(Segment segment) throws IOException {
+        if (segment != null) {
+            segment.commit();
+            segment.seal();
+        }
+        return null;
+    }
+
+    private void delete(File file) {
+        if (file.exists() && !file.delete()) {
+            undeleted.add(file);
+        }
+    }
+
+    private void retryDeletes() {
+        undeleted.removeIf(file -> !file.exists() || file.delete());
+    }
+
+    private static File marker(File file) {
+        return new File(file.getParentFile(), file.getName().replace(".seg", ".importing"));
+    }
+
+    private static int segmentId(File file) {
+        String name = file.getName();
+        try {
+            return Integer.parseInt(name.substring(0, name.length() - ".seg".length()));
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    private final class Series {
+        private final File folder;
+        private final List<Segment> segments = new CopyOnWriteArrayList<>();
+        private final List<Segment> retired = new ArrayList<>();
+        private final List<File> unconfirmed = new ArrayList<>();
+        private Segment live;
+        private Segment importing;
+        private int tailId;
+        private int tailCount;
+        private boolean dirty;
+
+        private Series(File folder) {
+            this.folder = folder;
+        }
+
+        private Segment writable(boolean imported, long time) throws IOException {
+            Segment current = imported ? importing : live;
+            if (current != null && (current.pending() >= segmentRecords || time >= current.periodEnd
+                    || imported && time < current.periodStart)) {
+                if (imported) {
+                    retired.add(current);
+                    current = null;
+                } else {
+                    current = seal(current);
+                }
+            }
+            if (current == null) {
+                long start = partitions.periodStart(time);
+                File file = new File(folder, String.format(Locale.ROOT, "%08d.seg", nextId));
+                if (imported && !marker(file).createNewFile()) {
+                    throw new IOException("Cannot create " + marker(file));
+                }
+                current = Segment.create(file, nextId, start, partitions.periodEnd(start));
+                nextId++;
+                segments.add(current);
+            }
+            if (imported) {
+                importing = current;
+                dirty = true;
+            } else {
+                live = current;
+            }
+            return current;
+        }
+
+        private void confirm() throws IOException {
+            if (importing != null) {
+                tailId = importing.id;
+                tailCount = importing.count();
+            }
+            dirty = false;
+            for (Iterator<Segment> iterator = retired.iterator(); iterator.hasNext(); ) {
+                Segment segment = iterator.next();
+                seal(segment);
+                delete(marker(segment.file));
+                iterator.remove();
+            }
+        }
+
+        private void restore() throws IOException {
+            for (File file : unconfirmed) {
+                int id = segmentId(file);
+                File index = new File(folder, file.getName().replace(".seg", ".idx"));
+                if (id > tailId) {
+                    delete(file);
+                    delete(index);
+                } else {
+                    if (id == tailId) {
+                        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+                            if (channel.size() > (long) tailCount * RECORD_BYTES) {
+                                channel.truncate((long) tailCount * RECORD_BYTES);
+                            }
+                        }
+                        delete(index);
+                    }
+                    segments.add(Segment.load(file, id));
+                }
+                delete(marker(file));
+            }
+            unconfirmed.clear();
+            dirty = false;
+        }
+    }
+
+    private static final class Segment {
+        private final int id;
+        private final File file;
+        private final File indexFile;
+        private final long periodStart;
+        private final long periodEnd;
+        private FileChannel channel;
+        private ByteBuffer staging;
+        private int staged;
+        private int count;
+        private long minTime = Long.MAX_VALUE;
+        private long maxTime = Long.MIN_VALUE;
+        private long[] blockMin = new long[4];
+        private long[] blockMax = new long[4];
+        private LongIntMap chunkSlots;
+        private long[] chunkKeys;
+        private int[][] chunkLists;
+        private int[] chunkSizes;
+        private int chunkCount;
+        private ByteBuffer data;
+        private ByteBuffer chunkTable;
+        private ByteBuffer ordinals;
+
+        private Segment(int id, File file, long periodStart, long periodEnd) {
+            this.id = id;
+            this.file = file;
+            this.indexFile = new File(file.getParentFile(), file.getName().replace(".seg", ".idx"));
+            this.periodStart = periodStart;
+            this.periodEnd = periodEnd;
+        }
+
+        private static Segment create(File file, int id, long periodStart, long periodEnd) throws IOException {
+            Segment segment = new Segment(id, file, periodStart, periodEnd);
+            segment.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            segment.staging = ByteBuffer.allocate(RECORD_BYTES * 512).order(ORDER);
+            segment.startIndex();
+            return segment;
+        }
+
+        private static Segment load(File file, int id) throws IOException {
+            Segment segment = new Segment(id, file, Long.MIN_VALUE, Long.MAX_VALUE);
+            if (!segment.readIndex()) {
+                segment.rebuild();
+            }
+            return segment;
+        }
+
+        private synchronized int count() {
+            return count;
+        }
+
+        private synchronized long minTime() {
+            return minTime;
+        }
+
+        private synchronized long maxTime() {
+            return maxTime;
+        }
+
+        private int pending() {
+            return count + staged;
+        }
+
+        private void stage(LogEventRing.Batch events, int index) {
+            if (staging.remaining() < RECORD_BYTES) {
+                staging = ByteBuffer.allocate(staging.capacity() * 2).order(ORDER).put(staging.flip());
+            }
+            boolean block = events.types[index].shape() == LogRepository.Shape.BLOCK;
+            staging.putLong(events.times[index])
+                    .putLong(events.positions[index])
+                    .putInt(events.players[index])
+                    .putInt(events.worlds[index])
+                    .putInt(events.actions[index])
+                    .putInt(events.materials[index])
+                    .putInt(events.details[index])
+                    .putInt(block ? events.spans[index] : events.amounts[index])
+                    .putLong(block ? events.axes[index] : 0L);
+            staged++;
+        }
+
+        private void commit() throws IOException {
+            if (staged == 0) {
+                return;
+            }
+            long offset = (long) count * RECORD_BYTES;
+            staging.flip();
+            try {
+                while (staging.hasRemaining()) {
+                    channel.write(staging, offset + staging.position());
+                }
+            } catch (IOException ex) {
+                channel.truncate(offset);
+                staging.clear();
+                staged = 0;
+                throw ex;
+            }
+            synchronized (this) {
+                for (int i = 0; i < staged; i++) {
+                    index(count + i, staging.getLong(i * RECORD_BYTES), staging.getLong(i * RECORD_BYTES + 8));
+                }
+                count += staged;
+            }
+            staging.clear();
+            staged = 0;
+        }
+
+        private void release() throws IOException {
+            if (channel != null) {
+                channel.close();
+                channel = null;
+                staging = null;
+            }
+        }
+
+        private void seal() throws IOException {
+            channel.force(true);
+            channel.close();
+            channel = null;
+            staging = null;
+            writeIndex();
+            if (!readIndex()) {
+                throw new IOException("Could not read back " + indexFile);
+            }
+        }
+
+        private void startIndex() {
+            chunkSlots = new LongIntMap(64);
+            chunkKeys = new long[64];
+            chunkLists = new int[64][];
+            chunkSizes = new int[64];
+            chunkCount = 0;
+        }
+
+        private void index(int ordinal, long time, long position) {
+            int block = ordinal >> BLOCK_SHIFT;
+            if (block >= blockMin.length) {
+                blockMin = Arrays.copyOf(blockMin, blockMin.length * 2);
+                blockMax = Arrays.copyOf(blockMax, blockMax.length * 2);
+            }
+            if ((ordinal & ((1 << BLOCK_SHIFT) - 1)) == 0) {
+                blockMin[block] = time;
+                blockMax[block] = time;
+            } else {
+                blockMin[block] = Math.min(blockMin[block], time);
+                blockMax[block] = Math.max(blockMax[block], time);
+            }
+            minTime = Math.min(minTime, time);
+            maxTime = Math.max(maxTime, time);
+            long key = ChunkKey.of(BlockKey.x(position), BlockKey.z(position));
+            int slot = chunkSlots.get(key, -1);
+            if (slot < 0) {
+                if (chunkCount == chunkKeys.length) {
+                    chunkKeys = Arrays.copyOf(chunkKeys, chunkCount * 2);
+                    chunkLists = Arrays.copyOf(chunkLists, chunkCount * 2);
+                    chunkSizes = Arrays.copyOf(chunkSizes, chunkCount * 2);
+                }
+                slot = chunkCount++;
+                chunkKeys[slot] = key;
+                chunkLists[slot] = new int[8];
+                chunkSlots.put(key, slot);
+            }
+            if (chunkSizes[slot] == chunkLists[slot].length) {
+                chunkLists[slot] = Arrays.copyOf(chunkLists[slot], chunkSizes[slot] * 2);
+            }
+            chunkLists[slot][chunkSizes[slot]++] = ordinal;
+        }
+
+        private void rebuild() throws IOException {
+            long length = file.length();
+            int records = (int) Math.min(length / RECORD_BYTES, MAX_SEGMENT_RECORDS);
+            startIndex();
+            try (FileChannel repair = FileChannel.open(file.toPath(), StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                if (length != (long) records * RECORD_BYTES) {
+                    repair.truncate((long) records * RECORD_BYTES);
+                }
+                ByteBuffer buffer = repair.map(FileChannel.MapMode.READ_ONLY, 0, (long) records * RECORD_BYTES)
+                        .order(ORDER);
+                for (int i = 0; i < records; i++) {
+                    index(i, buffer.getLong(i * RECORD_BYTES), buffer.getLong(i * RECORD_BYTES + 8));
+                }
+            }
+            count = records;
+            writeIndex();
+            if (!readIndex()) {
+                throw new IOException("Could not rebuild " + indexFile);
+            }
+        }
+
+        private void writeIndex() throws IOException {
+            int blocks = blocks(count);
+            long[] keys = Arrays.copyOf(chunkKeys, chunkCount);
+            Arrays.sort(keys);
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + blocks * 16 + keys.length * 16 + count * 4)
+                    .order(ORDER);
+            buffer.putInt(INDEX_MAGIC).putInt(INDEX_VERSION).putInt(count).putInt(blocks).putInt(keys.length)
+                    .putLong(minTime).putLong(maxTime);
+            for (int block = 0; block < blocks; block++) {
+                buffer.putLong(blockMin[block]).putLong(blockMax[block]);
+            }
+            int offset = 0;
+            for (long key : keys) {
+                int size = chunkSizes[chunkSlots.get(key, -1)];
+                buffer.putLong(key).putInt(offset).putInt(size);
+                offset += size;
+            }
+            for (long key : keys) {
+                int slot = chunkSlots.get(key, -1);
+                for (int i = 0; i < chunkSizes[slot]; i++) {
+                    buffer.putInt(chunkLists[slot][i]);
+                }
+            }
+            buffer.flip();
+            Path temporary = new File(indexFile.getParentFile(), indexFile.getName() + ".tmp").toPath();
+            try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                out.force(true);
+            }
+            Files.move(temporary, indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        private boolean readIndex() throws IOException {
+            if (!indexFile.isFile() || file.length() % RECORD_BYTES != 0) {
+                return false;
+            }
+            ByteBuffer index;
+            try (FileChannel in = FileChannel.open(indexFile.toPath(), StandardOpenOption.READ)) {
+                index = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size()).order(ORDER);
+            }
+            if (index.capacity() < HEADER_BYTES || index.getInt(0) != INDEX_MAGIC
+                    || index.getInt(4) != INDEX_VERSION || index.getInt(8) != file.length() / RECORD_BYTES) {
+                return false;
+            }
+            int records = index.getInt(8);
+            int blocks = index.getInt(12);
+            int chunks = index.getInt(16);
+            int tableAt = HEADER_BYTES + blocks * 16;
+            int ordinalsAt = tableAt + chunks * 16;
+            if (blocks != blocks(records) || index.capacity() != ordinalsAt + records * 4) {
+                return false;
+            }
+            long[] mins = new long[Math.max(1, blocks)];
+            long[] maxes = new long[Math.max(1, blocks)];
+            for (int block = 0; block < blocks; block++) {
+                mins[block] = index.getLong(HEADER_BYTES + block * 16);
+                maxes[block] = index.getLong(HEADER_BYTES + block * 16 + 8);
+            }
+            ByteBuffer mapped;
+            try (FileChannel in = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                mapped = in.map(FileChannel.MapMode.READ_ONLY, 0, (long) records * RECORD_BYTES).order(ORDER);
+            }
+            synchronized (this) {
+                count = records;
+                minTime = index.getLong(20);
+                maxTime = index.getLong(28);
+                blockMin = mins;
+                blockMax = maxes;
+                chunkTable = index.slice(tableAt, chunks * 16).order(ORDER);
+                ordinals = index.slice(ordinalsAt, records * 4).order(ORDER);
+                data = mapped;
+                chunkSlots = null;
+                chunkKeys = null;
+                chunkLists = null;
+                chunkSizes = null;
+            }
+            return true;
+        }
+
+        private synchronized View view() throws IOException {
+            if (data != null) {
+                return new View(this, count, minTime, blockMin, blockMax, data);
+            }
+            ByteBuffer mapped;
+            try (FileChannel in = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                mapped = in.map(FileChannel.MapMode.READ_ONLY, 0, (long) count * RECORD_BYTES).order(ORDER);
+            }
+            int blocks = blocks(count);
+            return new View(this, count, minTime, Arrays.copyOf(blockMin, blocks), Arrays.copyOf(blockMax, blocks),
+                    mapped);
+        }
+
+        private synchronized int[] candidates(long[] keys, int limit) {
+            int[] result = new int[16];
+            int size = 0;
+            for (long key : keys) {
+                if (chunkTable != null) {
+                    int low = 0;
+                    int high = chunkTable.capacity() / 16 - 1;
+                    while (low <= high) {
+                        int middle = (low + high) >>> 1;
+                        long found = chunkTable.getLong(middle * 16);
+                        if (found < key) {
+                            low = middle + 1;
+                        } else if (found > key) {
+                            high = middle - 1;
+                        } else {
+                            int offset = chunkTable.getInt(middle * 16 + 8);
+                            int length = chunkTable.getInt(middle * 16 + 12);
+                            result = ensure(result, size + length);
+                            for (int i = 0; i < length; i++) {
+                                result[size++] = ordinals.getInt((offset + i) * 4);
+                            }
+                            break;
+                        }
+                    }
+                } else {
+                    int slot = chunkSlots.get(key, -1);
+                    if (slot >= 0) {
+                        result = ensure(result, size + chunkSizes[slot]);
+                        for (int i = 0; i < chunkSizes[slot] && chunkLists[slot][i] < limit; i++) {
+                            result[size++] = chunkLists[slot][i];
+                        }
+                    }
+                }
+            }
+            return Arrays.copyOf(result, size);
+        }
+
+        private static int[] ensure(int[] array, int size) {
+            return size <= array.length ? array : Arrays.copyOf(array, Math.max(size, array.length * 2));
+        }
+
+        private static int blocks(int records) {
+            return (records + (1 << BLOCK_SHIFT) - 1) >> BLOCK_SHIFT;
+        }
+    }
+
+    private record View(Segment segment, int count, long base, long[] blockMin, long[] blockMax, ByteBuffer data) {
+    }
+
+    public record Filter(int[] players, long since, int world, int action, int material, boolean either,
+                         int[] bounds, boolean runs, long[] chunks, LogRepository.LookupCursor after, int order) {
+        private boolean skips(long min, long max) {
+            return max < since || after != null && min > after.time();
+        }
+
+        private boolean matches(ByteBuffer data, int offset, long id) {
+            long time = data.getLong(offset);
+            if (time < since) {
+                return false;
+            }
+            if (after != null) {
+                boolean older = order > after.order() ? time <= after.time()
+                        : order < after.order() ? time < after.time()
+                        : time < after.time() || time == after.time() && id < after.id();
+                if (!older) {
+                    return false;
+                }
+            }
+            if (players != null && Arrays.binarySearch(players, data.getInt(offset + 16)) < 0) {
+                return false;
+            }
+            if (world != 0 && data.getInt(offset + 20) != world || action != 0 && data.getInt(offset + 24) != action) {
+                return false;
+            }
+            if (material != 0 && data.getInt(offset + 28) != material
+                    && !(either && data.getInt(offset + 32) == material)) {
+                return false;
+            }
+            long position = data.getLong(offset + 8);
+            int span = runs ? data.getInt(offset + 36) : 0;
+            int axis = data.get(offset + 40);
+            return within(BlockKey.x(position), axis == 1 ? span : 0, bounds[0], bounds[1])
+                    && within(BlockKey.y(position), axis == 2 ? span : 0, bounds[2], bounds[3])
+                    && within(BlockKey.z(position), axis == 3 ? span : 0, bounds[4], bounds[5]);
+        }
+
+        private static boolean within(int value, int extent, int min, int max) {
+            return value <= max && (long) value + extent >= min;
+        }
+    }
+
+    public static final class Scan {
+        private final Iterator<Segment> pending;
+        private final Filter filter;
+        private final PriorityQueue<SegmentScan> heads = new PriorityQueue<>(
+                Comparator.comparingLong(SegmentScan::time).reversed()
+                        .thenComparing(Comparator.comparingLong(SegmentScan::id).reversed()));
+        private Segment next;
+        private SegmentScan current;
+
+        private Scan(List<Segment> segments, Filter filter) {
+            this.pending = segments.iterator();
+            this.filter = filter;
+            this.next = pending.hasNext() ? pending.next() : null;
+        }
+
+        public boolean next() throws IOException {
+            if (current != null && current.advance()) {
+                heads.add(current);
+            }
+            current = null;
+            while (next != null && (heads.isEmpty() || heads.peek().time() <= next.maxTime())) {
+                SegmentScan source = new SegmentScan(next.view(), filter);
+                if (source.advance()) {
+                    heads.add(source);
+                }
+                next = pending.hasNext() ? pending.next() : null;
+            }
+            current = heads.poll();
+            return current != null;
+        }
+
+        public long time() {
+            return current.time();
+        }
+
+        public long id() {
+            return current.id();
+        }
+
+        public int player() {
+            return current.data.getInt(current.offset() + 16);
+        }
+
+        public int world() {
+            return current.data.getInt(current.offset() + 20);
+        }
+
+        public int action() {
+            return current.data.getInt(current.offset() + 24);
+        }
+
+        public int material() {
+            return current.data.getInt(current.offset() + 28);
+        }
+
+        public int detail() {
+            return current.data.getInt(current.offset() + 32);
+        }
+
+        public int amount() {
+            return current.data.getInt(current.offset() + 36);
+        }
+
+        public int axis() {
+            return current.data.get(current.offset() + 40);
+        }
+
+        public long position() {
+            return current.data.getLong(current.offset() + 8);
+        }
+    }
+
+    private static final class SegmentScan {
+        private final View view;
+        private final Filter filter;
+        private final ByteBuffer data;
+        private final int[] blocks;
+        private long[] heap = new long[64];
+        private int heapSize;
+        private int nextBlock;
+        private long time;
+        private int ordinal;
+
+        private SegmentScan(View view, Filter filter) {
+            this.view = view;
+            this.filter = filter;
+            this.data = view.data();
+            if (filter.chunks() != null) {
+                this.blocks = new int[0];
+                for (int candidate : view.segment().candidates(filter.chunks(), view.count())) {
+                    test(candidate);
+                }
+                return;
+            }
+            int count = 0;
+            Integer[] order = new Integer[view.blockMax().length];
+            for (int block = 0; block < order.length; block++) {
+                if (block << BLOCK_SHIFT < view.count()
+                        && !filter.skips(view.blockMin()[block], view.blockMax()[block])) {
+                    order[count++] = block;
+                }
+            }
+            Arrays.sort(order, 0, count, Comparator.comparingLong((Integer block) -> view.blockMax()[block])
+                    .reversed());
+            this.blocks = new int[count];
+            for (int i = 0; i < count; i++) {
+                blocks[i] = order[i];
+            }
+        }
+
+        private long time() {
+            return time;
+        }
+
+        private long id() {
+            return ((long) view.segment().id << 32) | ordinal;
+        }
+
+        private int offset() {
+            return ordinal * RECORD_BYTES;
+        }
+
+        private boolean advance() {
+            while (nextBlock < blocks.length
+                    && (heapSize == 0 || view.base() + (heap[0] >>> ORDINAL_BITS) <= view.blockMax()[blocks[nextBlock]])) {
+                int start = blocks[nextBlock++] << BLOCK_SHIFT;
+                int end = Math.min(view.count(), start + (1 << BLOCK_SHIFT));
+                for (int candidate = start; candidate < end; candidate++) {
+                    test(candidate);
+                }
+            }
+            if (heapSize == 0) {
+                return false;
+            }
+            long key = poll();
+            time = view.base() + (key >>> ORDINAL_BITS);
+            ordinal = (int) (key & ORDINAL_MASK);
+            return true;
+        }
+
+        private void test(int candidate) {
+            long id = ((long) view.segment().id << 32) | candidate;
+            if (filter.matches(data, candidate * RECORD_BYTES, id)) {
+                push(((data.getLong(candidate * RECORD_BYTES) - view.base()) << ORDINAL_BITS) | candidate);
+            }
+        }
+
+        private void push(long key) {
+            if (heapSize == heap.length) {
+                heap = Arrays.copyOf(heap, heapSize * 2);
+            }
+            int index = heapSize++;
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (heap[parent] >= key) {
+                    break;
+                }
+                heap[index] = heap[parent];
+                index = parent;
+            }
+            heap[index] = key;
+        }
+
+        private long poll() {
+            long top = heap[0];
+            long last = heap[--heapSize];
+            int index = 0;
+            while (true) {
+                int child = index * 2 + 1;
+                if (child >= heapSize) {
+                    break;
+                }
+                if (child + 1 < heapSize && heap[child + 1] > heap[child]) {
+                    child++;
+                }
+                if (heap[child] <= last) {
+                    break;
+                }
+                heap[index] = heap[child];
+                index = child;
+            }
+            heap[index] = last;
+            return top;
+        }
+    }
+
+    public record Expired(long rows, long bytes, int segments) {
+    }
+
+    public record Stats(int segments, long records, long bytes) {
+    }
+}
@@ -0,0 +1,190 @@
+package com.azk.pulse.modules.logs;
+
+import com.azk.pulse.storage.DatabaseProvider;
+import com.azk.pulse.storage.StorageService;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.bukkit.plugin.java.JavaPlugin;
+
+public class LogWriteQueue {
+    private static final long DROP_WARNING_INTERVAL_MILLIS = 60_000L;
+
+    private final JavaPlugin plugin;
+    private final StorageService storage;
+    private final StorageService.Flushable flushHook = () -> flush(true);
+    private final BatchWriter writer;
+    private final LogCoalescer coalescer;
+    private final BlockingQueue<LogRecord> queue;
+    private final LogEventRing events;
+    private final LogEventRing.Batch drained;
+    private final int capacity;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong totalFlushNanos = new AtomicLong();
+    private volatile long lastDropWarning;
+    private volatile int lastBatchSize;
+    private volatile long lastFlushNanos;
+    private volatile long maxFlushNanos;
+    private ScheduledFuture<?> flushTask;
+
+    public LogWriteQueue(JavaPlugin plugin, StorageService storage, BatchWriter writer, LogCoalescer coalescer,
+                         int capacity, int batchSize, long flushIntervalMillis) {
+        this.plugin = plugin;
+        this.storage = storage;
+        this.writer = writer;
+        this.coalescer = coalescer;
+        this.capacity = Math.max(1, capacity);
+        this.batchSize = Math.max(1, Math.min(batchSize, this.capacity));
+        this.flushIntervalMillis = Math.max(50L, flushIntervalMillis);
+        this.queue = new ArrayBlockingQueue<>(this.capacity);
+        this.events = new LogEventRing(this.capacity);
+        this.drained = new LogEventRing.Batch(this.batchSize);
+    }
+
+    public void start() {
+        if (flushTask != null) {
+            return;
+        }
+        storage.register(flushHook);
+        flushTask = storage.scheduleWrite(this::flush, flushIntervalMillis);
+    }
+
+    public void shutdown() {
+        if (flushTask != null) {
+            flushTask.cancel(false);
+            flushTask = null;
+        }
+        storage.unregister(flushHook);
+        flush(true);
+    }
+
+    public void enqueue(LogRecord record) {
+        if (queue.offer(record)) {
+            if (queue.size() >= batchSize) {
+                requestFlush();
+            }
+            return;
+        }
+        drop();
+    }
+
+    public void offer(LogRepository.LogType type, long time, int player, int world, int action, int material,
+                      int detail, int amount, long position) {
+        if (events.offer(type, time, player, world, action, material, detail, amount, position)) {
+            if (events.size() >= batchSize) {
+                requestFlush();
+            }
+            return;
+        }
+        drop();
+    }
+
+    private void drop() {
+        dropped.incrementAndGet();
+        long now = System.currentTimeMillis();
+        if (now - lastDropWarning >= DROP_WARNING_INTERVAL_MILLIS) {
+            lastDropWarning = now;
+            plugin.getLogger().warning("Log write queue is full (" + capacity + " events); dropped "
+                    + dropped.get() + " events so far. Consider raising logs.writer.queue-capacity.");
+        }
+    }
+
+    public Stats getStats() {
+        long batchCount = batches.get();
+        double averageBatch = batchCount > 0 ? (written.get() + failed.get()) / (double) batchCount : 0.0;
+        double averageFlush = batchCount > 0 ? totalFlushNanos.get() / (double) batchCount / 1_000_000.0 : 0.0;
+        return new Stats(queue.size() + events.size(), capacity, lastBatchSize, averageBatch,
+                lastFlushNanos / 1_000_000.0, averageFlush, maxFlushNanos / 1_000_000.0,
+                written.get(), failed.get(), dropped.get(), coalescer != null ? coalescer.merged() : 0L);
+    }
+
+    private void requestFlush() {
+        if (flushTask == null || !flushScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        if (!storage.submitWrite(this::flush)) {
+            flushScheduled.set(false);
+        }
+    }
+
+    private void flush() {
+        flush(false);
+    }
+
+    private synchronized void flush(boolean all) {
+        flushScheduled.set(false);
+        List<LogRecord> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) + events.drainTo(drained, batchSize) > 0) {
+            writeBatch(batch, coalescer != null
+                    ? coalescer.coalesce(batch, drained, System.currentTimeMillis(), all)
+                    : drained);
+            batch.clear();
+        }
+        if (coalescer != null && coalescer.holding()) {
+            writeBatch(batch, coalescer.coalesce(batch, drained, System.currentTimeMillis(), all));
+        }
+    }
+
+    private void writeBatch(List<LogRecord> batch, LogEventRing.Batch events) {
+        int count = batch.size() + events.size();
+        if (count == 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        DatabaseProvider provider = storage.getProvider();
+        if (provider == null) {
+            failed.addAndGet(count);
+            plugin.getLogger().warning("Storage is not available; discarded " + count + " log events.");
+            return;
+        }
+        try (Connection connection = provider.openWriteConnection()) {
+            connection.setAutoCommit(false);
+            int lost;
+            try {
+                lost = writer.write(connection, batch, events);
+                connection.commit();
+            } catch (SQLException ex) {
+                connection.rollback();
+                throw ex;
+            }
+            written.addAndGet(count - lost);
+            failed.addAndGet(lost);
+        } catch (SQLException ex) {
+            failed.addAndGet(count);
+            plugin.getLogger().warning("Failed to write " + count + " log events: " + ex.getMessage());
+        }
+        long elapsed = System.nanoTime() - start;
+        batches.incrementAndGet();
+        totalFlushNanos.addAndGet(elapsed);
+        lastBatchSize = count;
+        lastFlushNanos = elapsed;
+        if (elapsed > maxFlushNanos) {
+            maxFlushNanos = elapsed;
+        }
+    }
+
+    @FunctionalInterface
+    public interface BatchWriter {
+        /**
+         * Writes the batch and returns how many of its entries could not be stored after the rest was committed.
+         */
+        int write(Connection connection, List<LogRecord> records, LogEventRing.Batch events) throws SQLException;
+    }
+
+    public record Stats(int queueDepth, int capacity, int lastBatchSize, double averageBatchSize,
+                        double lastFlushMillis, double averageFlushMillis, double maxFlushMillis,
+                        long written, long failed, long dropped, long coalesced) {
+    }
+}
@@ -4,7 +4,6 @@ import com.azk.pulse.PulsePlugin;
 import com.azk.pulse.commands.CommandRegistry;
 import com.azk.pulse.core.ConfigFiles;
 import com.azk.pulse.core.PulseModule;
-import com.azk.pulse.storage.StorageFactory;
 import org.bukkit.event.HandlerList;
 
 public class LogsModule implements PulseModule {
@@ -16,6 +15,7 @@ public class LogsModule implements PulseModule {
     private LookupWandListener wandListener;
     private LookupSelectionManager selectionManager;
     private LookupService lookupService;
+    private RollbackService rollbackService;
     private boolean enabled;
 
     public LogsModule(PulsePlugin plugin, ConfigFiles configFiles, CommandRegistry registry) {
@@ -31,15 +31,20 @@ public class LogsModule implements PulseModule {
 
     @Override
     public void enable() {
-        repository = new LogRepository(plugin, StorageFactory.create(plugin, configFiles.getMain()));
+        repository = new LogRepository(plugin, configFiles, plugin.getStorage());
         repository.init();
         listener = new LogListener(plugin, configFiles, repository);
         selectionManager = new LookupSelectionManager();
-        lookupService = new LookupService(plugin, repository);
+        lookupService = new LookupService(plugin, configFiles, repository);
         wandListener = new LookupWandListener(plugin, configFiles, selectionManager, lookupService);
         plugin.getServer().getPluginManager().registerEvents(listener, plugin);
         plugin.getServer().getPluginManager().registerEvents(wandListener, plugin);
         registry.register(new LookupCommand(plugin, configFiles, selectionManager, lookupService, wandListener));
+        rollbackService = new RollbackService(plugin, configFiles, repository);
+        registry.register(new RollbackCommand(plugin, configFiles, selectionManager, rollbackService,
+                RollbackService.Mode.ROLLBACK));
+        registry.register(new RollbackCommand(plugin, configFiles, selectionManager, rollbackService,
+                RollbackService.Mode.RESTORE));
     }
 
     @Override
@@ -52,6 +57,13 @@ public class LogsModule implements PulseModule {
             HandlerList.unregisterAll(wandListener);
             wandListener = null;
         }
+        if (lookupService != null) {
+            lookupService.shutdown();
+        }
+        if (rollbackService != null) {
+            rollbackService.shutdown();
+            rollbackService = null;
+        }
         if (repository != null) {
             repository.shutdown();
             repository = null;
@@ -71,4 +83,7 @@ public class LogsModule implements PulseModule {
         this.enabled = enabled;
     }
 
+    public LogRepository getRepository() {
+        return repository;
+    }
 }
@@ -0,0 +1,297 @@
+package com.azk.pulse.modules.logs;
+
+import com.azk.pulse.core.LongIntMap;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+public class LookupCache {
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final long sinceGranularityMillis;
+    private final LinkedHashMap<LogRepository.LookupQuery, Cached> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final List<Fetch> inFlight = new ArrayList<>();
+    private long hits;
+    private long misses;
+    private long invalidated;
+
+    public LookupCache(int maxEntries, long ttlMillis, long sinceGranularityMillis) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.ttlMillis = Math.max(1000L, ttlMillis);
+        this.sinceGranularityMillis = Math.max(1L, sinceGranularityMillis);
+    }
+
+    LogRepository.LookupQuery normalize(LogRepository.LookupQuery query) {
+        return new LogRepository.LookupQuery(
+                query.player() != null ? query.player().toLowerCase(Locale.ROOT) : null, query.type(), query.world(),
+                query.x(), query.y(), query.z(), query.radius(), query.minX(), query.maxX(), query.minY(),
+                query.maxY(), query.minZ(), query.maxZ(), blankToNull(query.action()),
+                blankToNull(query.material()), query.since(), query.limit(), query.after());
+    }
+
+    /**
+     * Queries whose {@code since} falls in the same granularity bucket share one entry; the page stored there keeps
+     * the exact bound it was fetched with and is narrowed to each caller's own bound on the way out.
+     */
+    private LogRepository.LookupQuery key(LogRepository.LookupQuery query) {
+        if (query.since() == null) {
+            return query;
+        }
+        return query.since(Instant.ofEpochMilli(Math.floorDiv(query.since().toEpochMilli(), sinceGranularityMillis)
+                * sinceGranularityMillis));
+    }
+
+    synchronized LogRepository.LookupPage get(LogRepository.LookupQuery query) {
+        LogRepository.LookupQuery key = key(query);
+        Cached cached = entries.get(key);
+        if (cached == null || System.currentTimeMillis() - cached.createdAt() > ttlMillis) {
+            if (cached != null) {
+                entries.remove(key);
+            }
+            misses++;
+            return null;
+        }
+        LogRepository.LookupPage page = narrow(cached, sinceMillis(query));
+        if (page == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return page;
+    }
+
+    /**
+     * Registers a lookup about to run, so writes that land while it runs can veto caching its page.
+     */
+    synchronized Fetch begin(LogRepository.LookupQuery query) {
+        Fetch fetch = new Fetch(query, LogRepository.locationBounds(query));
+        inFlight.add(fetch);
+        return fetch;
+    }
+
+    /**
+     * Caches the page of a finished lookup unless a write that affects it arrived meanwhile; a null page only
+     * unregisters the lookup.
+     */
+    synchronized void finish(Fetch fetch, LogRepository.LookupPage page) {
+        inFlight.remove(fetch);
+        if (page == null || fetch.stale) {
+            return;
+        }
+        LogRepository.LookupQuery query = fetch.query;
+        entries.put(key(query), new Cached(page, fetch.bounds, System.currentTimeMillis(), sinceMillis(query)));
+        while (entries.size() > maxEntries) {
+            Iterator<LogRepository.LookupQuery> eldest = entries.keySet().iterator();
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    synchronized void invalidate(Touched touched) {
+        for (Fetch fetch : inFlight) {
+            if (!fetch.stale && touched.affects(fetch.query, fetch.bounds)) {
+                fetch.stale = true;
+            }
+        }
+        for (Iterator<Map.Entry<LogRepository.LookupQuery, Cached>> iterator = entries.entrySet().iterator();
+             iterator.hasNext(); ) {
+            Map.Entry<LogRepository.LookupQuery, Cached> entry = iterator.next();
+            if (touched.affects(entry.getKey(), entry.getValue().bounds())) {
+                iterator.remove();
+                invalidated++;
+            }
+        }
+    }
+
+    synchronized void clear() {
+        for (Fetch fetch : inFlight) {
+            fetch.stale = true;
+        }
+        invalidated += entries.size();
+        entries.clear();
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(entries.size(), hits, misses, invalidated);
+    }
+
+    private static LogRepository.LookupPage narrow(Cached cached, long since) {
+        LogRepository.LookupPage page = cached.page();
+        if (since < cached.since()) {
+            // Rows between the two bounds were never fetched; they only sort after a full page.
+            return page.next() != null ? page : null;
+        }
+        if (since == cached.since()) {
+            return page;
+        }
+        List<LogRepository.LogEntry> kept = new ArrayList<>(page.entries().size());
+        for (LogRepository.LogEntry entry : page.entries()) {
+            if (entry.timestamp() >= since) {
+                kept.add(entry);
+            }
+        }
+        return kept.size() == page.entries().size() ? page : new LogRepository.LookupPage(kept, null);
+    }
+
+    private static long sinceMillis(LogRepository.LookupQuery query) {
+        return query.since() != null ? query.since().toEpochMilli() : Long.MIN_VALUE;
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : LogDictionary.normalize(value);
+    }
+
+    private record Cached(LogRepository.LookupPage page, int[] bounds, long createdAt, long since) {
+    }
+
+    static final class Fetch {
+        private final LogRepository.LookupQuery query;
+        private final int[] bounds;
+        private boolean stale;
+
+        private Fetch(LogRepository.LookupQuery query, int[] bounds) {
+            this.query = query;
+            this.bounds = bounds;
+        }
+    }
+
+    /**
+     * What one writer batch touched, per type: the players, the oldest time, and per world the chunks and bounding
+     * box of the located events. Each cached or in-flight query is checked against this once per batch.
+     */
+    static final class Touched {
+        private final Map<LogRepository.LogType, Writes> types = new EnumMap<>(LogRepository.LogType.class);
+
+        void add(LogRepository.LogType type, long time, String player, String world, Integer x, Integer y, Integer z,
+                 int dx, int dy, int dz) {
+            Writes writes = types.computeIfAbsent(type, key -> new Writes());
+            writes.oldest = Math.min(writes.oldest, time);
+            if (player != null) {
+                writes.players.add(player.toLowerCase(Locale.ROOT));
+            }
+            if (world == null || x == null || y == null || z == null) {
+                writes.unlocated = true;
+            } else {
+                writes.regions.computeIfAbsent(world, key -> new Region()).add(x, y, z, dx, dy, dz);
+            }
+        }
+
+        boolean isEmpty() {
+            return types.isEmpty();
+        }
+
+        private boolean affects(LogRepository.LookupQuery query, int[] bounds) {
+            for (Map.Entry<LogRepository.LogType, Writes> entry : types.entrySet()) {
+                if ((query.type() == null || query.type() == entry.getKey())
+                        && entry.getValue().affects(query, bounds)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class Writes {
+        private final Set<String> players = new HashSet<>();
+        private final Map<String, Region> regions = new HashMap<>();
+        private long oldest = Long.MAX_VALUE;
+        private boolean unlocated;
+
+        private boolean affects(LogRepository.LookupQuery query, int[] bounds) {
+            if (query.after() != null && oldest > query.after().time()) {
+                return false;
+            }
+            if (query.player() != null && !players.contains(query.player())) {
+                return false;
+            }
+            if (unlocated) {
+                return true;
+            }
+            for (Map.Entry<String, Region> region : regions.entrySet()) {
+                if ((query.world() == null || query.world().equals(region.getKey()))
+                        && region.getValue().overlaps(bounds)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class Region {
+        private final LongIntMap chunks = new LongIntMap(16);
+        private long[] keys = new long[16];
+        private int minX = Integer.MAX_VALUE;
+        private int maxX = Integer.MIN_VALUE;
+        private int minY = Integer.MAX_VALUE;
+        private int maxY = Integer.MIN_VALUE;
+        private int minZ = Integer.MAX_VALUE;
+        private int maxZ = Integer.MIN_VALUE;
+
+        private void add(int x, int y, int z, int dx, int dy, int dz) {
+            minX = Math.min(minX, x);
+            maxX = Math.max(maxX, x + dx);
+            minY = Math.min(minY, y);
+            maxY = Math.max(maxY, y + dy);
+            minZ = Math.min(minZ, z);
+            maxZ = Math.max(maxZ, z + dz);
+            for (int chunkX = x >> 4; chunkX <= (x + dx) >> 4; chunkX++) {
+                for (int chunkZ = z >> 4; chunkZ <= (z + dz) >> 4; chunkZ++) {
+                    long key = ChunkKey.ofChunk(chunkX, chunkZ);
+                    if (chunks.get(key, -1) < 0) {
+                        if (chunks.size() == keys.length) {
+                            keys = Arrays.copyOf(keys, keys.length * 2);
+                        }
+                        keys[chunks.size()] = key;
+                        chunks.put(key, 1);
+                    }
+                }
+            }
+        }
+
+        private boolean overlaps(int[] bounds) {
+            if (maxX < bounds[0] || minX > bounds[1] || maxY < bounds[2] || minY > bounds[3]
+                    || maxZ < bounds[4] || minZ > bounds[5]) {
+                return false;
+            }
+            int fromX = bounds[0] >> 4;
+            int toX = bounds[1] >> 4;
+            int fromZ = bounds[4] >> 4;
+            int toZ = bounds[5] >> 4;
+            int size = chunks.size();
+            if (((long) toX - fromX + 1) * ((long) toZ - fromZ + 1) <= size) {
+                for (int chunkX = fromX; chunkX <= toX; chunkX++) {
+                    for (int chunkZ = fromZ; chunkZ <= toZ; chunkZ++) {
+                        if (chunks.get(ChunkKey.ofChunk(chunkX, chunkZ), -1) >= 0) {
+                            return true;
+                        }
+                    }
+                }
+                return false;
+            }
+            for (int i = 0; i < size; i++) {
+                int chunkX = ChunkKey.chunkX(keys[i]);
+                int chunkZ = ChunkKey.chunkZ(keys[i]);
+                if (chunkX >= fromX && chunkX <= toX && chunkZ >= fromZ && chunkZ <= toZ) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    public record Stats(int entries, long hits, long misses, long invalidated) {
+        public double hitRatio() {
+            long total = hits + misses;
+            return total > 0 ? hits / (double) total : 0.0;
+        }
+    }
+}
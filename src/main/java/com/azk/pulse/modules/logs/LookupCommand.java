@@ -65,6 +65,8 @@ public class LookupCommand implements PulseSubcommand {
             case "area" -> lookupArea(sender, args);
             case "clear" -> clearSelection(sender);
             case "tp" -> teleportTo(sender, args);
+            case "export" -> exportCommand(sender, args);
+            case "jobs" -> showJobs(sender);
             default -> lookupPlayer(sender, args);
         };
     }
@@ -77,13 +79,15 @@ public class LookupCommand implements PulseSubcommand {
             options.add("area");
             options.add("clear");
             options.add("tp");
+            options.add("export");
+            options.add("jobs");
             options.add("*");
             options.addAll(onlinePlayers());
             return filterByPrefix(options, args[0]);
         }
 
         String mode = args[0].toLowerCase(Locale.ROOT);
-        if (mode.equals("wand") || mode.equals("clear")) {
+        if (mode.equals("wand") || mode.equals("clear") || mode.equals("jobs")) {
             return List.of();
         }
 
@@ -97,6 +101,9 @@ public class LookupCommand implements PulseSubcommand {
             }
             return filterLookupOptions(args, false);
         }
+        if (mode.equals("export")) {
+            return args.length == 2 ? filterByPrefix(List.of("cancel"), args[1]) : List.of();
+        }
         if (mode.equals("tp")) {
             if (args.length == 2) {
                 return filterByPrefix(worldNames(), args[1]);
@@ -149,6 +156,20 @@ public class LookupCommand implements PulseSubcommand {
         return true;
     }
 
+    private boolean exportCommand(CommandSender sender, String[] args) {
+        if (args.length == 2 && args[1].equalsIgnoreCase("cancel")) {
+            lookupService.cancelExport(sender);
+            return true;
+        }
+        MessageUtil.sendWarningKey(sender, plugin, "lookup.export.usage");
+        return true;
+    }
+
+    private boolean showJobs(CommandSender sender) {
+        lookupService.showJobs(sender);
+        return true;
+    }
+
     private boolean teleportTo(CommandSender sender, String[] args) {
         if (!(sender instanceof Player player)) {
             MessageUtil.sendErrorKey(sender, plugin, "general.only-players");
@@ -225,7 +246,6 @@ public class LookupCommand implements PulseSubcommand {
         ParsedArgs parsed = parseArgs(args, startIndex);
         int limit = resolveLimit(parsed.limit);
         int page = parsed.page > 0 ? parsed.page : 1;
-        int offset = (page - 1) * limit;
 
         if (parsed.typeInvalid) {
             MessageUtil.sendErrorKey(sender, plugin, "lookup.invalid-type");
@@ -235,6 +255,10 @@ public class LookupCommand implements PulseSubcommand {
             MessageUtil.sendErrorKey(sender, plugin, "lookup.invalid-since");
             return true;
         }
+        if (parsed.cursorInvalid) {
+            MessageUtil.sendErrorKey(sender, plugin, "lookup.invalid-cursor");
+            return true;
+        }
 
         LogRepository.LookupQuery query = new LogRepository.LookupQuery(
                 targetPlayer,
@@ -254,15 +278,15 @@ public class LookupCommand implements PulseSubcommand {
                 parsed.material,
                 parsed.since,
                 limit,
-                offset
+                parsed.cursor
         );
 
         String title = buildTitle(MessageUtil.tr(plugin, "lookup.area-title"), targetPlayer, parsed.type, page)
                 + " @ " + formatRegion(region);
         if (parsed.export) {
-            lookupService.exportLookup(sender, query, title);
+            lookupService.exportLookup(sender, query, parsed.format, title);
         } else {
-            lookupService.sendLookup(sender, query, title);
+            lookupService.sendLookup(sender, query, page, title, pageCommand(args));
         }
         return true;
     }
@@ -277,7 +301,6 @@ public class LookupCommand implements PulseSubcommand {
         ParsedArgs parsed = parseArgs(args, 1);
         int limit = resolveLimit(parsed.limit);
         int page = parsed.page > 0 ? parsed.page : 1;
-        int offset = (page - 1) * limit;
 
         if (parsed.typeInvalid) {
             MessageUtil.sendErrorKey(sender, plugin, "lookup.invalid-type");
@@ -287,6 +310,10 @@ public class LookupCommand implements PulseSubcommand {
             MessageUtil.sendErrorKey(sender, plugin, "lookup.invalid-since");
             return true;
         }
+        if (parsed.cursorInvalid) {
+            MessageUtil.sendErrorKey(sender, plugin, "lookup.invalid-cursor");
+            return true;
+        }
 
         String world = parsed.world;
         Integer x = parsed.x;
@@ -326,19 +353,22 @@ public class LookupCommand implements PulseSubcommand {
                 parsed.material,
                 parsed.since,
                 limit,
-                offset
+                parsed.cursor
         );
 
         String title = buildTitle(MessageUtil.tr(plugin, "lookup.title"), targetPlayer, parsed.type, page);
         if (parsed.export) {
-            lookupService.exportLookup(sender, query, title);
+            lookupService.exportLookup(sender, query, parsed.format, title);
+        } else if (radius != null && (parsed.x == null || parsed.z == null) && x != null) {
+            lookupService.sendLookup(sender, query, page, title, pageCommand(args,
+                    "world=" + world, "x=" + x, "y=" + y, "z=" + z));
         } else {
-            lookupService.sendLookup(sender, query, title);
+            lookupService.sendLookup(sender, query, page, title, pageCommand(args));
         }
         return true;
     }
 
-    private ParsedArgs parseArgs(String[] args, int startIndex) {
+    static ParsedArgs parseArgs(String[] args, int startIndex) {
         ParsedArgs parsed = new ParsedArgs();
         for (int i = startIndex; i < args.length; i++) {
             String arg = args[i];
@@ -361,6 +391,10 @@ public class LookupCommand implements PulseSubcommand {
                     }
                     case "limit" -> parsed.limit = parseInt(value, -1);
                     case "page" -> parsed.page = parseInt(value, 1);
+                    case "cursor" -> {
+                        parsed.cursor = LogRepository.LookupCursor.parse(value);
+                        parsed.cursorInvalid = parsed.cursor == null;
+                    }
                     case "world" -> parsed.world = value;
                     case "x" -> parsed.x = parseInt(value, null);
                     case "y" -> parsed.y = parseInt(value, null);
@@ -369,6 +403,10 @@ public class LookupCommand implements PulseSubcommand {
                     case "action" -> parsed.action = value;
                     case "material" -> parsed.material = value;
                     case "since" -> parsed.since = parseSince(value, parsed);
+                    case "format" -> {
+                        parsed.format = value;
+                        parsed.export = true;
+                    }
                     default -> {
                     }
                 }
@@ -384,7 +422,7 @@ public class LookupCommand implements PulseSubcommand {
         return parsed;
     }
 
-    private Integer parseInt(String value, Integer fallback) {
+    static Integer parseInt(String value, Integer fallback) {
         try {
             return Integer.parseInt(value);
         } catch (NumberFormatException ex) {
@@ -392,7 +430,7 @@ public class LookupCommand implements PulseSubcommand {
         }
     }
 
-    private Instant parseSince(String value, ParsedArgs parsed) {
+    private static Instant parseSince(String value, ParsedArgs parsed) {
         Duration duration = parseDuration(value);
         if (duration == null) {
             parsed.durationInvalid = true;
@@ -401,7 +439,7 @@ public class LookupCommand implements PulseSubcommand {
         return Instant.now().minus(duration);
     }
 
-    private Duration parseDuration(String value) {
+    private static Duration parseDuration(String value) {
         if (value == null || value.isBlank()) {
             return null;
         }
@@ -453,6 +491,25 @@ public class LookupCommand implements PulseSubcommand {
         return base + ": " + target + suffix + pageLabel;
     }
 
+    private String pageCommand(String[] args, String... resolved) {
+        StringBuilder command = new StringBuilder("/pulse lookup");
+        for (String arg : args) {
+            String lower = arg.toLowerCase(Locale.ROOT);
+            if (lower.equals("export") || lower.startsWith("page=") || lower.startsWith("cursor=")) {
+                continue;
+            }
+            if (resolved.length > 0 && (lower.startsWith("world=") || lower.startsWith("x=")
+                    || lower.startsWith("y=") || lower.startsWith("z="))) {
+                continue;
+            }
+            command.append(' ').append(arg);
+        }
+        for (String arg : resolved) {
+            command.append(' ').append(arg);
+        }
+        return command.toString();
+    }
+
     private String formatRegion(LookupSelectionManager.SelectionRegion region) {
         return region.world() + " " + region.minX() + "," + region.minY() + "," + region.minZ()
                 + " -> " + region.maxX() + "," + region.maxY() + "," + region.maxZ();
@@ -463,6 +520,8 @@ public class LookupCommand implements PulseSubcommand {
         MessageUtil.sendKey(sender, plugin, "lookup.usage.main");
         MessageUtil.sendKey(sender, plugin, "lookup.usage.area");
         MessageUtil.sendKey(sender, plugin, "lookup.usage.tp");
+        MessageUtil.sendKey(sender, plugin, "lookup.usage.export");
+        MessageUtil.sendKey(sender, plugin, "lookup.usage.jobs");
         MessageUtil.sendKey(sender, plugin, "lookup.usage.wand");
         MessageUtil.sendKey(sender, plugin, "lookup.usage.clear");
     }
@@ -513,11 +572,15 @@ public class LookupCommand implements PulseSubcommand {
         options.add("action=break");
         options.add("action=place");
         options.add("action=open");
+        options.add("action=take");
+        options.add("action=put");
         options.add("material=");
         options.add("limit=10");
         options.add("page=1");
         options.add("since=1h");
         options.add("export");
+        options.add("format=csv");
+        options.add("format=ndjson.gz");
         if (includeLocation) {
             options.add("world=");
             options.add("x=");
@@ -542,7 +605,8 @@ public class LookupCommand implements PulseSubcommand {
 
     private List<String> actionSuggestions(String current) {
         String prefix = current.substring("action=".length()).toLowerCase(Locale.ROOT);
-        List<String> options = List.of("break", "place", "open");
+        List<String> options = List.of("break", "place", "open", "take", "put", "explode", "burn", "ignite",
+                "flow", "push", "pull", "kill", "drop", "pickup");
         List<String> results = new ArrayList<>();
         for (String option : options) {
             if (option.startsWith(prefix)) {
@@ -566,20 +630,23 @@ public class LookupCommand implements PulseSubcommand {
         return results;
     }
 
-    private static class ParsedArgs {
-        private LogRepository.LogType type;
-        private int limit = -1;
-        private int page = 1;
-        private boolean typeInvalid = false;
-        private boolean durationInvalid = false;
-        private boolean export = false;
-        private String action;
-        private String material;
-        private String world;
-        private Integer x;
-        private Integer y;
-        private Integer z;
-        private Integer radius;
-        private Instant since;
+    static class ParsedArgs {
+        LogRepository.LogType type;
+        int limit = -1;
+        int page = 1;
+        boolean typeInvalid = false;
+        boolean durationInvalid = false;
+        boolean cursorInvalid = false;
+        boolean export = false;
+        String action;
+        String material;
+        String world;
+        Integer x;
+        Integer y;
+        Integer z;
+        Integer radius;
+        Instant since;
+        LogRepository.LookupCursor cursor;
+        String format;
     }
 }
@@ -0,0 +1,86 @@
+package com.azk.pulse.modules.logs;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public class LookupJob {
+    private final long id;
+    private final String owner;
+    private final String title;
+    private final long createdAt = System.currentTimeMillis();
+    private final long deadline;
+    private volatile long startedAt;
+    private volatile boolean cancelled;
+    private Statement statement;
+
+    public LookupJob(long id, String owner, String title, long timeoutMillis) {
+        this.id = id;
+        this.owner = owner;
+        this.title = title;
+        this.deadline = timeoutMillis > 0 ? createdAt + timeoutMillis : Long.MAX_VALUE;
+    }
+
+    public long id() {
+        return id;
+    }
+
+    public String owner() {
+        return owner;
+    }
+
+    public String title() {
+        return title;
+    }
+
+    public long createdAt() {
+        return createdAt;
+    }
+
+    public boolean running() {
+        return startedAt > 0;
+    }
+
+    void start() {
+        startedAt = System.currentTimeMillis();
+    }
+
+    public boolean cancelled() {
+        return cancelled || timedOut();
+    }
+
+    public boolean timedOut() {
+        return System.currentTimeMillis() >= deadline;
+    }
+
+    public void cancel() {
+        cancelled = true;
+        Statement current;
+        synchronized (this) {
+            current = statement;
+        }
+        if (current != null) {
+            try {
+                current.cancel();
+            } catch (SQLException ignored) {
+            }
+        }
+    }
+
+    void attach(Statement statement) throws SQLException {
+        if (deadline != Long.MAX_VALUE) {
+            statement.setQueryTimeout((int) Math.max(1L, (deadline - System.currentTimeMillis() + 999L) / 1000L));
+        }
+        synchronized (this) {
+            this.statement = statement;
+        }
+        if (cancelled()) {
+            throw new SQLException("Lookup cancelled");
+        }
+    }
+
+    synchronized void detach(Statement statement) {
+        if (this.statement == statement) {
+            this.statement = null;
+        }
+    }
+}
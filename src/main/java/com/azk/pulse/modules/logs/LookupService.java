@@ -1,13 +1,30 @@
 package com.azk.pulse.modules.logs;
 
+import com.azk.pulse.core.ConfigFiles;
 import com.azk.pulse.core.MessageUtil;
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
 import net.md_5.bungee.api.chat.BaseComponent;
 import net.md_5.bungee.api.chat.ClickEvent;
 import net.md_5.bungee.api.chat.ComponentBuilder;
@@ -18,67 +35,325 @@ import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 
 public class LookupService {
+    private static final int MAX_TRACKED_SENDERS = 256;
+    private static final int MAX_TRACKED_PAGES = 512;
+
     private final JavaPlugin plugin;
+    private final ConfigFiles configFiles;
     private final LogRepository repository;
+    private final LogRenderer renderer;
+    private final Map<String, PageCursors> pageCursors = new ConcurrentHashMap<>();
+    private final Map<String, ExportJob> exports = new ConcurrentHashMap<>();
+    private final Map<String, LookupJob> lookups = new ConcurrentHashMap<>();
+    private final AtomicLong nextLookupId = new AtomicLong();
+    private final Semaphore lookupPermits;
+    private final long lookupTimeoutMillis;
 
-    public LookupService(JavaPlugin plugin, LogRepository repository) {
+    public LookupService(JavaPlugin plugin, ConfigFiles configFiles, LogRepository repository) {
         this.plugin = plugin;
+        this.configFiles = configFiles;
         this.repository = repository;
+        this.renderer = new LogRenderer(plugin);
+        this.lookupPermits = new Semaphore(Math.max(1, configFiles.getMain().getInt("logs.lookup.max-concurrent", 4)),
+                true);
+        this.lookupTimeoutMillis = Math.max(0L, configFiles.getMain().getLong("logs.lookup.timeout-seconds", 30L))
+                * 1000L;
     }
 
-    public void sendLookup(CommandSender sender, LogRepository.LookupQuery query, String title) {
-        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
-            List<LogRepository.LogEntry> entries = repository.fetchRecent(query);
-            plugin.getServer().getScheduler().runTask(plugin, () -> {
-                MessageUtil.sendTitle(sender, plugin, title);
-                if (entries.isEmpty()) {
-                    MessageUtil.sendWarningKey(sender, plugin, "lookup.none");
-                    return;
+    public void sendLookup(CommandSender sender, LogRepository.LookupQuery query, int page, String title,
+                           String command) {
+        if (page <= 1 && query.after() == null) {
+            LogRepository.LookupPage recent = repository.recentPage(query);
+            if (recent != null) {
+                if (recent.next() != null) {
+                    pageCursors(sender, query).remember(2, recent.next());
                 }
-                if (sender instanceof Player player) {
-                    for (LogRepository.LogEntry entry : entries) {
-                        sendInteractive(player, entry);
+                showPage(sender, new PageView(recent.entries(), 1, null, recent.next()), title, command);
+                return;
+            }
+        }
+        String senderKey = senderKey(sender);
+        LookupJob job = new LookupJob(nextLookupId.incrementAndGet(), sender.getName(), title, lookupTimeoutMillis);
+        LookupJob previous = lookups.put(senderKey, job);
+        if (previous != null) {
+            previous.cancel();
+            MessageUtil.sendKey(sender, plugin, "lookup.jobs.replaced");
+        }
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            PageView view = null;
+            try {
+                if (acquire(job)) {
+                    try {
+                        job.start();
+                        view = fetchPage(sender, query, page, job);
+                    } finally {
+                        lookupPermits.release();
                     }
-                    return;
-                }
-                for (LogRepository.LogEntry entry : entries) {
-                    MessageUtil.sendRaw(sender, colorize(entry));
                 }
-            });
+            } finally {
+                lookups.remove(senderKey, job);
+            }
+            if (job.timedOut()) {
+                String seconds = Long.toString(lookupTimeoutMillis / 1000L);
+                sync(() -> MessageUtil.sendWarningKey(sender, plugin, "lookup.jobs.timed-out",
+                        Map.of("seconds", seconds)));
+            } else if (!job.cancelled() && view != null) {
+                PageView result = view;
+                sync(() -> showPage(sender, result, title, command));
+            }
         });
     }
 
-    public void exportLookup(CommandSender sender, LogRepository.LookupQuery query, String title) {
-        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
-            List<LogRepository.LogEntry> entries = repository.fetchRecent(query);
-            if (entries.isEmpty()) {
-                plugin.getServer().getScheduler().runTask(plugin, () ->
-                        MessageUtil.sendWarningKey(sender, plugin, "lookup.export.none"));
-                return;
+    public void showJobs(CommandSender sender) {
+        List<LookupJob> jobs = new ArrayList<>(lookups.values());
+        jobs.sort(Comparator.comparingLong(LookupJob::createdAt));
+        MessageUtil.sendTitleKey(sender, plugin, "lookup.jobs.title");
+        if (jobs.isEmpty()) {
+            MessageUtil.sendKey(sender, plugin, "lookup.jobs.none");
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (LookupJob job : jobs) {
+            MessageUtil.sendKey(sender, plugin, "lookup.jobs.line", Map.of(
+                    "id", Long.toString(job.id()),
+                    "player", job.owner(),
+                    "title", job.title(),
+                    "state", MessageUtil.tr(plugin, job.running() ? "lookup.jobs.running" : "lookup.jobs.queued"),
+                    "elapsed", String.format(Locale.ROOT, "%.1f", (now - job.createdAt()) / 1000.0)));
+        }
+    }
+
+    private boolean acquire(LookupJob job) {
+        try {
+            while (!job.cancelled()) {
+                if (lookupPermits.tryAcquire(250L, TimeUnit.MILLISECONDS)) {
+                    if (!job.cancelled()) {
+                        return true;
+                    }
+                    lookupPermits.release();
+                }
             }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    private void showPage(CommandSender sender, PageView view, String title, String command) {
+        MessageUtil.sendTitle(sender, plugin, title);
+        if (view.entries().isEmpty()) {
+            MessageUtil.sendWarningKey(sender, plugin, "lookup.none");
+            return;
+        }
+        if (sender instanceof Player player) {
+            for (LogRepository.LogEntry entry : view.entries()) {
+                sendInteractive(player, entry);
+            }
+            sendNavigation(player, view, command);
+            return;
+        }
+        for (LogRepository.LogEntry entry : view.entries()) {
+            MessageUtil.sendRaw(sender, colorize(entry));
+        }
+        if (command != null && view.next() != null) {
+            MessageUtil.sendKey(sender, plugin, "lookup.page.console-next",
+                    Map.of("command", pageCommand(command, view.page() + 1, view.next())));
+        }
+    }
 
-            String filename = "lookup-" + DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")
-                    .format(LocalDateTime.now()) + ".csv";
-            File exportDir = new File(plugin.getDataFolder(), "exports");
-            File file = new File(exportDir, filename);
+    public void exportLookup(CommandSender sender, LogRepository.LookupQuery query, String format, String title) {
+        ExportFormat exportFormat = ExportFormat.parse(format != null ? format
+                : configFiles.getMain().getString("logs.export.format", "csv"));
+        boolean gzip = (format != null && format.toLowerCase(Locale.ROOT).endsWith(".gz"))
+                || (format == null && configFiles.getMain().getBoolean("logs.export.gzip", false));
+        String filename = "lookup-" + DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").format(LocalDateTime.now())
+                + exportFormat.extension() + (gzip ? ".gz" : "");
+        File file = new File(new File(plugin.getDataFolder(), "exports"), filename);
+        String senderKey = senderKey(sender);
+        ExportJob job = new ExportJob(file);
+        if (exports.putIfAbsent(senderKey, job) != null) {
+            MessageUtil.sendWarningKey(sender, plugin, "lookup.export.running");
+            return;
+        }
+        MessageUtil.sendTitle(sender, plugin, title);
+        MessageUtil.sendKey(sender, plugin, "lookup.export.started", Map.of("file", filename));
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
             try {
-                Files.createDirectories(exportDir.toPath());
-                writeCsv(file, entries);
-                plugin.getServer().getScheduler().runTask(plugin, () -> {
-                    MessageUtil.sendTitle(sender, plugin, title);
-                    MessageUtil.sendSuccessKey(sender, plugin, "lookup.export.success",
-                            java.util.Map.of("path", file.getAbsolutePath()));
-                });
-            } catch (IOException ex) {
-                plugin.getServer().getScheduler().runTask(plugin, () ->
-                        MessageUtil.sendErrorKey(sender, plugin, "lookup.export.failed",
-                                java.util.Map.of("error", ex.getMessage())));
+                runExport(sender, job, query.after(null), exportFormat, gzip);
+            } finally {
+                exports.remove(senderKey, job);
             }
         });
     }
 
+    public void cancelExport(CommandSender sender) {
+        ExportJob job = exports.get(senderKey(sender));
+        if (job == null) {
+            MessageUtil.sendWarningKey(sender, plugin, "lookup.export.not-running");
+            return;
+        }
+        job.cancelled().set(true);
+        MessageUtil.sendKey(sender, plugin, "lookup.export.cancelling");
+    }
+
+    public void shutdown() {
+        for (ExportJob job : exports.values()) {
+            job.cancelled().set(true);
+        }
+        for (LookupJob job : lookups.values()) {
+            job.cancel();
+        }
+        lookups.clear();
+    }
+
+    private void runExport(CommandSender sender, ExportJob job, LogRepository.LookupQuery query,
+                           ExportFormat format, boolean gzip) {
+        long maxRows = configFiles.getMain().getLong("logs.export.max-rows", 0L);
+        long progressMillis = Math.max(1L, configFiles.getMain().getLong("logs.export.progress-interval-seconds", 5L))
+                * 1000L;
+        long[] nextProgress = {System.currentTimeMillis() + progressMillis};
+        long rows;
+        try {
+            Files.createDirectories(job.file().getParentFile().toPath());
+            try (Writer writer = openWriter(job.file(), gzip)) {
+                if (format == ExportFormat.CSV) {
+                    writer.write("timestamp,type,player,action,detail,world,x,y,z,item,amount\n");
+                }
+                rows = repository.exportRows(query, maxRows, entry -> {
+                    writer.write(format == ExportFormat.CSV ? csvLine(entry) : jsonLine(entry));
+                    job.rows().incrementAndGet();
+                    long now = System.currentTimeMillis();
+                    if (now >= nextProgress[0]) {
+                        nextProgress[0] = now + progressMillis;
+                        String written = Long.toString(job.rows().get());
+                        sync(() -> MessageUtil.sendKey(sender, plugin, "lookup.export.progress",
+                                Map.of("rows", written)));
+                    }
+                }, () -> job.cancelled().get());
+            }
+        } catch (SQLException | IOException ex) {
+            deleteQuietly(job.file());
+            sync(() -> MessageUtil.sendErrorKey(sender, plugin, "lookup.export.failed",
+                    Map.of("error", String.valueOf(ex.getMessage()))));
+            return;
+        }
+
+        String written = Long.toString(rows);
+        if (job.cancelled().get()) {
+            deleteQuietly(job.file());
+            sync(() -> MessageUtil.sendWarningKey(sender, plugin, "lookup.export.cancelled",
+                    Map.of("rows", written)));
+        } else if (rows == 0) {
+            deleteQuietly(job.file());
+            sync(() -> MessageUtil.sendWarningKey(sender, plugin, "lookup.export.none"));
+        } else {
+            String size = String.format(Locale.ROOT, "%.1f MB", job.file().length() / 1024.0 / 1024.0);
+            sync(() -> MessageUtil.sendSuccessKey(sender, plugin, "lookup.export.success", Map.of(
+                    "rows", written, "size", size, "path", job.file().getAbsolutePath())));
+        }
+    }
+
+    private Writer openWriter(File file, boolean gzip) throws IOException {
+        OutputStream output = new FileOutputStream(file);
+        if (gzip) {
+            output = new GZIPOutputStream(output, 64 * 1024);
+        }
+        return new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), 64 * 1024);
+    }
+
+    private void sync(Runnable task) {
+        if (plugin.isEnabled()) {
+            plugin.getServer().getScheduler().runTask(plugin, task);
+        }
+    }
+
+    private void deleteQuietly(File file) {
+        try {
+            Files.deleteIfExists(file.toPath());
+        } catch (IOException ignored) {
+        }
+    }
+
+    private String senderKey(CommandSender sender) {
+        return sender instanceof Player player ? player.getUniqueId().toString() : sender.getName();
+    }
+
+    private PageCursors pageCursors(CommandSender sender, LogRepository.LookupQuery query) {
+        String senderKey = senderKey(sender);
+        LogRepository.LookupQuery key = query.pageKey();
+        PageCursors known = pageCursors.get(senderKey);
+        if (known == null || !known.query().equals(key)) {
+            if (pageCursors.size() >= MAX_TRACKED_SENDERS) {
+                pageCursors.clear();
+            }
+            known = new PageCursors(key, new ConcurrentHashMap<>());
+            pageCursors.put(senderKey, known);
+        }
+        return known;
+    }
+
+    private PageView fetchPage(CommandSender sender, LogRepository.LookupQuery query, int page, LookupJob job) {
+        PageCursors known = pageCursors(sender, query);
+        int target = Math.max(1, page);
+        if (query.after() != null && target > 1) {
+            known.remember(target, query.after());
+        }
+        int current = target;
+        LogRepository.LookupCursor cursor = null;
+        while (current > 1 && (cursor = known.cursors().get(current)) == null) {
+            current--;
+        }
+        LogRepository.LookupPage result = repository.fetchPage(query.after(cursor), job);
+        while (current < target) {
+            if (result.next() == null || job.cancelled()) {
+                return new PageView(List.of(), target, null, null);
+            }
+            current++;
+            known.remember(current, result.next());
+            result = repository.fetchPage(query.after(result.next()), job);
+        }
+        if (result.next() != null) {
+            known.remember(target + 1, result.next());
+        }
+        return new PageView(result.entries(), target, known.cursors().get(target - 1), result.next());
+    }
+
+    private void sendNavigation(Player player, PageView view, String command) {
+        if (command == null || (view.page() <= 1 && view.next() == null)) {
+            return;
+        }
+        TextComponent line = new TextComponent(MessageUtil.color("&7"));
+        if (view.page() > 1) {
+            line.addExtra(navigationButton("lookup.page.previous",
+                    pageCommand(command, view.page() - 1, view.previous()), view.page() - 1));
+            line.addExtra(" ");
+        }
+        line.addExtra(new TextComponent(MessageUtil.color("&7" + MessageUtil.tr(plugin, "lookup.page.label",
+                Map.of("page", Integer.toString(view.page()))))));
+        if (view.next() != null) {
+            line.addExtra(" ");
+            line.addExtra(navigationButton("lookup.page.next",
+                    pageCommand(command, view.page() + 1, view.next()), view.page() + 1));
+        }
+        player.spigot().sendMessage(line);
+    }
+
+    private TextComponent navigationButton(String key, String command, int page) {
+        TextComponent button = new TextComponent(MessageUtil.color("&b[" + MessageUtil.tr(plugin, key) + "]"));
+        button.setClickEvent(new ClickEvent(ClickEvent.Action.RUN_COMMAND, command));
+        button.setHoverEvent(new HoverEvent(HoverEvent.Action.SHOW_TEXT,
+                new ComponentBuilder(MessageUtil.tr(plugin, "lookup.page.hover",
+                        Map.of("page", Integer.toString(page)))).create()));
+        return button;
+    }
+
+    private String pageCommand(String command, int page, LogRepository.LookupCursor cursor) {
+        String result = command + " page=" + page;
+        return page > 1 && cursor != null ? result + " cursor=" + cursor.token() : result;
+    }
+
     private String colorize(LogRepository.LogEntry entry) {
-        String raw = entry.message();
+        String raw = renderer.render(entry);
         int split = raw.indexOf("] ");
         String time = raw;
         String rest = "";
@@ -86,7 +361,7 @@ public class LookupService {
             time = raw.substring(0, split + 1);
             rest = raw.substring(split + 2);
         }
-        String type = entry.type();
+        String type = renderer.typeLabel(entry.type());
         String withoutType = rest;
         if (rest.startsWith(type + " ")) {
             withoutType = rest.substring(type.length() + 1);
@@ -124,20 +399,63 @@ public class LookupService {
         player.spigot().sendMessage(message);
     }
 
-    private void writeCsv(File file, List<LogRepository.LogEntry> entries) throws IOException {
-        StringBuilder builder = new StringBuilder();
-        builder.append("timestamp,type,message,world,x,y,z").append(System.lineSeparator());
-        for (LogRepository.LogEntry entry : entries) {
-            builder.append(csv(entry.timestamp()))
-                    .append(',').append(csv(entry.type()))
-                    .append(',').append(csv(entry.message()))
-                    .append(',').append(csv(entry.world()))
-                    .append(',').append(csv(entry.x()))
-                    .append(',').append(csv(entry.y()))
-                    .append(',').append(csv(entry.z()))
-                    .append(System.lineSeparator());
+    private String csvLine(LogRepository.LogEntry entry) {
+        return csv(entry.timestamp())
+                + ',' + csv(entry.type().name())
+                + ',' + csv(entry.player())
+                + ',' + csv(entry.action())
+                + ',' + csv(entry.detail())
+                + ',' + csv(entry.world())
+                + ',' + csv(entry.x())
+                + ',' + csv(entry.y())
+                + ',' + csv(entry.z())
+                + ',' + csv(entry.item())
+                + ',' + csv(entry.amount())
+                + '\n';
+    }
+
+    private String jsonLine(LogRepository.LogEntry entry) {
+        StringBuilder line = new StringBuilder(160);
+        line.append("{\"timestamp\":").append(entry.timestamp());
+        json(line, "type", entry.type().name());
+        json(line, "player", entry.player());
+        json(line, "action", entry.action());
+        json(line, "detail", entry.detail());
+        json(line, "world", entry.world());
+        if (entry.x() != null) {
+            line.append(",\"x\":").append(entry.x()).append(",\"y\":").append(entry.y())
+                    .append(",\"z\":").append(entry.z());
         }
-        Files.writeString(file.toPath(), builder.toString(), StandardCharsets.UTF_8);
+        json(line, "item", entry.item());
+        if (entry.amount() != null) {
+            line.append(",\"amount\":").append(entry.amount());
+        }
+        return line.append("}\n").toString();
+    }
+
+    private void json(StringBuilder line, String key, String value) {
+        if (value == null) {
+            return;
+        }
+        line.append(",\"").append(key).append("\":\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> line.append("\\\"");
+                case '\\' -> line.append("\\\\");
+                case '\n' -> line.append("\\n");
+                case '\r' -> line.append("\\r");
+                case '\t' -> line.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        line.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+                }
+            }
+        }
+        line.append('"');
     }
 
     private String csv(Object value) {
@@ -145,4 +463,42 @@ public class LookupService {
         text = text.replace("\"", "\"\"");
         return "\"" + text + "\"";
     }
+
+    private enum ExportFormat {
+        CSV(".csv"),
+        NDJSON(".ndjson");
+
+        private final String extension;
+
+        ExportFormat(String extension) {
+            this.extension = extension;
+        }
+
+        private String extension() {
+            return extension;
+        }
+
+        private static ExportFormat parse(String value) {
+            String normalized = value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+            return normalized.startsWith("ndjson") || normalized.startsWith("json") ? NDJSON : CSV;
+        }
+    }
+
+    private record ExportJob(File file, AtomicLong rows, AtomicBoolean cancelled) {
+        private ExportJob(File file) {
+            this(file, new AtomicLong(), new AtomicBoolean());
+        }
+    }
+
+    private record PageView(List<LogRepository.LogEntry> entries, int page, LogRepository.LookupCursor previous,
+                            LogRepository.LookupCursor next) {
+    }
+
+    private record PageCursors(LogRepository.LookupQuery query, Map<Integer, LogRepository.LookupCursor> cursors) {
+        private void remember(int page, LogRepository.LookupCursor cursor) {
+            if (cursors.size() < MAX_TRACKED_PAGES || cursors.containsKey(page)) {
+                cursors.put(page, cursor);
+            }
+        }
+    }
 }
@@ -117,10 +117,13 @@ public class LookupWandListener implements Listener {
                 null,
                 null,
                 limit,
-                0
+                null
         );
         String title = "Block logs: " + format(location);
-        lookupService.sendLookup(sender, query, title);
+        lookupService.sendLookup(sender, query, 1, title, location.getWorld() != null
+                ? "/pulse lookup * world=" + location.getWorld().getName() + " x=" + location.getBlockX()
+                        + " y=" + location.getBlockY() + " z=" + location.getBlockZ()
+                : null);
     }
 
     private String format(Location location) {
@@ -0,0 +1,260 @@
+package com.azk.pulse.modules.logs;
+
+import com.azk.pulse.core.LongIntMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Per-world ring of recent located events, held as the dictionary ids the writer already uses so recording an
+ * event allocates nothing. Names are resolved only for entries a lookup returns.
+ */
+public class RecentLogBuffer {
+    private static final int MAX_COLUMNS = 1024;
+    private static final LogRepository.LogType[] TYPES = LogRepository.LogType.values();
+    private static final Comparator<LogRepository.LogEntry> NEWEST_FIRST = Comparator
+            .comparingLong(LogRepository.LogEntry::timestamp).reversed()
+            .thenComparingInt(entry -> entry.type().ordinal());
+
+    private final LogDictionary dictionary;
+    private final int capacity;
+    private final long windowMillis;
+    private final long startedAt = System.currentTimeMillis();
+    private volatile WorldRing[] worlds = new WorldRing[0];
+
+    public RecentLogBuffer(LogDictionary dictionary, int capacity, long windowMillis) {
+        this.dictionary = dictionary;
+        this.capacity = Math.max(16, capacity);
+        this.windowMillis = Math.max(1000L, windowMillis);
+    }
+
+    public void record(LogRepository.LogType type, long time, int player, int world, int action, int material,
+                       int detail, int amount, int x, int y, int z) {
+        ring(world).add(type, time, player, action, material, detail, amount, x, y, z, null);
+    }
+
+    public void record(LogRepository.LogEntry entry) {
+        if (entry.world() == null || entry.x() == null || entry.y() == null || entry.z() == null) {
+            return;
+        }
+        ring(dictionary.worldId(entry.world())).add(entry.type(), entry.timestamp(), 0, 0, 0, 0, 0, entry.x(),
+                entry.y(), entry.z(), entry);
+    }
+
+    private WorldRing ring(int world) {
+        WorldRing[] rings = worlds;
+        if (world < rings.length && rings[world] != null) {
+            return rings[world];
+        }
+        synchronized (this) {
+            rings = worlds;
+            if (world >= rings.length) {
+                rings = Arrays.copyOf(rings, Math.max(world + 1, rings.length * 2));
+            }
+            if (rings[world] == null) {
+                rings[world] = new WorldRing(capacity);
+                worlds = rings;
+            }
+            return rings[world];
+        }
+    }
+
+    public Hit lookup(LogRepository.LookupQuery query, int limit) {
+        if (query.after() != null || query.world() == null || query.type() != null && !query.type().located()) {
+            return null;
+        }
+        int minX;
+        int maxX;
+        int minZ;
+        int maxZ;
+        Integer minY = null;
+        Integer maxY = null;
+        if (query.minX() != null && query.maxX() != null && query.minZ() != null && query.maxZ() != null) {
+            minX = Math.min(query.minX(), query.maxX());
+            maxX = Math.max(query.minX(), query.maxX());
+            minZ = Math.min(query.minZ(), query.maxZ());
+            maxZ = Math.max(query.minZ(), query.maxZ());
+            if (query.minY() != null && query.maxY() != null) {
+                minY = Math.min(query.minY(), query.maxY());
+                maxY = Math.max(query.minY(), query.maxY());
+            }
+        } else if (query.x() != null && query.z() != null) {
+            int radius = query.radius() != null && query.radius() > 0 ? query.radius() : 0;
+            minX = query.x() - radius;
+            maxX = query.x() + radius;
+            minZ = query.z() - radius;
+            maxZ = query.z() + radius;
+            minY = query.y();
+            maxY = query.y();
+        } else {
+            return null;
+        }
+        if ((long) (maxX - minX + 1) * (maxZ - minZ + 1) > MAX_COLUMNS) {
+            return null;
+        }
+
+        long now = System.currentTimeMillis();
+        int worldId = dictionary.findWorld(query.world());
+        WorldRing[] rings = worlds;
+        WorldRing ring = worldId > 0 && worldId < rings.length ? rings[worldId] : null;
+        long coveredFrom = Math.max(startedAt, now - windowMillis);
+        List<LogRepository.LogEntry> entries = new ArrayList<>();
+        if (ring != null) {
+            coveredFrom = ring.collect(this, dictionary.worldName(worldId), query, minX, maxX, minY, maxY, minZ,
+                    maxZ, coveredFrom, entries);
+        }
+        entries.sort(NEWEST_FIRST);
+        boolean complete = entries.size() >= limit
+                || (query.since() != null && query.since().toEpochMilli() >= coveredFrom);
+        if (entries.size() > limit) {
+            // Never split a (time, type) group: the follow-up SQL page resumes strictly after the last one.
+            LogRepository.LogEntry boundary = entries.get(limit - 1);
+            int cut = limit;
+            while (cut < entries.size() && entries.get(cut).timestamp() == boundary.timestamp()
+                    && entries.get(cut).type() == boundary.type()) {
+                cut++;
+            }
+            entries = new ArrayList<>(entries.subList(0, cut));
+        }
+        return new Hit(entries, coveredFrom, complete);
+    }
+
+    public int size() {
+        int total = 0;
+        for (WorldRing ring : worlds) {
+            if (ring != null) {
+                total += ring.size();
+            }
+        }
+        return total;
+    }
+
+    private LogRepository.LogEntry resolve(WorldRing ring, int slot, String world) {
+        if (ring.texts[slot] != null) {
+            return ring.texts[slot];
+        }
+        LogRepository.LogType type = TYPES[ring.types[slot]];
+        int detail = ring.details[slot];
+        int amount = ring.amounts[slot];
+        String item = type.shape() == LogRepository.Shape.CONTAINER && detail > 0
+                ? dictionary.materialName(detail) : null;
+        return new LogRepository.LogEntry(ring.times[slot], type, dictionary.playerName(ring.players[slot]),
+                dictionary.actionName(ring.actions[slot]), dictionary.materialName(ring.materials[slot]), world,
+                ring.xs[slot], ring.ys[slot], ring.zs[slot], item, amount > 0 ? amount : null);
+    }
+
+    private static long columnKey(int x, int z) {
+        return ((long) x << 32) | (z & 0xFFFFFFFFL);
+    }
+
+    private static boolean matches(LogRepository.LogEntry entry, LogRepository.LookupQuery query) {
+        if (query.player() != null && !query.player().equalsIgnoreCase(entry.player())) {
+            return false;
+        }
+        if (query.action() != null && !query.action().isBlank() && !query.action().equalsIgnoreCase(entry.action())) {
+            return false;
+        }
+        return query.material() == null || query.material().isBlank()
+                || query.material().equalsIgnoreCase(entry.detail()) || query.material().equalsIgnoreCase(entry.item());
+    }
+
+    public record Hit(List<LogRepository.LogEntry> entries, long coveredFrom, boolean complete) {
+    }
+
+    private static final class WorldRing {
+        private final long[] times;
+        private final byte[] types;
+        private final int[] players;
+        private final int[] actions;
+        private final int[] materials;
+        private final int[] details;
+        private final int[] amounts;
+        private final int[] xs;
+        private final int[] ys;
+        private final int[] zs;
+        private final LogRepository.LogEntry[] texts;
+        private final long[] sequences;
+        private final long[] previous;
+        private final LongIntMap heads;
+        private long nextSequence;
+        private long evictedUntil = Long.MIN_VALUE;
+
+        private WorldRing(int capacity) {
+            times = new long[capacity];
+            types = new byte[capacity];
+            players = new int[capacity];
+            actions = new int[capacity];
+            materials = new int[capacity];
+            details = new int[capacity];
+            amounts = new int[capacity];
+            xs = new int[capacity];
+            ys = new int[capacity];
+            zs = new int[capacity];
+            texts = new LogRepository.LogEntry[capacity];
+            sequences = new long[capacity];
+            previous = new long[capacity];
+            heads = new LongIntMap(capacity);
+        }
+
+        private synchronized void add(LogRepository.LogType type, long time, int player, int action, int material,
+                                      int detail, int amount, int x, int y, int z, LogRepository.LogEntry text) {
+            int slot = (int) (nextSequence % times.length);
+            if (nextSequence >= times.length) {
+                long evictedKey = columnKey(xs[slot], zs[slot]);
+                if (heads.get(evictedKey, -1) == slot) {
+                    heads.remove(evictedKey);
+                }
+                evictedUntil = Math.max(evictedUntil, times[slot]);
+            }
+            long key = columnKey(x, z);
+            int head = heads.get(key, -1);
+            previous[slot] = head >= 0 ? sequences[head] : -1L;
+            times[slot] = time;
+            types[slot] = (byte) type.ordinal();
+            players[slot] = player;
+            actions[slot] = action;
+            materials[slot] = material;
+            details[slot] = detail;
+            amounts[slot] = amount;
+            xs[slot] = x;
+            ys[slot] = y;
+            zs[slot] = z;
+            texts[slot] = text;
+            sequences[slot] = nextSequence++;
+            heads.put(key, slot);
+        }
+
+        private synchronized long collect(RecentLogBuffer buffer, String world, LogRepository.LookupQuery query,
+                                          int minX, int maxX, Integer minY, Integer maxY, int minZ, int maxZ,
+                                          long coveredFrom, List<LogRepository.LogEntry> out) {
+            long from = evictedUntil == Long.MIN_VALUE ? coveredFrom : Math.max(coveredFrom, evictedUntil + 1);
+            long since = query.since() != null ? Math.max(from, query.since().toEpochMilli()) : from;
+            long oldestSequence = nextSequence - times.length;
+            for (int x = minX; x <= maxX; x++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    int slot = heads.get(columnKey(x, z), -1);
+                    while (slot >= 0) {
+                        if (times[slot] < since) {
+                            break;
+                        }
+                        if ((minY == null || ys[slot] >= minY && ys[slot] <= maxY)
+                                && (query.type() == null || types[slot] == query.type().ordinal())) {
+                            LogRepository.LogEntry entry = buffer.resolve(this, slot, world);
+                            if (matches(entry, query)) {
+                                out.add(entry);
+                            }
+                        }
+                        long prior = previous[slot];
+                        slot = prior >= 0 && prior >= oldestSequence ? (int) (prior % times.length) : -1;
+                    }
+                }
+            }
+            return from;
+        }
+
+        private synchronized int size() {
+            return (int) Math.min(nextSequence, times.length);
+        }
+    }
+}
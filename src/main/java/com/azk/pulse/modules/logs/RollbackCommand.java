@@ -0,0 +1,179 @@
+package com.azk.pulse.modules.logs;
+
+import com.azk.pulse.commands.PulseSubcommand;
+import com.azk.pulse.core.ConfigFiles;
+import com.azk.pulse.core.MessageUtil;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+
+public class RollbackCommand implements PulseSubcommand {
+    private final JavaPlugin plugin;
+    private final ConfigFiles configFiles;
+    private final LookupSelectionManager selectionManager;
+    private final RollbackService rollbackService;
+    private final RollbackService.Mode mode;
+
+    public RollbackCommand(JavaPlugin plugin, ConfigFiles configFiles, LookupSelectionManager selectionManager,
+                           RollbackService rollbackService, RollbackService.Mode mode) {
+        this.plugin = plugin;
+        this.configFiles = configFiles;
+        this.selectionManager = selectionManager;
+        this.rollbackService = rollbackService;
+        this.mode = mode;
+    }
+
+    @Override
+    public String name() {
+        return mode.command();
+    }
+
+    @Override
+    public String module() {
+        return "logs";
+    }
+
+    @Override
+    public String permission() {
+        return "pulse.admin";
+    }
+
+    @Override
+    public boolean execute(CommandSender sender, String[] args) {
+        if (!configFiles.getMain().getBoolean("logs.enabled", true)) {
+            MessageUtil.sendWarningKey(sender, plugin, "lookup.disabled");
+            return true;
+        }
+        if (args.length == 0) {
+            sendUsage(sender);
+            return true;
+        }
+        switch (args[0].toLowerCase(Locale.ROOT)) {
+            case "confirm" -> rollbackService.confirm(sender, mode);
+            case "cancel" -> rollbackService.cancel(sender);
+            case "area" -> previewArea(sender, args);
+            default -> previewPlayer(sender, args);
+        }
+        return true;
+    }
+
+    @Override
+    public List<String> tabComplete(CommandSender sender, String[] args) {
+        String current = args.length == 0 ? "" : args[args.length - 1];
+        List<String> options = new ArrayList<>();
+        if (args.length == 1) {
+            options.add("confirm");
+            options.add("cancel");
+            options.add("area");
+            options.add("*");
+            plugin.getServer().getOnlinePlayers().forEach(player -> options.add(player.getName()));
+        } else if (args.length == 2 && args[0].equalsIgnoreCase("area")) {
+            options.add("*");
+            plugin.getServer().getOnlinePlayers().forEach(player -> options.add(player.getName()));
+        } else if (!args[0].equalsIgnoreCase("confirm") && !args[0].equalsIgnoreCase("cancel")) {
+            options.addAll(List.of("since=1h", "action=break", "action=place", "material="));
+            if (!args[0].equalsIgnoreCase("area")) {
+                options.addAll(List.of("radius=", "world=", "x=", "y=", "z="));
+            }
+        }
+        List<String> results = new ArrayList<>();
+        for (String option : options) {
+            if (option.toLowerCase(Locale.ROOT).startsWith(current.toLowerCase(Locale.ROOT))) {
+                results.add(option);
+            }
+        }
+        return results;
+    }
+
+    private void previewPlayer(CommandSender sender, String[] args) {
+        String target = parsePlayer(args[0]);
+        LookupCommand.ParsedArgs parsed = LookupCommand.parseArgs(args, 1);
+        if (!validate(sender, parsed)) {
+            return;
+        }
+        String world = parsed.world;
+        Integer x = parsed.x;
+        Integer y = parsed.y;
+        Integer z = parsed.z;
+        if (sender instanceof Player player && parsed.radius != null) {
+            if (world == null) {
+                world = player.getWorld().getName();
+            }
+            if (x == null || z == null) {
+                x = player.getLocation().getBlockX();
+                y = null;
+                z = player.getLocation().getBlockZ();
+            }
+        } else if (parsed.radius != null && (x == null || z == null)) {
+            MessageUtil.sendErrorKey(sender, plugin, "lookup.radius-requires-coords");
+            return;
+        }
+        LogRepository.LookupQuery query = new LogRepository.LookupQuery(target, parsed.type,
+                world, x, y, z, parsed.radius, null, null, null, null, null, null, parsed.action, parsed.material,
+                parsed.since, 0, null);
+        rollbackService.preview(sender, query, mode, title(target));
+    }
+
+    private void previewArea(CommandSender sender, String[] args) {
+        if (!(sender instanceof Player player)) {
+            MessageUtil.sendErrorKey(sender, plugin, "general.only-players");
+            return;
+        }
+        LookupSelectionManager.SelectionRegion region = selectionManager.getRegion(player);
+        if (region == null) {
+            MessageUtil.sendWarningKey(sender, plugin, "lookup.selection-incomplete");
+            return;
+        }
+        int startIndex = 1;
+        String target = null;
+        if (args.length >= 2 && !args[1].contains("=")) {
+            target = parsePlayer(args[1]);
+            startIndex = 2;
+        }
+        LookupCommand.ParsedArgs parsed = LookupCommand.parseArgs(args, startIndex);
+        if (!validate(sender, parsed)) {
+            return;
+        }
+        LogRepository.LookupQuery query = new LogRepository.LookupQuery(target, parsed.type,
+                region.world(), null, null, null, null, region.minX(), region.maxX(), region.minY(), region.maxY(),
+                region.minZ(), region.maxZ(), parsed.action, parsed.material, parsed.since, 0, null);
+        rollbackService.preview(sender, query, mode, title(target));
+    }
+
+    private boolean validate(CommandSender sender, LookupCommand.ParsedArgs parsed) {
+        if (parsed.durationInvalid) {
+            MessageUtil.sendErrorKey(sender, plugin, "lookup.invalid-since");
+            return false;
+        }
+        if (parsed.since == null) {
+            MessageUtil.sendWarningKey(sender, plugin, "rollback.since-required");
+            return false;
+        }
+        if (parsed.typeInvalid || parsed.type != null && !parsed.type.reversible()) {
+            MessageUtil.sendErrorKey(sender, plugin, "rollback.invalid-type");
+            return false;
+        }
+        return true;
+    }
+
+    private String title(String target) {
+        return MessageUtil.tr(plugin, "rollback.title." + mode.command()) + ": "
+                + (target == null ? MessageUtil.tr(plugin, "lookup.all") : target);
+    }
+
+    private String parsePlayer(String arg) {
+        return arg.equals("*") || arg.equalsIgnoreCase("all") ? null : arg;
+    }
+
+    private void sendUsage(CommandSender sender) {
+        MessageUtil.sendTitleKey(sender, plugin, "rollback.title." + mode.command());
+        Map<String, String> placeholders = Map.of("command", mode.command());
+        MessageUtil.sendKey(sender, plugin, "rollback.usage.main", placeholders);
+        MessageUtil.sendKey(sender, plugin, "rollback.usage.area", placeholders);
+        MessageUtil.sendKey(sender, plugin, "rollback.usage.confirm", placeholders);
+    }
+}
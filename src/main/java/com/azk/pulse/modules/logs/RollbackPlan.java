@@ -0,0 +1,162 @@
+package com.azk.pulse.modules.logs;
+
+import com.azk.pulse.core.LongIntMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+public class RollbackPlan {
+    private static final String AIR = "minecraft:air";
+
+    private final boolean restore;
+    private final Map<String, WorldChanges> worlds = new LinkedHashMap<>();
+    private final List<String> states = new ArrayList<>();
+    private final Map<String, Integer> stateIds = new HashMap<>();
+    private final List<Batch> batches = new ArrayList<>();
+    private long rows;
+    private int blocks;
+
+    public RollbackPlan(boolean restore) {
+        this.restore = restore;
+    }
+
+    public void add(LogRepository.BlockChange change) {
+        rows++;
+        WorldChanges world = worlds.computeIfAbsent(change.world(), WorldChanges::new);
+        long position = BlockKey.of(change.x(), change.y(), change.z());
+        int slot = world.slots.get(position, -1);
+        if (slot >= 0 && restore) {
+            return;
+        }
+        boolean placement = switch (change.action()) {
+            case "PLACE", "IGNITE", "FLOW" -> true;
+            default -> false;
+        };
+        String target = placement == restore ? stateOf(change) : AIR;
+        if (slot < 0) {
+            world.add(position, stateId(target));
+            blocks++;
+        } else {
+            world.targets[slot] = stateId(target);
+        }
+    }
+
+    public void seal() {
+        batches.clear();
+        for (WorldChanges world : worlds.values()) {
+            world.split(batches);
+        }
+    }
+
+    public boolean restore() {
+        return restore;
+    }
+
+    public long rows() {
+        return rows;
+    }
+
+    public int blocks() {
+        return blocks;
+    }
+
+    public int worlds() {
+        return worlds.size();
+    }
+
+    public List<Batch> batches() {
+        return batches;
+    }
+
+    public List<String> states() {
+        return states;
+    }
+
+    private int stateId(String state) {
+        Integer id = stateIds.get(state);
+        if (id == null) {
+            id = states.size();
+            states.add(state);
+            stateIds.put(state, id);
+        }
+        return id;
+    }
+
+    private String stateOf(LogRepository.BlockChange change) {
+        if (change.state() != null && !change.state().isBlank()) {
+            return change.state();
+        }
+        return "minecraft:" + change.material().toLowerCase(Locale.ROOT);
+    }
+
+    public record Batch(String world, int chunkX, int chunkZ, long[] positions, int[] targets) {
+        public int size() {
+            return positions.length;
+        }
+    }
+
+    private static final class WorldChanges {
+        private final String name;
+        private final LongIntMap slots = new LongIntMap(1024);
+        private long[] positions = new long[1024];
+        private int[] targets = new int[1024];
+        private int size;
+
+        private WorldChanges(String name) {
+            this.name = name;
+        }
+
+        private void add(long position, int target) {
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size << 1);
+                targets = Arrays.copyOf(targets, size << 1);
+            }
+            slots.put(position, size);
+            positions[size] = position;
+            targets[size++] = target;
+        }
+
+        private void split(List<Batch> out) {
+            long[] chunks = new long[size];
+            for (int i = 0; i < size; i++) {
+                chunks[i] = ChunkKey.ofChunk(BlockKey.x(positions[i]) >> 4, BlockKey.z(positions[i]) >> 4);
+            }
+            long[] unique = Arrays.stream(chunks).distinct().sorted().toArray();
+            LongIntMap ordinals = new LongIntMap(unique.length);
+            for (int i = 0; i < unique.length; i++) {
+                ordinals.put(unique[i], i);
+            }
+            long[] order = new long[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = ((long) ordinals.get(chunks[i], 0) << 32) | i;
+            }
+            Arrays.sort(order);
+            int start = 0;
+            while (start < size) {
+                int chunk = (int) (order[start] >>> 32);
+                int end = start;
+                while (end < size && (int) (order[end] >>> 32) == chunk) {
+                    end++;
+                }
+                long[] batchPositions = new long[end - start];
+                int[] batchTargets = new int[end - start];
+                for (int i = start; i < end; i++) {
+                    int slot = (int) order[i];
+                    batchPositions[i - start] = positions[slot];
+                    batchTargets[i - start] = targets[slot];
+                }
+                long first = batchPositions[0];
+                out.add(new Batch(name, BlockKey.x(first) >> 4, BlockKey.z(first) >> 4, batchPositions, batchTargets));
+                start = end;
+            }
+            slots.clear();
+            positions = new long[0];
+            targets = new int[0];
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package com.azk.pulse.modules.logs;
+
+import com.azk.pulse.core.ConfigFiles;
+import com.azk.pulse.core.MessageUtil;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+public class RollbackService {
+    private final JavaPlugin plugin;
+    private final ConfigFiles configFiles;
+    private final LogRepository repository;
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean planning = new AtomicBoolean();
+    private Job active;
+
+    public RollbackService(JavaPlugin plugin, ConfigFiles configFiles, LogRepository repository) {
+        this.plugin = plugin;
+        this.configFiles = configFiles;
+        this.repository = repository;
+    }
+
+    public void preview(CommandSender sender, LogRepository.LookupQuery query, Mode mode, String title) {
+        if (!planning.compareAndSet(false, true)) {
+            MessageUtil.sendWarningKey(sender, plugin, "rollback.running");
+            return;
+        }
+        int maxBlocks = Math.max(1, configFiles.getMain().getInt("logs.rollback.max-blocks", 1000000));
+        MessageUtil.sendTitle(sender, plugin, title);
+        MessageUtil.sendKey(sender, plugin, "rollback.planning");
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            RollbackPlan plan = new RollbackPlan(mode == Mode.RESTORE);
+            try {
+                repository.blockChanges(query, plan::add, () -> plan.blocks() > maxBlocks);
+                plan.seal();
+            } catch (SQLException | IOException ex) {
+                sync(() -> MessageUtil.sendErrorKey(sender, plugin, "rollback.failed",
+                        Map.of("error", String.valueOf(ex.getMessage()))));
+                return;
+            } finally {
+                planning.set(false);
+            }
+            sync(() -> showPreview(sender, plan, mode, maxBlocks));
+        });
+    }
+
+    public void confirm(CommandSender sender, Mode mode) {
+        long timeout = Math.max(5L, configFiles.getMain().getLong("logs.rollback.confirm-timeout-seconds", 60L));
+        Pending preview = pending.remove(senderKey(sender));
+        if (preview == null || preview.mode() != mode
+                || System.currentTimeMillis() - preview.createdAt() > timeout * 1000L) {
+            MessageUtil.sendWarningKey(sender, plugin, "rollback.preview-expired",
+                    Map.of("command", mode.command()));
+            return;
+        }
+        if (active != null) {
+            MessageUtil.sendWarningKey(sender, plugin, "rollback.running");
+            return;
+        }
+        active = new Job(sender, preview.plan());
+        active.start();
+    }
+
+    public void cancel(CommandSender sender) {
+        pending.remove(senderKey(sender));
+        if (active == null) {
+            MessageUtil.sendWarningKey(sender, plugin, "rollback.not-running");
+            return;
+        }
+        active.cancelled = true;
+        MessageUtil.sendKey(sender, plugin, "rollback.cancelling");
+    }
+
+    public void shutdown() {
+        pending.clear();
+        if (active != null) {
+            active.stop();
+            active = null;
+        }
+    }
+
+    private void showPreview(CommandSender sender, RollbackPlan plan, Mode mode, int maxBlocks) {
+        if (plan.blocks() > maxBlocks) {
+            MessageUtil.sendWarningKey(sender, plugin, "rollback.too-large",
+                    Map.of("max", Integer.toString(maxBlocks)));
+            return;
+        }
+        if (plan.blocks() == 0) {
+            MessageUtil.sendWarningKey(sender, plugin, "rollback.none");
+            return;
+        }
+        pending.put(senderKey(sender), new Pending(plan, mode, System.currentTimeMillis()));
+        MessageUtil.sendSectionKey(sender, plugin, "rollback.preview.section");
+        MessageUtil.sendKeyValueKey(sender, plugin, "rollback.preview.rows", Long.toString(plan.rows()));
+        MessageUtil.sendKeyValueKey(sender, plugin, "rollback.preview.blocks", Integer.toString(plan.blocks()));
+        MessageUtil.sendKeyValueKey(sender, plugin, "rollback.preview.chunks", Integer.toString(plan.batches().size()));
+        MessageUtil.sendKeyValueKey(sender, plugin, "rollback.preview.worlds", Integer.toString(plan.worlds()));
+        long timeout = Math.max(5L, configFiles.getMain().getLong("logs.rollback.confirm-timeout-seconds", 60L));
+        MessageUtil.sendKey(sender, plugin, "rollback.confirm-hint",
+                Map.of("command", mode.command(), "seconds", Long.toString(timeout)));
+    }
+
+    private void sync(Runnable task) {
+        if (plugin.isEnabled()) {
+            plugin.getServer().getScheduler().runTask(plugin, task);
+        }
+    }
+
+    private String senderKey(CommandSender sender) {
+        return sender instanceof Player player ? player.getUniqueId().toString() : sender.getName();
+    }
+
+    public enum Mode {
+        ROLLBACK,
+        RESTORE;
+
+        public String command() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private record Pending(RollbackPlan plan, Mode mode, long createdAt) {
+    }
+
+    private final class Job implements Runnable {
+        private final CommandSender sender;
+        private final RollbackPlan plan;
+        private final BlockData[] states;
+        private final boolean[] invalid;
+        private final Map<Integer, CompletableFuture<Chunk>> loading = new HashMap<>();
+        private final long budgetNanos;
+        private final int preload;
+        private final long progressMillis;
+        private final long startedAt = System.currentTimeMillis();
+        private BukkitTask task;
+        private long nextProgress;
+        private int batchIndex;
+        private int offset;
+        private int applied;
+        private int skipped;
+        private volatile boolean cancelled;
+
+        private Job(CommandSender sender, RollbackPlan plan) {
+            this.sender = sender;
+            this.plan = plan;
+            this.states = new BlockData[plan.states().size()];
+            this.invalid = new boolean[plan.states().size()];
+            this.budgetNanos = Math.max(1L, configFiles.getMain().getLong("logs.rollback.max-ms-per-tick", 5L))
+                    * 1_000_000L;
+            this.preload = Math.max(1, configFiles.getMain().getInt("logs.rollback.preload-chunks", 8));
+            this.progressMillis = Math.max(1L,
+                    configFiles.getMain().getLong("logs.rollback.progress-interval-seconds", 5L)) * 1000L;
+            this.nextProgress = startedAt + progressMillis;
+        }
+
+        private void start() {
+            MessageUtil.sendKey(sender, plugin, "rollback.started", Map.of(
+                    "blocks", Integer.toString(plan.blocks()), "chunks", Integer.toString(plan.batches().size())));
+            task = plugin.getServer().getScheduler().runTaskTimer(plugin, this, 1L, 1L);
+        }
+
+        @Override
+        public void run() {
+            long deadline = System.nanoTime() + budgetNanos;
+            while (batchIndex < plan.batches().size()) {
+                if (cancelled) {
+                    finish("rollback.cancelled");
+                    return;
+                }
+                requestAhead();
+                RollbackPlan.Batch batch = plan.batches().get(batchIndex);
+                CompletableFuture<Chunk> future = loading.get(batchIndex);
+                if (!future.isDone()) {
+                    break;
+                }
+                Chunk chunk = future.isCompletedExceptionally() ? null : future.getNow(null);
+                if (chunk == null) {
+                    skipped += batch.size() - offset;
+                    offset = batch.size();
+                }
+                while (offset < batch.size()) {
+                    if (System.nanoTime() >= deadline) {
+                        reportProgress();
+                        return;
+                    }
+                    apply(chunk, batch, offset++);
+                }
+                release(loading.remove(batchIndex));
+                batchIndex++;
+                offset = 0;
+            }
+            if (batchIndex >= plan.batches().size()) {
+                finish("rollback.finished");
+                return;
+            }
+            reportProgress();
+        }
+
+        private void apply(Chunk chunk, RollbackPlan.Batch batch, int index) {
+            BlockData data = state(batch.targets()[index]);
+            if (data == null) {
+                skipped++;
+                return;
+            }
+            long position = batch.positions()[index];
+            chunk.getBlock(BlockKey.x(position) & 15, BlockKey.y(position),
+                    BlockKey.z(position) & 15).setBlockData(data, false);
+            applied++;
+        }
+
+        private BlockData state(int id) {
+            if (states[id] == null && !invalid[id]) {
+                try {
+                    states[id] = Bukkit.createBlockData(plan.states().get(id));
+                } catch (IllegalArgumentException ex) {
+                    invalid[id] = true;
+                }
+            }
+            return states[id];
+        }
+
+        private void requestAhead() {
+            int end = Math.min(plan.batches().size(), batchIndex + preload);
+            for (int index = batchIndex; index < end; index++) {
+                if (loading.containsKey(index)) {
+                    continue;
+                }
+                RollbackPlan.Batch batch = plan.batches().get(index);
+                World world = plugin.getServer().getWorld(batch.world());
+                loading.put(index, world == null
+                        ? CompletableFuture.completedFuture(null)
+                        : world.getChunkAtAsync(batch.chunkX(), batch.chunkZ()).thenApply(chunk -> {
+                            chunk.addPluginChunkTicket(plugin);
+                            return chunk;
+                        }));
+            }
+        }
+
+        private void release(CompletableFuture<Chunk> future) {
+            Chunk chunk = future != null && !future.isCompletedExceptionally() ? future.getNow(null) : null;
+            if (chunk != null) {
+                chunk.removePluginChunkTicket(plugin);
+            }
+        }
+
+        private void reportProgress() {
+            long now = System.currentTimeMillis();
+            if (now < nextProgress) {
+                return;
+            }
+            nextProgress = now + progressMillis;
+            MessageUtil.sendKey(sender, plugin, "rollback.progress", Map.of(
+                    "done", Integer.toString(applied + skipped), "total", Integer.toString(plan.blocks())));
+        }
+
+        private void finish(String key) {
+            stop();
+            active = null;
+            String seconds = String.format(Locale.ROOT, "%.1f", (System.currentTimeMillis() - startedAt) / 1000.0);
+            MessageUtil.sendSuccessKey(sender, plugin, key, Map.of("blocks", Integer.toString(applied),
+                    "skipped", Integer.toString(skipped), "seconds", seconds));
+        }
+
+        private void stop() {
+            if (task != null) {
+                task.cancel();
+                task = null;
+            }
+            for (CompletableFuture<Chunk> future : loading.values()) {
+                future.thenAccept(chunk -> {
+                    if (chunk != null) {
+                        chunk.removePluginChunkTicket(plugin);
+                    }
+                });
+            }
+            loading.clear();
+        }
+    }
+}
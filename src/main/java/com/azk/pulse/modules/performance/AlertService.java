@@ -4,6 +4,7 @@ import com.azk.pulse.PulsePlugin;
 import com.azk.pulse.core.ConfigFiles;
 import com.azk.pulse.core.DiscordWebhook;
 import com.azk.pulse.core.MessageUtil;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 import org.bukkit.Bukkit;
@@ -44,13 +45,15 @@ public class AlertService {
         double tps1 = tps[0];
         double mspt = metrics.getAverageTickTime();
         double ramPercent = metrics.getMemoryUsagePercent();
-        int chunkLimit = configFiles.getMain().getInt("performance.lag.max-chunks-scan", 2000);
-        PerformanceMetrics.ChunkScanResult scan = metrics.scanChunks(chunkLimit);
+        PerformanceMetrics.ChunkScanResult scan = metrics.getChunkScanResult();
 
         double warnTps = configFiles.getAlerts().getDouble("alerts.tps.warning", 18.0);
         double critTps = configFiles.getAlerts().getDouble("alerts.tps.critical", 15.0);
         double warnMspt = configFiles.getAlerts().getDouble("alerts.mspt.warning", 45.0);
         double critMspt = configFiles.getAlerts().getDouble("alerts.mspt.critical", 55.0);
+        double warnP99 = configFiles.getAlerts().getDouble("alerts.mspt-p99.warning", 60.0);
+        double critP99 = configFiles.getAlerts().getDouble("alerts.mspt-p99.critical", 100.0);
+        int p99Window = Math.max(10, configFiles.getAlerts().getInt("alerts.mspt-p99.window-seconds", 60));
         double warnRam = configFiles.getAlerts().getDouble("alerts.ram.warning-percent", 85.0);
         double critRam = configFiles.getAlerts().getDouble("alerts.ram.critical-percent", 95.0);
         int warnEntities = configFiles.getAlerts().getInt("alerts.entities-per-chunk.warning", 150);
@@ -76,6 +79,18 @@ public class AlertService {
             sendIfNeeded("mspt", level, message, getCooldownSeconds("mspt"));
         }
 
+        TickHistogram.Snapshot ticks = metrics.getTickPercentiles(Duration.ofSeconds(p99Window));
+        if (ticks.ticks() > 0 && isAlertEnabled("mspt-p99")) {
+            AlertLevel level = levelForAbove(ticks.p99(), warnP99, critP99);
+            String template = getTemplate("mspt-p99",
+                    "&eTick time p99 high: %value% ms (warn > %warn%, crit > %crit%)");
+            String message = applyTemplate(template,
+                    String.format("%.2f", ticks.p99()),
+                    String.format("%.2f", warnP99),
+                    String.format("%.2f", critP99));
+            sendIfNeeded("mspt-p99", level, message, getCooldownSeconds("mspt-p99"));
+        }
+
         if (ramPercent > 0 && isAlertEnabled("ram")) {
             AlertLevel level = levelForAbove(ramPercent, warnRam, critRam);
             String template = getTemplate("ram", "&eRAM usage high: %value%%% (warn > %warn%%, crit > %crit%%)");
@@ -0,0 +1,63 @@
+package com.azk.pulse.modules.performance;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class CallNode {
+    private final String frame;
+    private final Map<String, CallNode> children = new LinkedHashMap<>();
+    private int samples;
+
+    public CallNode(String frame) {
+        this.frame = frame;
+    }
+
+    public String frame() {
+        return frame;
+    }
+
+    public int samples() {
+        return samples;
+    }
+
+    public int selfSamples() {
+        int self = samples;
+        for (CallNode child : children.values()) {
+            self -= child.samples;
+        }
+        return self;
+    }
+
+    public Iterable<CallNode> children() {
+        return children.values();
+    }
+
+    public CallNode child(String frame) {
+        return children.computeIfAbsent(frame, CallNode::new);
+    }
+
+    void add(StackTraceElement[] stack) {
+        CallNode node = this;
+        node.samples++;
+        for (int i = stack.length - 1; i >= 0; i--) {
+            node = node.child(stack[i].getClassName() + "." + stack[i].getMethodName());
+            node.samples++;
+        }
+    }
+
+    public void folded(List<String> lines) {
+        folded(this, "", lines);
+    }
+
+    private static void folded(CallNode node, String prefix, List<String> lines) {
+        String path = prefix.isEmpty() ? node.frame : prefix + ";" + node.frame;
+        int self = node.selfSamples();
+        if (self > 0) {
+            lines.add(path + " " + self);
+        }
+        for (CallNode child : node.children.values()) {
+            folded(child, path, lines);
+        }
+    }
+}
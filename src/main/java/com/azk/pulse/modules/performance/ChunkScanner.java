@@ -0,0 +1,130 @@
+package com.azk.pulse.modules.performance;
+
+import com.azk.pulse.core.MessageUtil;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+import org.bukkit.block.BlockState;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * Walks every loaded chunk a slice per tick, stopping each slice once the tick budget is spent, and publishes a
+ * {@link Snapshot} when a pass over all worlds completes. Readers always get the last complete pass. Each visited
+ * chunk also reconciles the {@link EntityIndex}.
+ */
+public class ChunkScanner {
+    private final JavaPlugin plugin;
+    private final EntityIndex entityIndex;
+    private long budgetNanos;
+    private long intervalMillis;
+    private int blockSamplesPerChunk;
+    private volatile Snapshot latest;
+    private BukkitTask task;
+    private Pass pass;
+    private long nextPassAt;
+
+    public ChunkScanner(JavaPlugin plugin, EntityIndex entityIndex) {
+        this.plugin = plugin;
+        this.entityIndex = entityIndex;
+    }
+
+    public void start(double budgetMillis, int intervalSeconds, int blockSamplesPerChunk) {
+        stop();
+        this.budgetNanos = (long) (Math.max(0.1, budgetMillis) * 1_000_000L);
+        this.intervalMillis = Math.max(1, intervalSeconds) * 1000L;
+        this.blockSamplesPerChunk = Math.max(0, blockSamplesPerChunk);
+        nextPassAt = 0L;
+        task = plugin.getServer().getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        pass = null;
+    }
+
+    public Snapshot getLatest() {
+        return latest;
+    }
+
+    private void tick() {
+        if (pass == null) {
+            if (System.currentTimeMillis() < nextPassAt) {
+                return;
+            }
+            pass = new Pass(new ArrayDeque<>(Bukkit.getWorlds()), new DiagnosticScanner(blockSamplesPerChunk));
+            entityIndex.beginPass();
+        }
+        pass.ticks++;
+        long deadline = System.nanoTime() + budgetNanos;
+        while (System.nanoTime() < deadline) {
+            if (pass.chunks == null || pass.index >= pass.chunks.length) {
+                if (pass.world != null) {
+                    pass.diagnostics.scanWorld(pass.world);
+                }
+                World next = pass.worlds.poll();
+                if (next == null) {
+                    entityIndex.endPass();
+                    latest = pass.snapshot();
+                    pass = null;
+                    nextPassAt = System.currentTimeMillis() + intervalMillis;
+                    return;
+                }
+                pass.world = next;
+                pass.chunks = next.getLoadedChunks();
+                pass.index = 0;
+                continue;
+            }
+            Chunk chunk = pass.chunks[pass.index++];
+            if (chunk.isLoaded()) {
+                Entity[] entities = chunk.getEntities();
+                BlockState[] states = chunk.getTileEntities();
+                pass.diagnostics.scanChunk(pass.world, chunk, entities);
+                entityIndex.reconcile(pass.world, chunk, entities, states);
+            }
+        }
+    }
+
+    private static final class Pass {
+        private final long startedAt = System.currentTimeMillis();
+        private final Deque<World> worlds;
+        private final DiagnosticScanner diagnostics;
+        private World world;
+        private Chunk[] chunks;
+        private int index;
+        private int ticks;
+
+        private Pass(Deque<World> worlds, DiagnosticScanner diagnostics) {
+            this.worlds = worlds;
+            this.diagnostics = diagnostics;
+        }
+
+        private Snapshot snapshot() {
+            return new Snapshot(Instant.now(), System.currentTimeMillis() - startedAt, ticks, diagnostics.snapshot());
+        }
+    }
+
+    public record Snapshot(Instant completedAt, long passMillis, int ticks,
+                           DiagnosticScanner.DiagnosticSnapshot diagnostics) {
+        public long ageSeconds() {
+            return Math.max(0L, (System.currentTimeMillis() - completedAt.toEpochMilli()) / 1000L);
+        }
+
+        public String describe(JavaPlugin plugin) {
+            return MessageUtil.tr(plugin, "status.chunk-scan-value", Map.of(
+                    "chunks", Integer.toString(diagnostics.getScannedChunks()),
+                    "ticks", Integer.toString(ticks),
+                    "time", Long.toString(passMillis),
+                    "age", Long.toString(ageSeconds())
+            ));
+        }
+    }
+}
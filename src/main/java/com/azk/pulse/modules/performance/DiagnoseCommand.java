@@ -13,12 +13,15 @@ public class DiagnoseCommand implements PulseSubcommand {
     private final PerformanceMetrics metrics;
     private final PerformanceHistory history;
     private final ConfigFiles configFiles;
+    private final SamplingProfiler profiler;
 
-    public DiagnoseCommand(JavaPlugin plugin, PerformanceMetrics metrics, PerformanceHistory history, ConfigFiles configFiles) {
+    public DiagnoseCommand(JavaPlugin plugin, PerformanceMetrics metrics, PerformanceHistory history,
+                           ConfigFiles configFiles, SamplingProfiler profiler) {
         this.plugin = plugin;
         this.metrics = metrics;
         this.history = history;
         this.configFiles = configFiles;
+        this.profiler = profiler;
     }
 
     @Override
@@ -39,13 +42,14 @@ public class DiagnoseCommand implements PulseSubcommand {
     @Override
     public boolean execute(CommandSender sender, String[] args) {
         MessageUtil.sendTitleKey(sender, plugin, "diagnose.title");
-        int chunkLimit = configFiles.getMain().getInt("performance.diagnose.max-chunks-scan",
-                configFiles.getMain().getInt("performance.lag.max-chunks-scan", 2000));
-        int blockSamples = configFiles.getMain().getInt("performance.diagnose.block-samples-per-chunk", 256);
-        DiagnosticScanner scanner = new DiagnosticScanner(chunkLimit, blockSamples);
-        DiagnosticScanner.DiagnosticSnapshot snapshot = scanner.scan();
-        DiagnosticAnalyzer analyzer = new DiagnosticAnalyzer(plugin, metrics, history, configFiles);
-        DiagnosticReport report = analyzer.analyze(snapshot);
+        ChunkScanner.Snapshot scan = metrics.getChunkScanner().getLatest();
+        if (scan == null) {
+            MessageUtil.sendWarningKey(sender, plugin, "general.chunk-scan-pending");
+            return true;
+        }
+        DiagnosticAnalyzer analyzer = new DiagnosticAnalyzer(plugin, metrics, history, configFiles, profiler);
+        DiagnosticReport report = analyzer.analyze(scan.diagnostics());
+        MessageUtil.sendKeyValueKey(sender, plugin, "status.chunk-scan", scan.describe(plugin));
 
         MessageUtil.sendSectionKey(sender, plugin, "diagnose.causes.title");
         if (report.getIssues().isEmpty()) {
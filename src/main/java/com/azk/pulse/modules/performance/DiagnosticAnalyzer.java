@@ -2,6 +2,8 @@ package com.azk.pulse.modules.performance;
 
 import com.azk.pulse.core.ConfigFiles;
 import com.azk.pulse.core.MessageUtil;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
@@ -16,19 +18,20 @@ public class DiagnosticAnalyzer {
     private final PerformanceMetrics metrics;
     private final PerformanceHistory history;
     private final ConfigFiles configFiles;
+    private final SamplingProfiler profiler;
 
-    public DiagnosticAnalyzer(JavaPlugin plugin, PerformanceMetrics metrics, PerformanceHistory history, ConfigFiles configFiles) {
+    public DiagnosticAnalyzer(JavaPlugin plugin, PerformanceMetrics metrics, PerformanceHistory history,
+                              ConfigFiles configFiles, SamplingProfiler profiler) {
         this.plugin = plugin;
         this.metrics = metrics;
         this.history = history;
         this.configFiles = configFiles;
+        this.profiler = profiler;
     }
 
     public DiagnosticReport analyze(DiagnosticScanner.DiagnosticSnapshot snapshot) {
         DiagnosticReport report = new DiagnosticReport();
-        HealthEvaluator.HealthResult health = HealthEvaluator.evaluate(metrics,
-                metrics.scanChunks(configFiles.getMain().getInt("performance.lag.max-chunks-scan", 2000)),
-                configFiles);
+        HealthEvaluator.HealthResult health = HealthEvaluator.evaluate(metrics, metrics.getChunkScanResult(), configFiles);
         report.setHealth(health);
 
         double tps = metrics.getTps()[0];
@@ -78,18 +81,19 @@ public class DiagnosticAnalyzer {
             report.getRecommendations().add(tr("diagnose.recommend.per-player-spawns"));
         }
 
-        if (snapshot.getHoppersPerChunk() > 4.0) {
+        EntityIndex index = metrics.getEntityIndex();
+        if (index.getHoppersPerChunk() > 4.0) {
             report.getIssues().add(tr("diagnose.issue.hoppers"));
             report.getRecommendations().add(tr("diagnose.recommend.hopper-cooldown"));
             report.getRecommendations().add(tr("diagnose.recommend.hopper-disable-move"));
         }
 
-        if (snapshot.getSpawnersPerChunk() > 0.5) {
+        if (index.getSpawnersPerChunk() > 0.5) {
             report.getIssues().add(tr("diagnose.issue.spawners"));
             report.getRecommendations().add(tr("diagnose.recommend.spawner-limits"));
         }
 
-        if (snapshot.getTileEntitiesPerChunk() > 12.0) {
+        if (index.getTileEntitiesPerChunk() > 12.0) {
             report.getIssues().add(tr("diagnose.issue.tile-entities"));
             report.getRecommendations().add(tr("diagnose.recommend.reduce-containers"));
         }
@@ -127,15 +131,21 @@ public class DiagnosticAnalyzer {
             }
         }
 
-        PluginLoadAnalyzer pluginLoadAnalyzer = new PluginLoadAnalyzer();
-        List<PluginLoadAnalyzer.PluginLoad> pluginLoads = pluginLoadAnalyzer.getTopByScheduledTasks(3);
-        if (!pluginLoads.isEmpty()) {
-            PluginLoadAnalyzer.PluginLoad top = pluginLoads.get(0);
-            if (top.taskCount() >= 10) {
-                report.getPatterns().add(tr("diagnose.pattern.scheduler-load",
-                        Map.of("plugin", top.name(), "count", Integer.toString(top.taskCount()))));
-                report.getRecommendations().add(tr("diagnose.recommend.profiling"));
+        SamplingProfiler.ProfileResult profile = profiler != null ? profiler.getLastResult() : null;
+        SamplingProfiler.PluginShare heaviest = profile != null ? profile.heaviestPlugin() : null;
+        if (heaviest != null) {
+            double share = profile.share(heaviest);
+            long age = Duration.between(profile.started(), Instant.now()).toMinutes();
+            report.getPatterns().add(tr("diagnose.pattern.heaviest-plugin", Map.of(
+                    "plugin", heaviest.plugin(),
+                    "share", String.format(Locale.US, "%.1f", share),
+                    "age", Long.toString(age))));
+            if (share >= 20.0) {
+                report.getRecommendations().add(tr("diagnose.recommend.heavy-plugin",
+                        Map.of("plugin", heaviest.plugin())));
             }
+        } else {
+            addSchedulerLoad(report);
         }
         if (Bukkit.getPluginManager().getPlugin("spark") != null) {
             report.getRecommendations().add(tr("diagnose.recommend.spark"));
@@ -153,6 +163,19 @@ public class DiagnosticAnalyzer {
         return report;
     }
 
+    private void addSchedulerLoad(DiagnosticReport report) {
+        List<PluginLoadAnalyzer.PluginLoad> pluginLoads = new PluginLoadAnalyzer().getTopByScheduledTasks(3);
+        if (pluginLoads.isEmpty()) {
+            return;
+        }
+        PluginLoadAnalyzer.PluginLoad top = pluginLoads.get(0);
+        if (top.taskCount() >= 10) {
+            report.getPatterns().add(tr("diagnose.pattern.scheduler-load",
+                    Map.of("plugin", top.name(), "count", Integer.toString(top.taskCount()))));
+            report.getRecommendations().add(tr("diagnose.recommend.profiling"));
+        }
+    }
+
     private String calculateRisk(HealthEvaluator.HealthResult health, PerformanceHistory history) {
         if (health.getScore() < 40) {
             return "HIGH";
@@ -0,0 +1,442 @@
+package com.azk.pulse.modules.performance;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.CreatureSpawner;
+import org.bukkit.block.Hopper;
+import org.bukkit.block.TileState;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+/**
+ * Live per-chunk counters of entities, tile entities, hoppers and spawners, so status, alerts, diagnostics, the GUI
+ * and {@code /pulse lag} never walk entity lists themselves. Entities are tracked from Paper's add/remove events
+ * ({@link EntityTrackingListener}); tile entities from block place/break. Entities moving between chunks, blocks
+ * changed by explosions, pistons or other plugins, and servers without the Paper events are corrected by
+ * {@link ChunkScanner}, which reconciles each chunk it visits. Main thread only.
+ */
+public class EntityIndex implements Listener {
+    private static final EntityType[] TYPES = EntityType.values();
+
+    private final Map<UUID, WorldCounts> worlds = new HashMap<>();
+    private final LongTable<Tracked> entities = new LongTable<>(1024);
+    private int pass;
+
+    public void start() {
+        clear();
+        for (World world : Bukkit.getWorlds()) {
+            WorldCounts counts = world(world);
+            counts.loadedChunks = world.getLoadedChunks().length;
+            for (Entity entity : world.getEntities()) {
+                add(entity);
+            }
+        }
+    }
+
+    public void clear() {
+        worlds.clear();
+        entities.clear();
+    }
+
+    public int getTotalEntities() {
+        int total = 0;
+        for (WorldCounts counts : worlds.values()) {
+            total += counts.entities;
+        }
+        return total;
+    }
+
+    public int getLoadedChunks() {
+        int total = 0;
+        for (WorldCounts counts : worlds.values()) {
+            total += counts.loadedChunks;
+        }
+        return total;
+    }
+
+    public double getTileEntitiesPerChunk() {
+        int total = 0;
+        for (WorldCounts counts : worlds.values()) {
+            total += counts.tiles;
+        }
+        return perChunk(total);
+    }
+
+    public double getHoppersPerChunk() {
+        int total = 0;
+        for (WorldCounts counts : worlds.values()) {
+            total += counts.hoppers;
+        }
+        return perChunk(total);
+    }
+
+    public double getSpawnersPerChunk() {
+        int total = 0;
+        for (WorldCounts counts : worlds.values()) {
+            total += counts.spawners;
+        }
+        return perChunk(total);
+    }
+
+    public List<WorldStat> getWorlds() {
+        List<WorldStat> stats = new ArrayList<>(worlds.size());
+        for (WorldCounts counts : worlds.values()) {
+            stats.add(new WorldStat(counts.name, counts.entities, counts.loadedChunks));
+        }
+        return stats;
+    }
+
+    public Map<EntityType, Integer> getEntityCounts() {
+        Map<EntityType, Integer> counts = new EnumMap<>(EntityType.class);
+        for (WorldCounts world : worlds.values()) {
+            for (int i = 0; i < world.types.length; i++) {
+                if (world.types[i] > 0) {
+                    counts.merge(TYPES[i], world.types[i], Integer::sum);
+                }
+            }
+        }
+        return counts;
+    }
+
+    public List<PerformanceMetrics.ChunkEntityInfo> getTopChunks(int limit) {
+        List<PerformanceMetrics.ChunkEntityInfo> top = new ArrayList<>();
+        for (WorldCounts world : worlds.values()) {
+            int taken = 0;
+            for (int level = world.maxLevel; level > 0 && taken < limit; level--) {
+                for (ChunkCounts counts = world.levels[level]; counts != null && taken < limit;
+                     counts = counts.next) {
+                    top.add(new PerformanceMetrics.ChunkEntityInfo(world.name, chunkX(counts.key),
+                            chunkZ(counts.key), counts.entities));
+                    taken++;
+                }
+            }
+        }
+        top.sort(Comparator.comparingInt(PerformanceMetrics.ChunkEntityInfo::getEntities).reversed());
+        return top.size() > limit ? new ArrayList<>(top.subList(0, limit)) : top;
+    }
+
+    public PerformanceMetrics.ChunkScanResult getChunkScanResult() {
+        WorldCounts densest = null;
+        for (WorldCounts world : worlds.values()) {
+            if (world.maxLevel > 0 && (densest == null || world.maxLevel > densest.maxLevel)) {
+                densest = world;
+            }
+        }
+        ChunkCounts max = densest != null ? densest.levels[densest.maxLevel] : null;
+        return new PerformanceMetrics.ChunkScanResult(getLoadedChunks(), getTotalEntities(),
+                max != null ? max.entities : 0,
+                max != null ? densest.name + ":" + chunkX(max.key) + "," + chunkZ(max.key) : "");
+    }
+
+    private double perChunk(int total) {
+        int chunks = getLoadedChunks();
+        return chunks > 0 ? total / (double) chunks : 0.0;
+    }
+
+    void add(Entity entity) {
+        Location location = entity.getLocation();
+        place(entity, world(entity.getWorld()), chunkKey(location.getBlockX() >> 4, location.getBlockZ() >> 4));
+    }
+
+    void remove(Entity entity) {
+        Tracked tracked = entities.remove(entity.getEntityId());
+        if (tracked != null) {
+            untrack(tracked);
+        }
+    }
+
+    int beginPass() {
+        return ++pass;
+    }
+
+    /**
+     * Replaces this chunk's counters with what is actually there. Entities found here but recorded elsewhere are
+     * moved over, so chunk totals stay consistent with the world total.
+     */
+    void reconcile(World world, Chunk chunk, Entity[] chunkEntities, BlockState[] states) {
+        WorldCounts counts = world(world);
+        long key = chunkKey(chunk.getX(), chunk.getZ());
+        for (Entity entity : chunkEntities) {
+            place(entity, counts, key);
+        }
+        ChunkCounts chunkCounts = counts.chunk(key, true);
+        chunkCounts.setTiles(counts, states);
+        counts.prune(key, chunkCounts);
+    }
+
+    /**
+     * Drops entities no pass has seen for two passes: removals the events missed, or every removal on servers
+     * without {@link EntityTrackingListener}. One pass of grace covers entities that crossed into an already
+     * visited chunk.
+     */
+    void endPass() {
+        List<Long> stale = new ArrayList<>();
+        for (int slot = 0; slot < entities.capacity(); slot++) {
+            Tracked tracked = entities.valueAt(slot);
+            if (tracked != null && tracked.seen < pass - 1) {
+                stale.add(entities.keyAt(slot));
+            }
+        }
+        for (long id : stale) {
+            untrack(entities.remove(id));
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent event) {
+        WorldCounts world = world(event.getWorld());
+        world.loadedChunks++;
+        BlockState[] states = event.getChunk().getTileEntities(false);
+        if (states.length > 0) {
+            long key = chunkKey(event.getChunk().getX(), event.getChunk().getZ());
+            ChunkCounts counts = world.chunk(key, true);
+            counts.setTiles(world, states);
+            world.prune(key, counts);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        WorldCounts world = world(event.getWorld());
+        world.loadedChunks = Math.max(0, world.loadedChunks - 1);
+        long key = chunkKey(event.getChunk().getX(), event.getChunk().getZ());
+        ChunkCounts counts = world.chunk(key, false);
+        if (counts != null) {
+            counts.setTiles(world, new BlockState[0]);
+            world.prune(key, counts);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        WorldCounts world = worlds.remove(event.getWorld().getUID());
+        if (world == null) {
+            return;
+        }
+        List<Long> dropped = new ArrayList<>();
+        for (int slot = 0; slot < entities.capacity(); slot++) {
+            Tracked tracked = entities.valueAt(slot);
+            if (tracked != null && tracked.world == world) {
+                dropped.add(entities.keyAt(slot));
+            }
+        }
+        for (long id : dropped) {
+            entities.remove(id);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockPlace(BlockPlaceEvent event) {
+        BlockState state = event.getBlockPlaced().getState(false);
+        if (state instanceof TileState) {
+            adjustTile(state, 1);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBreak(BlockBreakEvent event) {
+        BlockState state = event.getBlock().getState(false);
+        if (state instanceof TileState) {
+            adjustTile(state, -1);
+        }
+    }
+
+    private void adjustTile(BlockState state, int delta) {
+        WorldCounts world = world(state.getWorld());
+        long key = chunkKey(state.getX() >> 4, state.getZ() >> 4);
+        ChunkCounts counts = world.chunk(key, delta > 0);
+        if (counts == null) {
+            return;
+        }
+        counts.addTile(world, state, delta);
+        world.prune(key, counts);
+    }
+
+    private void place(Entity entity, WorldCounts world, long chunk) {
+        Tracked tracked = entities.get(entity.getEntityId());
+        if (tracked != null) {
+            if (tracked.world == world && tracked.chunk == chunk) {
+                tracked.seen = pass;
+                return;
+            }
+            untrack(tracked);
+        }
+        tracked = new Tracked(world, chunk, entity.getType().ordinal(), pass);
+        entities.put(entity.getEntityId(), tracked);
+        track(tracked);
+    }
+
+    private void track(Tracked tracked) {
+        WorldCounts world = tracked.world;
+        world.entities++;
+        world.types[tracked.type]++;
+        world.addEntities(world.chunk(tracked.chunk, true), 1);
+    }
+
+    private void untrack(Tracked tracked) {
+        WorldCounts world = tracked.world;
+        world.entities--;
+        world.types[tracked.type]--;
+        ChunkCounts counts = world.chunk(tracked.chunk, false);
+        if (counts != null) {
+            world.addEntities(counts, -1);
+            world.prune(tracked.chunk, counts);
+        }
+    }
+
+    private WorldCounts world(World world) {
+        return worlds.computeIfAbsent(world.getUID(), uid -> new WorldCounts(world.getName()));
+    }
+
+    static long chunkKey(int x, int z) {
+        return (x & 0xFFFFFFFFL) | ((z & 0xFFFFFFFFL) << 32);
+    }
+
+    private static int chunkX(long key) {
+        return (int) key;
+    }
+
+    private static int chunkZ(long key) {
+        return (int) (key >>> 32);
+    }
+
+    private static final class WorldCounts {
+        private final String name;
+        private final LongTable<ChunkCounts> chunks = new LongTable<>(256);
+        private final int[] types = new int[TYPES.length];
+        // levels[n] heads a list of the chunks holding exactly n entities, so the densest chunks are read directly.
+        private ChunkCounts[] levels = new ChunkCounts[64];
+        private int maxLevel;
+        private int entities;
+        private int loadedChunks;
+        private int tiles;
+        private int hoppers;
+        private int spawners;
+
+        private WorldCounts(String name) {
+            this.name = name;
+        }
+
+        private ChunkCounts chunk(long key, boolean create) {
+            ChunkCounts counts = chunks.get(key);
+            if (counts == null && create) {
+                counts = new ChunkCounts(key);
+                chunks.put(key, counts);
+            }
+            return counts;
+        }
+
+        private void addEntities(ChunkCounts counts, int delta) {
+            int level = counts.entities;
+            if (level > 0) {
+                if (counts.previous != null) {
+                    counts.previous.next = counts.next;
+                } else {
+                    levels[level] = counts.next;
+                }
+                if (counts.next != null) {
+                    counts.next.previous = counts.previous;
+                }
+                counts.previous = null;
+                counts.next = null;
+            }
+            counts.entities += delta;
+            level = counts.entities;
+            if (level > 0) {
+                if (level >= levels.length) {
+                    levels = Arrays.copyOf(levels, Math.max(level + 1, levels.length * 2));
+                }
+                counts.next = levels[level];
+                if (counts.next != null) {
+                    counts.next.previous = counts;
+                }
+                levels[level] = counts;
+                maxLevel = Math.max(maxLevel, level);
+            }
+            while (maxLevel > 0 && levels[maxLevel] == null) {
+                maxLevel--;
+            }
+        }
+
+        private void prune(long key, ChunkCounts counts) {
+            if (counts.entities <= 0 && counts.tiles <= 0) {
+                chunks.remove(key);
+            }
+        }
+    }
+
+    private static final class ChunkCounts {
+        private final long key;
+        private ChunkCounts previous;
+        private ChunkCounts next;
+        private int entities;
+        private int tiles;
+        private int hoppers;
+        private int spawners;
+
+        private ChunkCounts(long key) {
+            this.key = key;
+        }
+
+        private void setTiles(WorldCounts world, BlockState[] states) {
+            world.tiles -= tiles;
+            world.hoppers -= hoppers;
+            world.spawners -= spawners;
+            tiles = 0;
+            hoppers = 0;
+            spawners = 0;
+            for (BlockState state : states) {
+                addTile(world, state, 1);
+            }
+        }
+
+        private void addTile(WorldCounts world, BlockState state, int delta) {
+            tiles += delta;
+            world.tiles += delta;
+            if (state instanceof Hopper) {
+                hoppers += delta;
+                world.hoppers += delta;
+            }
+            if (state instanceof CreatureSpawner) {
+                spawners += delta;
+                world.spawners += delta;
+            }
+        }
+    }
+
+    private static final class Tracked {
+        private final WorldCounts world;
+        private final long chunk;
+        private final int type;
+        private int seen;
+
+        private Tracked(WorldCounts world, long chunk, int type, int seen) {
+            this.world = world;
+            this.chunk = chunk;
+            this.type = type;
+            this.seen = seen;
+        }
+    }
+
+    public record WorldStat(String name, int entities, int chunks) {
+    }
+}
@@ -0,0 +1,27 @@
+package com.azk.pulse.modules.performance;
+
+import com.destroystokyo.paper.event.entity.EntityAddToWorldEvent;
+import com.destroystokyo.paper.event.entity.EntityRemoveFromWorldEvent;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+
+public class EntityTrackingListener implements Listener {
+    static final String EVENT_CLASS = "com.destroystokyo.paper.event.entity.EntityAddToWorldEvent";
+
+    private final EntityIndex index;
+
+    public EntityTrackingListener(EntityIndex index) {
+        this.index = index;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onAdd(EntityAddToWorldEvent event) {
+        index.add(event.getEntity());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onRemove(EntityRemoveFromWorldEvent event) {
+        index.remove(event.getEntity());
+    }
+}
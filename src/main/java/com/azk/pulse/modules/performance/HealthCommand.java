@@ -37,8 +37,7 @@ public class HealthCommand implements PulseSubcommand {
     @Override
     public boolean execute(CommandSender sender, String[] args) {
         MessageUtil.sendTitleKey(sender, plugin, "health.title");
-        int chunkLimit = configFiles.getMain().getInt("performance.lag.max-chunks-scan", 2000);
-        PerformanceMetrics.ChunkScanResult scan = metrics.scanChunks(chunkLimit);
+        PerformanceMetrics.ChunkScanResult scan = metrics.getChunkScanResult();
         HealthEvaluator.HealthResult health = HealthEvaluator.evaluate(metrics, scan, configFiles);
         String level = MessageUtil.tr(plugin, "health.level." + health.getLevel().toLowerCase(Locale.ROOT), health.getLevel());
         MessageUtil.sendKeyValueKey(sender, plugin, "health.label",
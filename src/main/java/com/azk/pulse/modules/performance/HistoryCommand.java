@@ -71,6 +71,9 @@ public class HistoryCommand implements PulseSubcommand {
         int tpsCount = 0;
         double totalMspt = 0.0;
         int msptCount = 0;
+        double totalP99 = 0.0;
+        int p99Count = 0;
+        double worstTick = 0.0;
         double totalRam = 0.0;
         int ramCount = 0;
         int totalPlayers = 0;
@@ -88,6 +91,11 @@ public class HistoryCommand implements PulseSubcommand {
                 totalMspt += sample.getMspt();
                 msptCount++;
             }
+            if (sample.getMsptP99() > 0) {
+                totalP99 += sample.getMsptP99();
+                p99Count++;
+                worstTick = Math.max(worstTick, sample.getMsptMax());
+            }
             if (sample.getMaxMemory() > 0) {
                 totalRam += (sample.getUsedMemory() / (double) sample.getMaxMemory()) * 100.0;
                 ramCount++;
@@ -113,6 +121,10 @@ public class HistoryCommand implements PulseSubcommand {
         MessageUtil.sendKeyValueKey(sender, plugin, "history.tps-summary",
                 String.format(Locale.US, "%.2f / %.2f / %.2f", avgTps, minTpsValue, maxTpsValue));
         MessageUtil.sendKeyValueKey(sender, plugin, "history.avg-mspt", String.format(Locale.US, "%.2f ms", avgMspt));
+        if (p99Count > 0) {
+            MessageUtil.sendKeyValueKey(sender, plugin, "history.tick-spikes",
+                    String.format(Locale.US, "%.2f / %.2f ms", totalP99 / p99Count, worstTick));
+        }
         MessageUtil.sendKeyValueKey(sender, plugin, "history.avg-ram", String.format(Locale.US, "%.1f%%", avgRam));
         MessageUtil.sendKeyValueKey(sender, plugin, "history.avg-players", String.format(Locale.US, "%.1f", avgPlayers));
         return true;
@@ -73,7 +73,7 @@ public class PerformanceHistory {
     public void exportCsv(File file, List<HistorySample> data) throws IOException {
         DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE_TIME.withZone(ZoneId.systemDefault());
         try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
-            writer.write("timestamp,tps_1m,tps_5m,tps_15m,mspt,mem_used,mem_max,players");
+            writer.write("timestamp,tps_1m,tps_5m,tps_15m,mspt,mspt_p50,mspt_p95,mspt_p99,mspt_max,mem_used,mem_max,players");
             writer.newLine();
             for (HistorySample sample : data) {
                 writer.write(formatter.format(sample.timestamp));
@@ -86,6 +86,14 @@ public class PerformanceHistory {
                 writer.write(",");
                 writer.write(Double.toString(sample.mspt));
                 writer.write(",");
+                writer.write(Double.toString(sample.msptP50));
+                writer.write(",");
+                writer.write(Double.toString(sample.msptP95));
+                writer.write(",");
+                writer.write(Double.toString(sample.msptP99));
+                writer.write(",");
+                writer.write(Double.toString(sample.msptMax));
+                writer.write(",");
                 writer.write(Long.toString(sample.usedMemory));
                 writer.write(",");
                 writer.write(Long.toString(sample.maxMemory));
@@ -109,17 +117,26 @@ public class PerformanceHistory {
         private final double tps5;
         private final double tps15;
         private final double mspt;
+        private final double msptP50;
+        private final double msptP95;
+        private final double msptP99;
+        private final double msptMax;
         private final long usedMemory;
         private final long maxMemory;
         private final int players;
 
         public HistorySample(Instant timestamp, double tps1, double tps5, double tps15, double mspt,
+                             double msptP50, double msptP95, double msptP99, double msptMax,
                              long usedMemory, long maxMemory, int players) {
             this.timestamp = timestamp;
             this.tps1 = tps1;
             this.tps5 = tps5;
             this.tps15 = tps15;
             this.mspt = mspt;
+            this.msptP50 = msptP50;
+            this.msptP95 = msptP95;
+            this.msptP99 = msptP99;
+            this.msptMax = msptMax;
             this.usedMemory = usedMemory;
             this.maxMemory = maxMemory;
             this.players = players;
@@ -145,6 +162,22 @@ public class PerformanceHistory {
             return mspt;
         }
 
+        public double getMsptP50() {
+            return msptP50;
+        }
+
+        public double getMsptP95() {
+            return msptP95;
+        }
+
+        public double getMsptP99() {
+            return msptP99;
+        }
+
+        public double getMsptMax() {
+            return msptMax;
+        }
+
         public long getUsedMemory() {
             return usedMemory;
         }
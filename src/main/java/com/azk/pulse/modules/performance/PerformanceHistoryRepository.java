@@ -1,6 +1,8 @@
 package com.azk.pulse.modules.performance;
 
 import com.azk.pulse.storage.DatabaseProvider;
+import com.azk.pulse.storage.SqlDialect;
+import com.azk.pulse.storage.StorageService;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -13,32 +15,32 @@ import org.bukkit.plugin.java.JavaPlugin;
 
 public class PerformanceHistoryRepository {
     private final JavaPlugin plugin;
+    private final StorageService storageService;
     private final DatabaseProvider storage;
 
-    public PerformanceHistoryRepository(JavaPlugin plugin, DatabaseProvider storage) {
+    public PerformanceHistoryRepository(JavaPlugin plugin, StorageService storageService) {
         this.plugin = plugin;
-        this.storage = storage;
+        this.storageService = storageService;
+        this.storage = storageService.getProvider();
     }
 
     public void init() {
-        storage.init();
         createTables();
     }
 
-    public void shutdown() {
-        storage.shutdown();
-    }
-
     public void saveSampleAsync(PerformanceHistory.HistorySample sample) {
         if (sample == null) {
             return;
         }
-        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> saveSample(sample));
+        if (!storageService.submitWrite(() -> saveSample(sample))) {
+            saveSample(sample);
+        }
     }
 
     public List<PerformanceHistory.HistorySample> loadSince(Instant cutoff) {
         List<PerformanceHistory.HistorySample> samples = new ArrayList<>();
-        String sql = "SELECT time, tps1, tps5, tps15, mspt, used_memory, max_memory, players "
+        String sql = "SELECT time, tps1, tps5, tps15, mspt, mspt_p50, mspt_p95, mspt_p99, mspt_max, "
+                + "used_memory, max_memory, players "
                 + "FROM perf_history WHERE time >= ? ORDER BY time ASC";
         try (Connection connection = storage.openConnection();
              PreparedStatement statement = connection.prepareStatement(sql)) {
@@ -50,10 +52,15 @@ public class PerformanceHistoryRepository {
                     double tps5 = resultSet.getDouble("tps5");
                     double tps15 = resultSet.getDouble("tps15");
                     double mspt = resultSet.getDouble("mspt");
+                    double p50 = resultSet.getDouble("mspt_p50");
+                    double p95 = resultSet.getDouble("mspt_p95");
+                    double p99 = resultSet.getDouble("mspt_p99");
+                    double msptMax = resultSet.getDouble("mspt_max");
                     long used = resultSet.getLong("used_memory");
                     long max = resultSet.getLong("max_memory");
                     int players = resultSet.getInt("players");
-                    samples.add(new PerformanceHistory.HistorySample(timestamp, tps1, tps5, tps15, mspt, used, max, players));
+                    samples.add(new PerformanceHistory.HistorySample(timestamp, tps1, tps5, tps15, mspt,
+                            p50, p95, p99, msptMax, used, max, players));
                 }
             }
         } catch (SQLException ex) {
@@ -64,7 +71,7 @@ public class PerformanceHistoryRepository {
 
     public void deleteOlderThan(Instant cutoff) {
         String sql = "DELETE FROM perf_history WHERE time < ?";
-        try (Connection connection = storage.openConnection();
+        try (Connection connection = storage.openWriteConnection();
              PreparedStatement statement = connection.prepareStatement(sql)) {
             statement.setLong(1, cutoff.toEpochMilli());
             statement.executeUpdate();
@@ -74,18 +81,22 @@ public class PerformanceHistoryRepository {
     }
 
     private void saveSample(PerformanceHistory.HistorySample sample) {
-        String sql = "INSERT INTO perf_history(time, tps1, tps5, tps15, mspt, used_memory, max_memory, players) "
-                + "VALUES(?,?,?,?,?,?,?,?)";
-        try (Connection connection = storage.openConnection();
+        String sql = "INSERT INTO perf_history(time, tps1, tps5, tps15, mspt, mspt_p50, mspt_p95, mspt_p99, mspt_max, "
+                + "used_memory, max_memory, players) VALUES(?,?,?,?,?,?,?,?,?,?,?,?)";
+        try (Connection connection = storage.openWriteConnection();
              PreparedStatement statement = connection.prepareStatement(sql)) {
             statement.setLong(1, sample.getTimestamp().toEpochMilli());
             statement.setDouble(2, sample.getTps1());
             statement.setDouble(3, sample.getTps5());
             statement.setDouble(4, sample.getTps15());
             statement.setDouble(5, sample.getMspt());
-            statement.setLong(6, sample.getUsedMemory());
-            statement.setLong(7, sample.getMaxMemory());
-            statement.setInt(8, sample.getPlayers());
+            statement.setDouble(6, sample.getMsptP50());
+            statement.setDouble(7, sample.getMsptP95());
+            statement.setDouble(8, sample.getMsptP99());
+            statement.setDouble(9, sample.getMsptMax());
+            statement.setLong(10, sample.getUsedMemory());
+            statement.setLong(11, sample.getMaxMemory());
+            statement.setInt(12, sample.getPlayers());
             statement.executeUpdate();
         } catch (SQLException ex) {
             plugin.getLogger().warning("Failed to save performance history: " + ex.getMessage());
@@ -93,7 +104,7 @@ public class PerformanceHistoryRepository {
     }
 
     private void createTables() {
-        try (Connection connection = storage.openConnection();
+        try (Connection connection = storage.openWriteConnection();
              Statement statement = connection.createStatement()) {
             statement.executeUpdate(
                     "CREATE TABLE IF NOT EXISTS perf_history ("
@@ -102,10 +113,20 @@ public class PerformanceHistoryRepository {
                             + "tps5 DOUBLE,"
                             + "tps15 DOUBLE,"
                             + "mspt DOUBLE,"
+                            + "mspt_p50 DOUBLE,"
+                            + "mspt_p95 DOUBLE,"
+                            + "mspt_p99 DOUBLE,"
+                            + "mspt_max DOUBLE,"
                             + "used_memory BIGINT,"
                             + "max_memory BIGINT,"
                             + "players INTEGER)"
             );
+            SqlDialect dialect = storage.getDialect();
+            for (String column : List.of("mspt_p50", "mspt_p95", "mspt_p99", "mspt_max")) {
+                if (!dialect.columnExists(connection, "perf_history", column)) {
+                    statement.executeUpdate("ALTER TABLE perf_history ADD COLUMN " + column + " DOUBLE");
+                }
+            }
             statement.executeUpdate("CREATE INDEX IF NOT EXISTS idx_perf_time ON perf_history(time)");
         } catch (SQLException ex) {
             plugin.getLogger().warning("Failed to initialize perf history table: " + ex.getMessage());
@@ -1,16 +1,18 @@
 package com.azk.pulse.modules.performance;
 
 import java.lang.management.ManagementFactory;
+import java.time.Duration;
 import java.time.Instant;
-import java.util.ArrayList;
-import java.util.List;
 import org.bukkit.Bukkit;
-import org.bukkit.Chunk;
-import org.bukkit.World;
 import org.bukkit.plugin.java.JavaPlugin;
 
 public class PerformanceMetrics {
+    private final TickHistogram tickHistogram = new TickHistogram(10, 900);
+    private final EntityIndex entityIndex = new EntityIndex();
+    private final ChunkScanner chunkScanner;
+
     public PerformanceMetrics(JavaPlugin plugin) {
+        this.chunkScanner = new ChunkScanner(plugin, entityIndex);
     }
 
     public double[] getTps() {
@@ -95,6 +97,26 @@ public class PerformanceMetrics {
         return -1.0;
     }
 
+    public ChunkScanner getChunkScanner() {
+        return chunkScanner;
+    }
+
+    public EntityIndex getEntityIndex() {
+        return entityIndex;
+    }
+
+    public ChunkScanResult getChunkScanResult() {
+        return entityIndex.getChunkScanResult();
+    }
+
+    public TickHistogram getTickHistogram() {
+        return tickHistogram;
+    }
+
+    public TickHistogram.Snapshot getTickPercentiles(Duration window) {
+        return tickHistogram.snapshot(window.toMillis());
+    }
+
     public double getProcessCpuLoad() {
         java.lang.management.OperatingSystemMXBean osBean = ManagementFactory.getOperatingSystemMXBean();
         if (osBean instanceof com.sun.management.OperatingSystemMXBean sunBean) {
@@ -120,19 +142,11 @@ public class PerformanceMetrics {
     }
 
     public int getLoadedChunks() {
-        int total = 0;
-        for (World world : Bukkit.getWorlds()) {
-            total += world.getLoadedChunks().length;
-        }
-        return total;
+        return entityIndex.getLoadedChunks();
     }
 
     public int getTotalEntities() {
-        int total = 0;
-        for (World world : Bukkit.getWorlds()) {
-            total += world.getEntities().size();
-        }
-        return total;
+        return entityIndex.getTotalEntities();
     }
 
     public double getMemoryUsagePercent() {
@@ -143,69 +157,15 @@ public class PerformanceMetrics {
         return (getUsedMemory() / (double) max) * 100.0;
     }
 
-    public PerformanceHistory.HistorySample captureSample() {
+    public PerformanceHistory.HistorySample captureSample(Duration window) {
         double[] tps = getTps();
         double mspt = getAverageTickTime();
+        TickHistogram.Snapshot ticks = getTickPercentiles(window);
         long used = getUsedMemory();
         long max = getMaxMemory();
         int players = getOnlinePlayers();
-        return new PerformanceHistory.HistorySample(Instant.now(), tps[0], tps[1], tps[2], mspt, used, max, players);
-    }
-
-    public ChunkScanResult scanChunks(int maxChunks) {
-        int scanned = 0;
-        int totalEntities = 0;
-        int maxEntities = 0;
-        String maxChunk = "";
-        boolean truncated = false;
-
-        for (World world : Bukkit.getWorlds()) {
-            for (Chunk chunk : world.getLoadedChunks()) {
-                if (maxChunks > 0 && scanned >= maxChunks) {
-                    truncated = true;
-                    break;
-                }
-                int entities = chunk.getEntities().length;
-                scanned++;
-                totalEntities += entities;
-                if (entities > maxEntities) {
-                    maxEntities = entities;
-                    maxChunk = world.getName() + ":" + chunk.getX() + "," + chunk.getZ();
-                }
-            }
-            if (truncated) {
-                break;
-            }
-        }
-
-        return new ChunkScanResult(scanned, totalEntities, maxEntities, maxChunk, truncated);
-    }
-
-    public List<ChunkEntityInfo> collectChunkEntityInfo(int maxChunks) {
-        int scanned = 0;
-        boolean truncated = false;
-        List<ChunkEntityInfo> entries = new ArrayList<>();
-
-        for (World world : Bukkit.getWorlds()) {
-            for (Chunk chunk : world.getLoadedChunks()) {
-                if (maxChunks > 0 && scanned >= maxChunks) {
-                    truncated = true;
-                    break;
-                }
-                int entities = chunk.getEntities().length;
-                entries.add(new ChunkEntityInfo(world.getName(), chunk.getX(), chunk.getZ(), entities));
-                scanned++;
-            }
-            if (truncated) {
-                break;
-            }
-        }
-
-        if (truncated) {
-            entries.add(ChunkEntityInfo.truncated());
-        }
-
-        return entries;
+        return new PerformanceHistory.HistorySample(Instant.now(), tps[0], tps[1], tps[2], mspt,
+                ticks.p50(), ticks.p95(), ticks.p99(), ticks.max(), used, max, players);
     }
 
     public static final class ChunkScanResult {
@@ -213,14 +173,12 @@ public class PerformanceMetrics {
         private final int totalEntities;
         private final int maxEntities;
         private final String maxChunk;
-        private final boolean truncated;
 
-        public ChunkScanResult(int scannedChunks, int totalEntities, int maxEntities, String maxChunk, boolean truncated) {
+        public ChunkScanResult(int scannedChunks, int totalEntities, int maxEntities, String maxChunk) {
             this.scannedChunks = scannedChunks;
             this.totalEntities = totalEntities;
             this.maxEntities = maxEntities;
             this.maxChunk = maxChunk;
-            this.truncated = truncated;
         }
 
         public int getScannedChunks() {
@@ -239,10 +197,6 @@ public class PerformanceMetrics {
             return maxChunk;
         }
 
-        public boolean isTruncated() {
-            return truncated;
-        }
-
         public double getAverageEntitiesPerChunk() {
             if (scannedChunks <= 0) {
                 return 0.0;
@@ -256,30 +210,12 @@ public class PerformanceMetrics {
         private final int x;
         private final int z;
         private final int entities;
-        private final boolean truncatedMarker;
 
         public ChunkEntityInfo(String world, int x, int z, int entities) {
             this.world = world;
             this.x = x;
             this.z = z;
             this.entities = entities;
-            this.truncatedMarker = false;
-        }
-
-        private ChunkEntityInfo() {
-            this.world = "";
-            this.x = 0;
-            this.z = 0;
-            this.entities = 0;
-            this.truncatedMarker = true;
-        }
-
-        public static ChunkEntityInfo truncated() {
-            return new ChunkEntityInfo();
-        }
-
-        public boolean isTruncatedMarker() {
-            return truncatedMarker;
         }
 
         public String getWorld() {
@@ -4,9 +4,9 @@ import com.azk.pulse.PulsePlugin;
 import com.azk.pulse.commands.CommandRegistry;
 import com.azk.pulse.core.ConfigFiles;
 import com.azk.pulse.core.PulseModule;
-import com.azk.pulse.storage.StorageFactory;
 import java.time.Instant;
 import java.time.Duration;
+import org.bukkit.event.HandlerList;
 import org.bukkit.scheduler.BukkitTask;
 
 public class PerformanceModule implements PulseModule {
@@ -18,6 +18,10 @@ public class PerformanceModule implements PulseModule {
     private AlertService alertService;
     private PerformanceHistoryRepository historyRepository;
     private ClearLagService clearLagService;
+    private TickDurationListener tickListener;
+    private SpikeWatchdog spikeWatchdog;
+    private SamplingProfiler profiler;
+    private EntityTrackingListener entityListener;
     private BukkitTask historyTask;
     private boolean enabled;
 
@@ -36,9 +40,14 @@ public class PerformanceModule implements PulseModule {
 
     @Override
     public void enable() {
+        profiler = new SamplingProfiler(plugin,
+                configFiles.getMain().getLong("performance.profiler.interval-ms", 10L),
+                configFiles.getMain().getInt("performance.profiler.max-depth", 256),
+                configFiles.getMain().getLong("performance.profiler.max-seconds", 600L) * 1000L);
         registry.register(new StatusCommand(plugin, metrics));
-        registry.register(new LagCommand(plugin, metrics, configFiles));
-        registry.register(new DiagnoseCommand(plugin, metrics, history, configFiles));
+        registry.register(new LagCommand(plugin, metrics));
+        registry.register(new DiagnoseCommand(plugin, metrics, history, configFiles, profiler));
+        registry.register(new ProfileCommand(plugin, profiler));
         registry.register(new HistoryCommand(plugin, history));
         clearLagService = new ClearLagService(plugin, configFiles);
         registry.register(new ClearLagCommand(plugin, configFiles, clearLagService));
@@ -46,7 +55,20 @@ public class PerformanceModule implements PulseModule {
         registry.register(new UnloadChunksCommand(plugin, configFiles));
         registry.register(new HealthCommand(plugin, metrics, configFiles));
         registry.register(new AlertTestCommand(plugin, configFiles));
-
+        spikeWatchdog = new SpikeWatchdog(plugin,
+                configFiles.getMain().getLong("performance.spikes.threshold-ms", 100L),
+                configFiles.getMain().getLong("performance.spikes.sample-interval-ms", 5L),
+                configFiles.getMain().getInt("performance.spikes.max-depth", 256),
+                configFiles.getMain().getInt("performance.spikes.max-reports", 20));
+        registry.register(new SpikesCommand(plugin, spikeWatchdog));
+
+        startEntityIndex();
+        metrics.getChunkScanner().start(
+                configFiles.getMain().getDouble("performance.chunk-scan.budget-ms", 2.0),
+                configFiles.getMain().getInt("performance.chunk-scan.interval-seconds", 30),
+                configFiles.getMain().getInt("performance.chunk-scan.block-samples-per-chunk", 16));
+        startTickHistogram();
+        startSpikeWatchdog();
         startHistoryTask();
         startAlerts();
         clearLagService.start();
@@ -54,6 +76,14 @@ public class PerformanceModule implements PulseModule {
 
     @Override
     public void disable() {
+        metrics.getChunkScanner().stop();
+        stopEntityIndex();
+        stopTickHistogram();
+        stopSpikeWatchdog();
+        if (profiler != null) {
+            profiler.stop();
+            profiler = null;
+        }
         stopHistoryTask();
         stopAlerts();
         if (clearLagService != null) {
@@ -61,7 +91,6 @@ public class PerformanceModule implements PulseModule {
             clearLagService = null;
         }
         if (historyRepository != null) {
-            historyRepository.shutdown();
             historyRepository = null;
         }
         registry.unregisterByModule(getName());
@@ -88,7 +117,7 @@ public class PerformanceModule implements PulseModule {
         loadHistoryFromDatabase();
 
         historyTask = plugin.getServer().getScheduler().runTaskTimer(plugin, () -> {
-            PerformanceHistory.HistorySample sample = metrics.captureSample();
+            PerformanceHistory.HistorySample sample = metrics.captureSample(Duration.ofSeconds(interval));
             history.addSample(sample);
             if (historyRepository != null) {
                 historyRepository.saveSampleAsync(sample);
@@ -103,6 +132,73 @@ public class PerformanceModule implements PulseModule {
         }
     }
 
+    private void startEntityIndex() {
+        EntityIndex index = metrics.getEntityIndex();
+        index.start();
+        plugin.getServer().getPluginManager().registerEvents(index, plugin);
+        try {
+            Class.forName(EntityTrackingListener.EVENT_CLASS);
+        } catch (ClassNotFoundException ex) {
+            plugin.getLogger().warning("Live entity counts need Paper's EntityAddToWorldEvent; counts refresh once per chunk scan pass.");
+            return;
+        }
+        entityListener = new EntityTrackingListener(index);
+        plugin.getServer().getPluginManager().registerEvents(entityListener, plugin);
+    }
+
+    private void stopEntityIndex() {
+        HandlerList.unregisterAll(metrics.getEntityIndex());
+        if (entityListener != null) {
+            HandlerList.unregisterAll(entityListener);
+            entityListener = null;
+        }
+        metrics.getEntityIndex().clear();
+    }
+
+    private void startTickHistogram() {
+        stopTickHistogram();
+        if (!configFiles.getMain().getBoolean("performance.tick-histogram.enabled", true)) {
+            return;
+        }
+        try {
+            Class.forName(TickDurationListener.EVENT_CLASS);
+        } catch (ClassNotFoundException ex) {
+            plugin.getLogger().warning("Tick percentiles need Paper's ServerTickEndEvent; p50/p95/p99 MSPT is unavailable.");
+            return;
+        }
+        tickListener = new TickDurationListener(metrics.getTickHistogram());
+        plugin.getServer().getPluginManager().registerEvents(tickListener, plugin);
+    }
+
+    private void stopTickHistogram() {
+        if (tickListener != null) {
+            HandlerList.unregisterAll(tickListener);
+            tickListener = null;
+        }
+    }
+
+    private void startSpikeWatchdog() {
+        if (!configFiles.getMain().getBoolean("performance.spikes.enabled", true)) {
+            return;
+        }
+        try {
+            Class.forName(SpikeWatchdog.EVENT_CLASS);
+        } catch (ClassNotFoundException ex) {
+            plugin.getLogger().warning("Lag spike capture needs Paper's ServerTickStartEvent; /pulse spikes is unavailable.");
+            return;
+        }
+        plugin.getServer().getPluginManager().registerEvents(spikeWatchdog, plugin);
+        spikeWatchdog.start();
+    }
+
+    private void stopSpikeWatchdog() {
+        if (spikeWatchdog != null) {
+            HandlerList.unregisterAll(spikeWatchdog);
+            spikeWatchdog.stop();
+            spikeWatchdog = null;
+        }
+    }
+
     private void startAlerts() {
         stopAlerts();
         alertService = new AlertService(plugin, configFiles, metrics);
@@ -122,7 +218,7 @@ public class PerformanceModule implements PulseModule {
             historyRepository = null;
             return;
         }
-        historyRepository = new PerformanceHistoryRepository(plugin, StorageFactory.create(plugin, configFiles.getMain()));
+        historyRepository = new PerformanceHistoryRepository(plugin, plugin.getStorage());
         historyRepository.init();
     }
 
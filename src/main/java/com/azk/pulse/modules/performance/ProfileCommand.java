@@ -0,0 +1,137 @@
+package com.azk.pulse.modules.performance;
+
+import com.azk.pulse.commands.PulseSubcommand;
+import com.azk.pulse.core.MessageUtil;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.bukkit.command.CommandSender;
+import org.bukkit.plugin.java.JavaPlugin;
+
+public class ProfileCommand implements PulseSubcommand {
+    private final JavaPlugin plugin;
+    private final SamplingProfiler profiler;
+
+    public ProfileCommand(JavaPlugin plugin, SamplingProfiler profiler) {
+        this.plugin = plugin;
+        this.profiler = profiler;
+    }
+
+    @Override
+    public String name() {
+        return "profile";
+    }
+
+    @Override
+    public String module() {
+        return "performance";
+    }
+
+    @Override
+    public String permission() {
+        return "pulse.admin";
+    }
+
+    @Override
+    public boolean execute(CommandSender sender, String[] args) {
+        MessageUtil.sendTitleKey(sender, plugin, "profile.title");
+        String action = args.length >= 1 ? args[0].toLowerCase(Locale.ROOT) : "";
+        switch (action) {
+            case "start" -> start(sender, args.length >= 2 ? parseSeconds(args[1]) : 0L);
+            case "stop" -> {
+                if (profiler.stop()) {
+                    MessageUtil.sendKey(sender, plugin, "profile.stopping");
+                } else {
+                    MessageUtil.sendWarningKey(sender, plugin, "profile.not-running");
+                }
+            }
+            default -> {
+                if (profiler.isRunning()) {
+                    MessageUtil.sendKey(sender, plugin, "profile.running",
+                            Map.of("elapsed", Long.toString(profiler.getRunningMillis() / 1000L)));
+                } else if (profiler.getLastResult() != null) {
+                    showResult(sender, profiler.getLastResult());
+                } else {
+                    MessageUtil.sendWarningKey(sender, plugin, "profile.none");
+                }
+                MessageUtil.sendKey(sender, plugin, "profile.usage");
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public List<String> tabComplete(CommandSender sender, String[] args) {
+        if (args.length == 1) {
+            return List.of("start", "stop");
+        }
+        if (args.length == 2 && args[0].equalsIgnoreCase("start")) {
+            return List.of("30", "60", "300");
+        }
+        return List.of();
+    }
+
+    private void start(CommandSender sender, long seconds) {
+        boolean started = profiler.start(seconds * 1000L, result -> {
+            if (plugin.isEnabled()) {
+                plugin.getServer().getScheduler().runTask(plugin, () -> showResult(sender, result));
+            }
+        });
+        if (!started) {
+            MessageUtil.sendWarningKey(sender, plugin, "profile.already-running");
+            return;
+        }
+        long limit = seconds > 0 ? Math.min(seconds * 1000L, profiler.getMaxDurationMillis())
+                : profiler.getMaxDurationMillis();
+        MessageUtil.sendSuccessKey(sender, plugin, "profile.started", Map.of(
+                "seconds", Long.toString(limit / 1000L),
+                "interval", Long.toString(profiler.getIntervalMillis())
+        ));
+    }
+
+    private void showResult(CommandSender sender, SamplingProfiler.ProfileResult result) {
+        MessageUtil.sendSectionKey(sender, plugin, "profile.summary", Map.of(
+                "duration", Long.toString(result.durationMillis() / 1000L),
+                "samples", Integer.toString(result.samples()),
+                "main", Integer.toString(result.mainSamples()),
+                "async", Integer.toString(result.asyncSamples())
+        ));
+        if (result.samples() == 0) {
+            MessageUtil.sendWarningKey(sender, plugin, "profile.no-samples");
+            return;
+        }
+        int shown = 0;
+        for (SamplingProfiler.PluginShare share : result.plugins()) {
+            if (shown++ >= 8) {
+                break;
+            }
+            MessageUtil.sendKey(sender, plugin, "profile.line", Map.of(
+                    "plugin", share.plugin() != null ? share.plugin() : MessageUtil.tr(plugin, "profile.server"),
+                    "share", String.format(Locale.US, "%.1f", result.share(share)),
+                    "main", Integer.toString(share.mainSamples()),
+                    "async", Integer.toString(share.asyncSamples())
+            ));
+        }
+        if (result.export() != null) {
+            MessageUtil.sendKey(sender, plugin, "profile.exported", Map.of("path", result.export().getAbsolutePath()));
+        } else if (result.exportError() != null) {
+            MessageUtil.sendErrorKey(sender, plugin, "profile.export-failed", Map.of("error", result.exportError()));
+        }
+    }
+
+    private long parseSeconds(String input) {
+        String value = input.toLowerCase(Locale.ROOT).trim();
+        long unit = 1L;
+        if (value.endsWith("m")) {
+            unit = 60L;
+            value = value.substring(0, value.length() - 1);
+        } else if (value.endsWith("s")) {
+            value = value.substring(0, value.length() - 1);
+        }
+        try {
+            return Math.max(0L, Long.parseLong(value) * unit);
+        } catch (NumberFormatException ex) {
+            return 0L;
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.azk.pulse.modules.performance;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.java.JavaPlugin;
+
+/**
+ * Samples the main thread and the async scheduler pool at a fixed rate. Only RUNNABLE samples count, and each
+ * one is charged to the innermost frame owned by a plugin, so a plugin calling into expensive server code
+ * still carries that cost. Results are a per-plugin share plus collapsed stacks for flame graph tools.
+ */
+public class SamplingProfiler {
+    private static final String ASYNC_THREAD_PREFIX = "Craft Scheduler Thread";
+
+    private final JavaPlugin plugin;
+    private final long intervalMillis;
+    private final int maxDepth;
+    private final long maxDurationMillis;
+    private final long mainThreadId;
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private volatile Session session;
+    private volatile ProfileResult lastResult;
+
+    public SamplingProfiler(JavaPlugin plugin, long intervalMillis, int maxDepth, long maxDurationMillis) {
+        this.plugin = plugin;
+        this.intervalMillis = Math.max(1L, intervalMillis);
+        this.maxDepth = Math.max(8, maxDepth);
+        this.maxDurationMillis = Math.max(1000L, maxDurationMillis);
+        this.mainThreadId = Thread.currentThread().threadId();
+    }
+
+    public synchronized boolean start(long durationMillis, Consumer<ProfileResult> completed) {
+        if (session != null) {
+            return false;
+        }
+        long limit = durationMillis > 0 ? Math.min(durationMillis, maxDurationMillis) : maxDurationMillis;
+        Session started = new Session(System.currentTimeMillis(), limit,
+                new Owners(plugin.getServer().getPluginManager().getPlugins()), completed);
+        session = started;
+        Thread thread = new Thread(() -> run(started), "Pulse-Profiler");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    public synchronized boolean stop() {
+        Session current = session;
+        if (current == null) {
+            return false;
+        }
+        current.active = false;
+        session = null;
+        return true;
+    }
+
+    public boolean isRunning() {
+        return session != null;
+    }
+
+    public long getRunningMillis() {
+        Session current = session;
+        return current != null ? System.currentTimeMillis() - current.startedAt : 0L;
+    }
+
+    public long getIntervalMillis() {
+        return intervalMillis;
+    }
+
+    public long getMaxDurationMillis() {
+        return maxDurationMillis;
+    }
+
+    public ProfileResult getLastResult() {
+        return lastResult;
+    }
+
+    private void run(Session session) {
+        CallNode mainRoot = new CallNode("main");
+        CallNode asyncRoot = new CallNode("async");
+        Map<String, int[]> owners = new HashMap<>();
+        long[] ids = { mainThreadId };
+        long nextRefresh = 0L;
+        long deadline = session.startedAt + session.limitMillis;
+        try {
+            while (session.active && System.currentTimeMillis() < deadline) {
+                long now = System.currentTimeMillis();
+                if (now >= nextRefresh) {
+                    ids = sampledThreadIds();
+                    nextRefresh = now + 1000L;
+                }
+                for (ThreadInfo info : threads.getThreadInfo(ids, maxDepth)) {
+                    if (info == null || info.getThreadState() != Thread.State.RUNNABLE) {
+                        continue;
+                    }
+                    boolean main = info.getThreadId() == mainThreadId;
+                    StackTraceElement[] stack = info.getStackTrace();
+                    (main ? mainRoot : asyncRoot).add(stack);
+                    owners.computeIfAbsent(session.owners.owner(stack), ignored -> new int[2])[main ? 0 : 1]++;
+                }
+                Thread.sleep(intervalMillis);
+            }
+        } catch (InterruptedException ignored) {
+        } catch (RuntimeException ex) {
+            plugin.getLogger().warning("Profiler stopped after a sampling failure: " + ex.getMessage());
+        }
+        synchronized (this) {
+            if (this.session == session) {
+                this.session = null;
+            }
+        }
+
+        List<PluginShare> shares = new ArrayList<>();
+        for (Map.Entry<String, int[]> entry : owners.entrySet()) {
+            shares.add(new PluginShare(entry.getKey(), entry.getValue()[0], entry.getValue()[1]));
+        }
+        shares.sort(Comparator.comparingInt(PluginShare::samples).reversed());
+        File export = null;
+        String exportError = null;
+        if (mainRoot.samples() + asyncRoot.samples() > 0) {
+            export = new File(new File(plugin.getDataFolder(), "exports"),
+                    "profile-" + DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").format(LocalDateTime.now()) + ".txt");
+            try {
+                writeCollapsed(export, mainRoot, asyncRoot);
+            } catch (IOException ex) {
+                exportError = ex.getMessage();
+                export = null;
+            }
+        }
+        ProfileResult result = new ProfileResult(Instant.ofEpochMilli(session.startedAt),
+                System.currentTimeMillis() - session.startedAt, mainRoot.samples(), asyncRoot.samples(),
+                List.copyOf(shares), export, exportError);
+        lastResult = result;
+        if (session.completed != null) {
+            session.completed.accept(result);
+        }
+    }
+
+    private long[] sampledThreadIds() {
+        long[] all = threads.getAllThreadIds();
+        long[] sampled = new long[all.length + 1];
+        int size = 0;
+        sampled[size++] = mainThreadId;
+        for (ThreadInfo info : threads.getThreadInfo(all, 0)) {
+            if (info != null && info.getThreadId() != mainThreadId
+                    && info.getThreadName().startsWith(ASYNC_THREAD_PREFIX)) {
+                sampled[size++] = info.getThreadId();
+            }
+        }
+        return Arrays.copyOf(sampled, size);
+    }
+
+    private void writeCollapsed(File file, CallNode mainRoot, CallNode asyncRoot) throws IOException {
+        List<String> lines = new ArrayList<>();
+        mainRoot.folded(lines);
+        asyncRoot.folded(lines);
+        Files.createDirectories(file.getParentFile().toPath());
+        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            for (String line : lines) {
+                writer.write(line);
+                writer.newLine();
+            }
+        }
+    }
+
+    private static final class Session {
+        private final long startedAt;
+        private final long limitMillis;
+        private final Owners owners;
+        private final Consumer<ProfileResult> completed;
+        private volatile boolean active = true;
+
+        private Session(long startedAt, long limitMillis, Owners owners, Consumer<ProfileResult> completed) {
+            this.startedAt = startedAt;
+            this.limitMillis = limitMillis;
+            this.owners = owners;
+            this.completed = completed;
+        }
+    }
+
+    /**
+     * Maps frames to plugins. Paper names each plugin class loader after its jar, which shows up in
+     * {@link StackTraceElement#getClassLoaderName()}; without loader names the plugin main class package is used.
+     */
+    private static final class Owners {
+        private final Map<String, String> byLoader = new HashMap<>();
+        private final List<String[]> byPackage = new ArrayList<>();
+        private final Map<String, String> byClass = new HashMap<>();
+
+        private Owners(Plugin[] plugins) {
+            ClassLoader serverLoader = Bukkit.class.getClassLoader();
+            for (Plugin owner : plugins) {
+                ClassLoader loader = owner.getClass().getClassLoader();
+                if (loader != null && loader != serverLoader && loader.getName() != null) {
+                    byLoader.put(loader.getName(), owner.getName());
+                }
+                String packageName = owner.getClass().getPackageName();
+                if (!packageName.isEmpty()) {
+                    byPackage.add(new String[] { packageName + ".", owner.getName() });
+                }
+            }
+            byPackage.sort(Comparator.comparingInt((String[] entry) -> entry[0].length()).reversed());
+        }
+
+        private String owner(StackTraceElement[] stack) {
+            for (StackTraceElement frame : stack) {
+                String owner = owner(frame);
+                if (owner != null) {
+                    return owner;
+                }
+            }
+            return null;
+        }
+
+        private String owner(StackTraceElement frame) {
+            String loaderName = frame.getClassLoaderName();
+            if (loaderName != null && !byLoader.isEmpty()) {
+                return byLoader.get(loaderName);
+            }
+            String className = frame.getClassName();
+            String owner = byClass.get(className);
+            if (owner == null) {
+                owner = "";
+                for (String[] entry : byPackage) {
+                    if (className.startsWith(entry[0])) {
+                        owner = entry[1];
+                        break;
+                    }
+                }
+                byClass.put(className, owner);
+            }
+            return owner.isEmpty() ? null : owner;
+        }
+    }
+
+    public record PluginShare(String plugin, int mainSamples, int asyncSamples) {
+        public int samples() {
+            return mainSamples + asyncSamples;
+        }
+    }
+
+    public record ProfileResult(Instant started, long durationMillis, int mainSamples, int asyncSamples,
+                                List<PluginShare> plugins, File export, String exportError) {
+        public int samples() {
+            return mainSamples + asyncSamples;
+        }
+
+        public double share(PluginShare share) {
+            int total = samples();
+            return total > 0 ? share.samples() * 100.0 / total : 0.0;
+        }
+
+        public PluginShare heaviestPlugin() {
+            for (PluginShare share : plugins) {
+                if (share.plugin() != null) {
+                    return share;
+                }
+            }
+            return null;
+        }
+    }
+}
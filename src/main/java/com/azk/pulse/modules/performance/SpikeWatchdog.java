@@ -0,0 +1,219 @@
+package com.azk.pulse.modules.performance;
+
+import com.destroystokyo.paper.event.server.ServerTickEndEvent;
+import com.destroystokyo.paper.event.server.ServerTickStartEvent;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.java.JavaPlugin;
+
+/**
+ * Watches the running tick from a daemon thread. While a tick stays under the budget the thread only sleeps
+ * until the budget would be exceeded; once it is, the main thread stack is sampled every sample interval and
+ * folded into a call tree that becomes a {@link SpikeReport} when the tick ends.
+ */
+public class SpikeWatchdog implements Listener {
+    static final String EVENT_CLASS = "com.destroystokyo.paper.event.server.ServerTickStartEvent";
+    private static final int ENDED_TICKS = 64;
+
+    private final JavaPlugin plugin;
+    private final long budgetNanos;
+    private final long sampleMillis;
+    private final int maxDepth;
+    private final int maxReports;
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final Deque<SpikeReport> reports = new ArrayDeque<>();
+    // Tick number in the high half, duration in microseconds in the low half, so catch-up ticks that end while
+    // the watchdog sleeps cannot be mistaken for the spike's own end.
+    private final AtomicLongArray endedTicks = new AtomicLongArray(ENDED_TICKS);
+    private volatile long tickStart;
+    private volatile int tickNumber;
+    private volatile boolean running;
+    private long mainThreadId;
+    private long nextId;
+    private volatile Thread thread;
+
+    public SpikeWatchdog(JavaPlugin plugin, long budgetMillis, long sampleMillis, int maxDepth, int maxReports) {
+        this.plugin = plugin;
+        this.budgetNanos = Math.max(1L, budgetMillis) * 1_000_000L;
+        this.sampleMillis = Math.max(1L, sampleMillis);
+        this.maxDepth = Math.max(8, maxDepth);
+        this.maxReports = Math.max(1, maxReports);
+    }
+
+    public void start() {
+        if (thread != null) {
+            return;
+        }
+        mainThreadId = Thread.currentThread().threadId();
+        running = true;
+        thread = new Thread(this::run, "Pulse-SpikeWatchdog");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public long getBudgetMillis() {
+        return budgetNanos / 1_000_000L;
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onTickStart(ServerTickStartEvent event) {
+        tickNumber = event.getTickNumber();
+        tickStart = System.nanoTime();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onTickEnd(ServerTickEndEvent event) {
+        long start = tickStart;
+        if (start != 0L) {
+            long micros = Math.min(0xFFFFFFFFL, (System.nanoTime() - start) / 1_000L);
+            endedTicks.set(Math.floorMod(event.getTickNumber(), ENDED_TICKS),
+                    ((long) event.getTickNumber() << 32) | micros);
+        }
+        tickStart = 0L;
+    }
+
+    public synchronized List<SpikeReport> getReports() {
+        List<SpikeReport> newestFirst = new ArrayList<>(reports);
+        Collections.reverse(newestFirst);
+        return newestFirst;
+    }
+
+    public synchronized SpikeReport find(long id) {
+        for (SpikeReport report : reports) {
+            if (report.id() == id) {
+                return report;
+            }
+        }
+        return null;
+    }
+
+    private void run() {
+        Spike current = null;
+        while (running && thread == Thread.currentThread()) {
+            long start = tickStart;
+            if (current != null && current.tickStart != start) {
+                finish(current);
+                current = null;
+            }
+            long waitNanos = start != 0L ? start + budgetNanos - System.nanoTime() : sampleMillis * 1_000_000L;
+            if (start != 0L && waitNanos <= 0L) {
+                if (current == null) {
+                    current = new Spike(start, tickNumber);
+                }
+                sample(current);
+                waitNanos = sampleMillis * 1_000_000L;
+            }
+            try {
+                Thread.sleep(Math.max(1L, waitNanos / 1_000_000L));
+            } catch (InterruptedException ex) {
+                return;
+            }
+        }
+    }
+
+    private void sample(Spike spike) {
+        ThreadInfo info;
+        try {
+            info = threads.getThreadInfo(mainThreadId, maxDepth);
+        } catch (RuntimeException ex) {
+            plugin.getLogger().warning("Failed to sample main thread during lag spike: " + ex.getMessage());
+            running = false;
+            thread = null;
+            return;
+        }
+        if (info == null) {
+            return;
+        }
+        spike.root.add(info.getStackTrace());
+    }
+
+    private void finish(Spike spike) {
+        if (spike.root.samples() == 0) {
+            return;
+        }
+        long ended = endedTicks.get(Math.floorMod(spike.tickNumber, ENDED_TICKS));
+        double durationMillis = (int) (ended >>> 32) == spike.tickNumber
+                ? (ended & 0xFFFFFFFFL) / 1_000.0
+                : (System.nanoTime() - spike.tickStart) / 1_000_000.0;
+        SpikeReport report;
+        synchronized (this) {
+            report = new SpikeReport(++nextId, Instant.now(), spike.tickNumber, durationMillis, spike.root);
+            reports.addLast(report);
+            while (reports.size() > maxReports) {
+                reports.pollFirst();
+            }
+        }
+        List<HotFrame> hottest = report.hotFrames(1);
+        plugin.getLogger().warning(String.format(Locale.US, "Lag spike #%d: tick %d took %.1f ms, hottest frame %s",
+                report.id(), report.tickNumber(), report.durationMillis(),
+                hottest.isEmpty() ? "?" : hottest.get(0).frame()));
+    }
+
+    private static final class Spike {
+        private final long tickStart;
+        private final int tickNumber;
+        private final CallNode root = new CallNode("tick");
+
+        private Spike(long tickStart, int tickNumber) {
+            this.tickStart = tickStart;
+            this.tickNumber = tickNumber;
+        }
+    }
+
+    public record HotFrame(String frame, String caller, int samples) {
+    }
+
+    public record SpikeReport(long id, Instant time, int tickNumber, double durationMillis, CallNode root) {
+        public int samples() {
+            return root.samples();
+        }
+
+        public List<HotFrame> hotFrames(int limit) {
+            List<HotFrame> frames = new ArrayList<>();
+            collectHot(root, null, frames);
+            frames.sort(Comparator.comparingInt(HotFrame::samples).reversed());
+            return frames.size() > limit ? frames.subList(0, limit) : frames;
+        }
+
+        public List<String> folded() {
+            List<String> lines = new ArrayList<>();
+            root.folded(lines);
+            return lines;
+        }
+
+        private static void collectHot(CallNode node, String caller, List<HotFrame> frames) {
+            int self = node.selfSamples();
+            if (self > 0 && caller != null) {
+                frames.add(new HotFrame(node.frame(), caller, self));
+            }
+            for (CallNode child : node.children()) {
+                collectHot(child, node.frame(), frames);
+            }
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.azk.pulse.modules.performance;
+
+import com.azk.pulse.commands.PulseSubcommand;
+import com.azk.pulse.core.MessageUtil;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.bukkit.command.CommandSender;
+import org.bukkit.plugin.java.JavaPlugin;
+
+public class SpikesCommand implements PulseSubcommand {
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss")
+            .withZone(ZoneId.systemDefault());
+
+    private final JavaPlugin plugin;
+    private final SpikeWatchdog watchdog;
+
+    public SpikesCommand(JavaPlugin plugin, SpikeWatchdog watchdog) {
+        this.plugin = plugin;
+        this.watchdog = watchdog;
+    }
+
+    @Override
+    public String name() {
+        return "spikes";
+    }
+
+    @Override
+    public String module() {
+        return "performance";
+    }
+
+    @Override
+    public String permission() {
+        return "pulse.admin";
+    }
+
+    @Override
+    public boolean execute(CommandSender sender, String[] args) {
+        MessageUtil.sendTitleKey(sender, plugin, "spikes.title");
+        if (args.length >= 1 && args[0].equalsIgnoreCase("export")) {
+            if (args.length < 2) {
+                MessageUtil.sendKey(sender, plugin, "spikes.usage");
+                return true;
+            }
+            SpikeWatchdog.SpikeReport report = findReport(sender, args[1]);
+            if (report != null) {
+                export(sender, report);
+            }
+            return true;
+        }
+        if (args.length >= 1) {
+            SpikeWatchdog.SpikeReport report = findReport(sender, args[0]);
+            if (report != null) {
+                showReport(sender, report);
+            }
+            return true;
+        }
+
+        List<SpikeWatchdog.SpikeReport> reports = watchdog.getReports();
+        if (reports.isEmpty()) {
+            if (watchdog.isRunning()) {
+                MessageUtil.sendWarningKey(sender, plugin, "spikes.none",
+                        Map.of("threshold", Long.toString(watchdog.getBudgetMillis())));
+            } else {
+                MessageUtil.sendWarningKey(sender, plugin, "spikes.unavailable");
+            }
+            return true;
+        }
+        for (SpikeWatchdog.SpikeReport report : reports) {
+            List<SpikeWatchdog.HotFrame> hottest = report.hotFrames(1);
+            MessageUtil.sendKey(sender, plugin, "spikes.line", Map.of(
+                    "id", Long.toString(report.id()),
+                    "time", TIME_FORMAT.format(report.time()),
+                    "duration", String.format(Locale.US, "%.1f", report.durationMillis()),
+                    "samples", Integer.toString(report.samples()),
+                    "frame", hottest.isEmpty() ? "?" : shortFrame(hottest.get(0).frame())
+            ));
+        }
+        MessageUtil.sendKey(sender, plugin, "spikes.usage");
+        return true;
+    }
+
+    @Override
+    public List<String> tabComplete(CommandSender sender, String[] args) {
+        List<String> ids = new ArrayList<>();
+        for (SpikeWatchdog.SpikeReport report : watchdog.getReports()) {
+            ids.add(Long.toString(report.id()));
+        }
+        if (args.length == 1) {
+            ids.add("export");
+            return ids;
+        }
+        if (args.length == 2 && args[0].equalsIgnoreCase("export")) {
+            return ids;
+        }
+        return List.of();
+    }
+
+    private SpikeWatchdog.SpikeReport findReport(CommandSender sender, String input) {
+        String value = input.startsWith("#") ? input.substring(1) : input;
+        try {
+            SpikeWatchdog.SpikeReport report = watchdog.find(Long.parseLong(value));
+            if (report != null) {
+                return report;
+            }
+        } catch (NumberFormatException ignored) {
+        }
+        MessageUtil.sendErrorKey(sender, plugin, "spikes.not-found", Map.of("id", input));
+        return null;
+    }
+
+    private void showReport(CommandSender sender, SpikeWatchdog.SpikeReport report) {
+        MessageUtil.sendSectionKey(sender, plugin, "spikes.report", Map.of(
+                "id", Long.toString(report.id()),
+                "time", TIME_FORMAT.format(report.time()),
+                "duration", String.format(Locale.US, "%.1f", report.durationMillis()),
+                "samples", Integer.toString(report.samples())
+        ));
+        int samples = Math.max(1, report.samples());
+        for (SpikeWatchdog.HotFrame frame : report.hotFrames(8)) {
+            MessageUtil.sendKey(sender, plugin, "spikes.frame", Map.of(
+                    "percent", String.format(Locale.US, "%.0f", frame.samples() * 100.0 / samples),
+                    "frame", shortFrame(frame.frame()),
+                    "caller", shortFrame(frame.caller())
+            ));
+        }
+        MessageUtil.sendKey(sender, plugin, "spikes.export-hint", Map.of("id", Long.toString(report.id())));
+    }
+
+    private void export(CommandSender sender, SpikeWatchdog.SpikeReport report) {
+        String name = "spike-" + report.id() + "-"
+                + DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").format(LocalDateTime.now()) + ".txt";
+        File file = new File(new File(plugin.getDataFolder(), "exports"), name);
+        try {
+            Files.createDirectories(file.getParentFile().toPath());
+            try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+                for (String line : report.folded()) {
+                    writer.write(line);
+                    writer.newLine();
+                }
+            }
+            MessageUtil.sendSuccessKey(sender, plugin, "spikes.export.success", Map.of("path", file.getAbsolutePath()));
+        } catch (IOException ex) {
+            MessageUtil.sendErrorKey(sender, plugin, "spikes.export.failed", Map.of("error", ex.getMessage()));
+        }
+    }
+
+    private String shortFrame(String frame) {
+        int method = frame.lastIndexOf('.');
+        int owner = method > 0 ? frame.lastIndexOf('.', method - 1) : -1;
+        return owner >= 0 ? frame.substring(owner + 1) : frame;
+    }
+}
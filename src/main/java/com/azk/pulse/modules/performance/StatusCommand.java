@@ -1,9 +1,20 @@
 package com.azk.pulse.modules.performance;
 
+import com.azk.pulse.PulsePlugin;
 import com.azk.pulse.commands.PulseSubcommand;
 import com.azk.pulse.core.MessageUtil;
+import com.azk.pulse.modules.logs.LogRepository;
+import com.azk.pulse.modules.logs.LogRetention;
+import com.azk.pulse.modules.logs.LogSegmentStore;
+import com.azk.pulse.modules.logs.LogWriteQueue;
+import com.azk.pulse.modules.logs.LookupCache;
+import com.azk.pulse.modules.logs.LogsModule;
+import com.azk.pulse.storage.ConnectionPool;
+import com.azk.pulse.storage.StorageService;
+import java.time.Duration;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import org.bukkit.command.CommandSender;
 import org.bukkit.plugin.java.JavaPlugin;
 
@@ -57,6 +68,18 @@ public class StatusCommand implements PulseSubcommand {
         MessageUtil.sendKeyValueKey(sender, plugin, "status.loaded-chunks", Integer.toString(chunks));
         MessageUtil.sendKeyValueKey(sender, plugin, "status.entities", Integer.toString(entities));
         MessageUtil.sendKeyValueKey(sender, plugin, "status.mspt", msptLine);
+        sendTickPercentiles(sender, notAvailable);
+        ChunkScanner.Snapshot scan = metrics.getChunkScanner().getLatest();
+        MessageUtil.sendKeyValueKey(sender, plugin, "status.chunk-scan",
+                scan != null ? scan.describe(plugin) : MessageUtil.tr(plugin, "status.chunk-scan-pending"));
+        if (plugin instanceof PulsePlugin pulsePlugin) {
+            LogRepository logRepository = logRepository(pulsePlugin);
+            sendLogWriterStats(sender, logRepository);
+            sendLogRetentionStats(sender, logRepository);
+            sendLogSegmentStats(sender, logRepository);
+            sendLookupCacheStats(sender, logRepository);
+            sendPoolStats(sender, pulsePlugin.getStorage());
+        }
         return true;
     }
 
@@ -65,6 +88,117 @@ public class StatusCommand implements PulseSubcommand {
         return List.of();
     }
 
+    private void sendTickPercentiles(CommandSender sender, String notAvailable) {
+        TickHistogram.Snapshot minute = metrics.getTickPercentiles(Duration.ofMinutes(1));
+        TickHistogram.Snapshot five = metrics.getTickPercentiles(Duration.ofMinutes(5));
+        TickHistogram.Snapshot fifteen = metrics.getTickPercentiles(Duration.ofMinutes(15));
+        String percentiles = minute.ticks() == 0
+                ? notAvailable
+                : String.format(Locale.US, "%.2f / %.2f / %.2f / %.2f ms",
+                        minute.p50(), minute.p95(), minute.p99(), minute.max());
+        String p99 = minute.ticks() == 0
+                ? notAvailable
+                : String.format(Locale.US, "%.2f / %.2f / %.2f ms", minute.p99(), five.p99(), fifteen.p99());
+        MessageUtil.sendKeyValueKey(sender, plugin, "status.mspt-percentiles", percentiles);
+        MessageUtil.sendKeyValueKey(sender, plugin, "status.mspt-p99", p99);
+    }
+
+    private LogRepository logRepository(PulsePlugin pulsePlugin) {
+        LogsModule logsModule = pulsePlugin.getLogsModule();
+        if (logsModule == null || !logsModule.isEnabled()) {
+            return null;
+        }
+        return logsModule.getRepository();
+    }
+
+    private void sendLogWriterStats(CommandSender sender, LogRepository repository) {
+        LogWriteQueue.Stats stats = repository != null ? repository.getWriterStats() : null;
+        if (stats == null) {
+            return;
+        }
+        MessageUtil.sendKeyValueKey(sender, plugin, "status.log-writer", MessageUtil.tr(plugin,
+                "status.log-writer-value", Map.of(
+                        "queued", Integer.toString(stats.queueDepth()),
+                        "capacity", Integer.toString(stats.capacity()),
+                        "batch", Integer.toString(stats.lastBatchSize()),
+                        "avg-batch", String.format(Locale.US, "%.1f", stats.averageBatchSize()),
+                        "flush", String.format(Locale.US, "%.1f", stats.lastFlushMillis()),
+                        "avg-flush", String.format(Locale.US, "%.1f", stats.averageFlushMillis()),
+                        "max-flush", String.format(Locale.US, "%.1f", stats.maxFlushMillis())
+                )));
+        if (stats.coalesced() > 0) {
+            MessageUtil.sendKeyValueKey(sender, plugin, "status.log-coalesce", MessageUtil.tr(plugin,
+                    "status.log-coalesce-value", Map.of("merged", Long.toString(stats.coalesced()))));
+        }
+        if (stats.dropped() > 0 || stats.failed() > 0) {
+            MessageUtil.sendKeyValueKey(sender, plugin, "status.log-writer-errors", MessageUtil.tr(plugin,
+                    "status.log-writer-errors-value", Map.of(
+                            "written", Long.toString(stats.written()),
+                            "failed", Long.toString(stats.failed()),
+                            "dropped", Long.toString(stats.dropped())
+                    )));
+        }
+    }
+
+    private void sendLogRetentionStats(CommandSender sender, LogRepository repository) {
+        LogRetention.Stats stats = repository != null ? repository.getRetentionStats() : null;
+        if (stats == null) {
+            return;
+        }
+        MessageUtil.sendKeyValueKey(sender, plugin, "status.log-retention", MessageUtil.tr(plugin,
+                "status.log-retention-value", Map.of(
+                        "partitions", Integer.toString(stats.partitions()),
+                        "rows", Long.toString(stats.rowsReclaimed()),
+                        "size", formatMb(stats.bytesReclaimed())
+                )));
+    }
+
+    private void sendLogSegmentStats(CommandSender sender, LogRepository repository) {
+        LogSegmentStore.Stats stats = repository != null ? repository.getSegmentStats() : null;
+        if (stats == null) {
+            return;
+        }
+        MessageUtil.sendKeyValueKey(sender, plugin, "status.log-segments", MessageUtil.tr(plugin,
+                "status.log-segments-value", Map.of(
+                        "segments", Integer.toString(stats.segments()),
+                        "records", Long.toString(stats.records()),
+                        "size", formatMb(stats.bytes())
+                )));
+    }
+
+    private void sendLookupCacheStats(CommandSender sender, LogRepository repository) {
+        LookupCache.Stats stats = repository != null ? repository.getLookupCacheStats() : null;
+        if (stats == null) {
+            return;
+        }
+        MessageUtil.sendKeyValueKey(sender, plugin, "status.lookup-cache", MessageUtil.tr(plugin,
+                "status.lookup-cache-value", Map.of(
+                        "ratio", String.format(Locale.US, "%.0f", stats.hitRatio() * 100.0),
+                        "hits", Long.toString(stats.hits()),
+                        "misses", Long.toString(stats.misses()),
+                        "entries", Integer.toString(stats.entries()),
+                        "invalidated", Long.toString(stats.invalidated())
+                )));
+    }
+
+    private void sendPoolStats(CommandSender sender, StorageService storage) {
+        if (storage == null) {
+            return;
+        }
+        for (ConnectionPool.Stats stats : storage.getPoolStats()) {
+            MessageUtil.sendKeyValueKey(sender, plugin, "status.storage-pool", MessageUtil.tr(plugin,
+                    "status.storage-pool-value", Map.of(
+                            "pool", stats.name(),
+                            "active", Integer.toString(stats.active()),
+                            "idle", Integer.toString(stats.idle()),
+                            "max", Integer.toString(stats.maxSize()),
+                            "waiting", Integer.toString(stats.waiting()),
+                            "timeouts", Long.toString(stats.timeouts()),
+                            "leaks", Long.toString(stats.leaks())
+                    )));
+        }
+    }
+
     private String formatMb(long bytes) {
         return String.format(Locale.US, "%.1f MB", bytes / 1024.0 / 1024.0);
     }
@@ -0,0 +1,21 @@
+package com.azk.pulse.modules.performance;
+
+import com.destroystokyo.paper.event.server.ServerTickEndEvent;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+
+public class TickDurationListener implements Listener {
+    static final String EVENT_CLASS = "com.destroystokyo.paper.event.server.ServerTickEndEvent";
+
+    private final TickHistogram histogram;
+
+    public TickDurationListener(TickHistogram histogram) {
+        this.histogram = histogram;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onTickEnd(ServerTickEndEvent event) {
+        histogram.record((long) (event.getTickDuration() * 1_000_000.0));
+    }
+}
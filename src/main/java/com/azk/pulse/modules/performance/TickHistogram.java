@@ -0,0 +1,115 @@
+package com.azk.pulse.modules.performance;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-memory tick duration histogram. Durations are kept in microseconds in log2 buckets split into
+ * 16 linear sub-buckets (about 6% precision), one bucket set per time slot, so sliding windows are a sum of
+ * the most recent slots. Recording never allocates and is meant for a single writer (the main thread).
+ */
+public class TickHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 26;
+    private static final long MAX_MICROS = (1L << (MAX_EXPONENT + 1)) - 1L;
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final long slotNanos;
+    private final int slots;
+    private final AtomicIntegerArray counts;
+    private final AtomicLongArray epochs;
+    private final AtomicLongArray maxima;
+
+    public TickHistogram(int slotSeconds, int maxWindowSeconds) {
+        int slotLength = Math.max(1, slotSeconds);
+        this.slotNanos = slotLength * 1_000_000_000L;
+        this.slots = (Math.max(slotLength, maxWindowSeconds) + slotLength - 1) / slotLength + 2;
+        this.counts = new AtomicIntegerArray(slots * BUCKETS);
+        this.epochs = new AtomicLongArray(slots);
+        this.maxima = new AtomicLongArray(slots);
+        for (int slot = 0; slot < slots; slot++) {
+            epochs.set(slot, Long.MIN_VALUE);
+        }
+    }
+
+    public void record(long durationNanos) {
+        long epoch = System.nanoTime() / slotNanos;
+        int slot = (int) Math.floorMod(epoch, (long) slots);
+        int base = slot * BUCKETS;
+        if (epochs.get(slot) != epoch) {
+            for (int i = 0; i < BUCKETS; i++) {
+                counts.set(base + i, 0);
+            }
+            maxima.set(slot, 0L);
+            epochs.set(slot, epoch);
+        }
+        long micros = Math.min(MAX_MICROS, Math.max(0L, durationNanos / 1000L));
+        counts.incrementAndGet(base + bucket(micros));
+        if (micros > maxima.get(slot)) {
+            maxima.set(slot, micros);
+        }
+    }
+
+    public Snapshot snapshot(long windowMillis) {
+        long current = System.nanoTime() / slotNanos;
+        long windowNanos = Math.max(1L, windowMillis) * 1_000_000L;
+        int span = (int) Math.min(slots - 1L, (windowNanos + slotNanos - 1L) / slotNanos + 1L);
+        long[] merged = new long[BUCKETS];
+        long ticks = 0L;
+        long max = 0L;
+        for (int back = 0; back < span; back++) {
+            long epoch = current - back;
+            int slot = (int) Math.floorMod(epoch, (long) slots);
+            if (epochs.get(slot) != epoch) {
+                continue;
+            }
+            int base = slot * BUCKETS;
+            for (int i = 0; i < BUCKETS; i++) {
+                int count = counts.get(base + i);
+                merged[i] += count;
+                ticks += count;
+            }
+            max = Math.max(max, maxima.get(slot));
+        }
+        if (ticks == 0L) {
+            return Snapshot.EMPTY;
+        }
+        return new Snapshot(ticks, percentile(merged, ticks, 0.50, max), percentile(merged, ticks, 0.95, max),
+                percentile(merged, ticks, 0.99, max), max / 1000.0);
+    }
+
+    private static double percentile(long[] merged, long ticks, double quantile, long max) {
+        long rank = Math.max(1L, (long) Math.ceil(quantile * ticks));
+        long seen = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += merged[i];
+            if (seen >= rank) {
+                return Math.min(highestEquivalent(i), max) / 1000.0;
+            }
+        }
+        return max / 1000.0;
+    }
+
+    private static int bucket(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int sub = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    private static long highestEquivalent(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lower + (1L << shift) - 1L;
+    }
+
+    public record Snapshot(long ticks, double p50, double p95, double p99, double max) {
+        public static final Snapshot EMPTY = new Snapshot(0L, -1.0, -1.0, -1.0, -1.0);
+    }
+}
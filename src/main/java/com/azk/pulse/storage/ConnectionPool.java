@@ -0,0 +1,327 @@
+package com.azk.pulse.storage;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import org.bukkit.plugin.java.JavaPlugin;
+
+public class ConnectionPool {
+    private static final long VALIDATE_AFTER_IDLE_MILLIS = 500L;
+    private static final long MAX_HOUSEKEEPING_MILLIS = 30_000L;
+
+    private final JavaPlugin plugin;
+    private final String name;
+    private final ConnectionFactory factory;
+    private final Settings settings;
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+    private final Semaphore permits;
+    private final AtomicInteger total = new AtomicInteger();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong leaks = new AtomicLong();
+    private ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    public ConnectionPool(JavaPlugin plugin, String name, ConnectionFactory factory, Settings settings) {
+        this.plugin = plugin;
+        this.name = name;
+        this.factory = factory;
+        this.settings = settings;
+        this.permits = new Semaphore(settings.maxSize(), true);
+    }
+
+    public void start() {
+        fillToMinimum();
+        long period = MAX_HOUSEKEEPING_MILLIS;
+        if (settings.idleTimeoutMillis() > 0) {
+            period = Math.min(period, settings.idleTimeoutMillis() / 2);
+        }
+        if (settings.leakDetectionMillis() > 0) {
+            period = Math.min(period, settings.leakDetectionMillis() / 2);
+        }
+        period = Math.max(1000L, period);
+        housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Pulse-Pool-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        housekeeper.scheduleWithFixedDelay(this::maintain, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool " + name + " is closed.");
+        }
+        waiting.incrementAndGet();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(settings.connectionTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection from pool " + name + ".", ex);
+        } finally {
+            waiting.decrementAndGet();
+        }
+        if (!acquired) {
+            timeouts.incrementAndGet();
+            throw new SQLException("Timed out after " + settings.connectionTimeoutMillis()
+                    + " ms waiting for a connection from pool " + name + ".");
+        }
+
+        try {
+            PooledConnection pooled = takeIdle();
+            if (pooled == null) {
+                pooled = new PooledConnection(factory.create());
+                total.incrementAndGet();
+                created.incrementAndGet();
+            }
+            pooled.borrowedAt = System.currentTimeMillis();
+            pooled.borrowSite = settings.leakDetectionMillis() > 0
+                    ? new Exception("Connection borrowed from pool " + name + " by " + Thread.currentThread().getName())
+                    : null;
+            pooled.leakReported = false;
+            borrowed.add(pooled);
+            return pooled.newHandle();
+        } catch (SQLException | RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    public void maintain() {
+        if (closed) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (settings.idleTimeoutMillis() > 0) {
+            List<PooledConnection> expired = new ArrayList<>();
+            for (PooledConnection pooled : idle) {
+                if (total.get() - expired.size() <= settings.minSize()) {
+                    break;
+                }
+                if (now - pooled.returnedAt >= settings.idleTimeoutMillis()) {
+                    expired.add(pooled);
+                }
+            }
+            for (PooledConnection pooled : expired) {
+                if (idle.remove(pooled)) {
+                    destroy(pooled);
+                }
+            }
+        }
+        if (settings.leakDetectionMillis() > 0) {
+            for (PooledConnection pooled : borrowed) {
+                if (!pooled.leakReported && now - pooled.borrowedAt >= settings.leakDetectionMillis()) {
+                    pooled.leakReported = true;
+                    leaks.incrementAndGet();
+                    plugin.getLogger().log(Level.WARNING, "Possible connection leak in pool " + name
+                            + ": held for " + (now - pooled.borrowedAt) + " ms.", pooled.borrowSite);
+                }
+            }
+        }
+        fillToMinimum();
+    }
+
+    public void close() {
+        closed = true;
+        if (housekeeper != null) {
+            housekeeper.shutdownNow();
+            housekeeper = null;
+        }
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            destroy(pooled);
+        }
+        if (!borrowed.isEmpty()) {
+            plugin.getLogger().warning("Closing pool " + name + " with " + borrowed.size() + " connection(s) still in use.");
+            for (PooledConnection inUse : borrowed) {
+                destroy(inUse);
+            }
+            borrowed.clear();
+        }
+    }
+
+    public Stats getStats() {
+        return new Stats(name, borrowed.size(), idle.size(), total.get(), settings.maxSize(), waiting.get(),
+                created.get(), timeouts.get(), leaks.get());
+    }
+
+    private PooledConnection takeIdle() {
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            if (System.currentTimeMillis() - pooled.returnedAt < VALIDATE_AFTER_IDLE_MILLIS || isValid(pooled)) {
+                return pooled;
+            }
+            destroy(pooled);
+        }
+        return null;
+    }
+
+    private boolean isValid(PooledConnection pooled) {
+        try {
+            return pooled.connection.isValid(settings.validationTimeoutSeconds());
+        } catch (SQLException ex) {
+            return false;
+        }
+    }
+
+    private void release(PooledConnection pooled) {
+        if (!borrowed.remove(pooled)) {
+            return;
+        }
+        try {
+            if (closed || !reset(pooled)) {
+                destroy(pooled);
+                return;
+            }
+            pooled.returnedAt = System.currentTimeMillis();
+            pooled.borrowSite = null;
+            idle.offerFirst(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private boolean reset(PooledConnection pooled) {
+        try {
+            Connection connection = pooled.connection;
+            if (connection.isClosed()) {
+                return false;
+            }
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            return true;
+        } catch (SQLException ex) {
+            return false;
+        }
+    }
+
+    private void destroy(PooledConnection pooled) {
+        total.decrementAndGet();
+        try {
+            pooled.connection.close();
+        } catch (SQLException ignored) {
+        }
+    }
+
+    private void fillToMinimum() {
+        while (!closed && total.get() < settings.minSize()) {
+            try {
+                PooledConnection pooled = new PooledConnection(factory.create());
+                pooled.returnedAt = System.currentTimeMillis();
+                total.incrementAndGet();
+                created.incrementAndGet();
+                idle.offerLast(pooled);
+            } catch (SQLException ex) {
+                plugin.getLogger().warning("Failed to open connection for pool " + name + ": " + ex.getMessage());
+                return;
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection create() throws SQLException;
+    }
+
+    public record Settings(int minSize, int maxSize, long idleTimeoutMillis, long connectionTimeoutMillis,
+                           int validationTimeoutSeconds, long leakDetectionMillis) {
+        public Settings {
+            maxSize = Math.max(1, maxSize);
+            minSize = Math.max(0, Math.min(minSize, maxSize));
+            idleTimeoutMillis = Math.max(0L, idleTimeoutMillis);
+            connectionTimeoutMillis = Math.max(250L, connectionTimeoutMillis);
+            validationTimeoutSeconds = Math.max(1, validationTimeoutSeconds);
+            leakDetectionMillis = Math.max(0L, leakDetectionMillis);
+        }
+
+        public Settings withSize(int minSize, int maxSize) {
+            return new Settings(minSize, maxSize, idleTimeoutMillis, connectionTimeoutMillis,
+                    validationTimeoutSeconds, leakDetectionMillis);
+        }
+    }
+
+    public record Stats(String name, int active, int idle, int total, int maxSize, int waiting,
+                        long created, long timeouts, long leaks) {
+    }
+
+    private final class PooledConnection {
+        private final Connection connection;
+        private volatile long borrowedAt;
+        private volatile long returnedAt;
+        private volatile Exception borrowSite;
+        private volatile boolean leakReported;
+
+        private PooledConnection(Connection connection) {
+            this.connection = connection;
+        }
+
+        private Connection newHandle() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[] { Connection.class }, new Handle(this));
+        }
+    }
+
+    private final class Handle implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean released;
+
+        private Handle(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (!released) {
+                        released = true;
+                        release(pooled);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return released || pooled.connection.isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Pooled[" + name + "] " + pooled.connection;
+                }
+                default -> {
+                }
+            }
+            if (released) {
+                throw new SQLException("Connection has already been returned to pool " + name + ".");
+            }
+            try {
+                return method.invoke(pooled.connection, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+        }
+    }
+}
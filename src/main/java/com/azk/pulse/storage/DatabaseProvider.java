@@ -2,7 +2,20 @@ package com.azk.pulse.storage;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.List;
 
 public interface DatabaseProvider extends StorageProvider {
     Connection openConnection() throws SQLException;
+
+    default Connection openWriteConnection() throws SQLException {
+        return openConnection();
+    }
+
+    default SqlDialect getDialect() {
+        return SqlDialect.SQLITE;
+    }
+
+    default List<ConnectionPool.Stats> getPoolStats() {
+        return List.of();
+    }
 }
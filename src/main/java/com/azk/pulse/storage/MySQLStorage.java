@@ -3,6 +3,7 @@ package com.azk.pulse.storage;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.List;
 import java.util.Properties;
 import org.bukkit.plugin.java.JavaPlugin;
 
@@ -10,29 +11,56 @@ public class MySQLStorage implements DatabaseProvider {
     private final JavaPlugin plugin;
     private final String jdbcUrl;
     private final Properties properties = new Properties();
+    private final ConnectionPool.Settings poolSettings;
+    private ConnectionPool pool;
 
-    public MySQLStorage(JavaPlugin plugin, String host, int port, String database, String user, String password, boolean useSsl) {
+    public MySQLStorage(JavaPlugin plugin, String host, int port, String database, String user, String password,
+                        boolean useSsl, ConnectionPool.Settings poolSettings) {
         this.plugin = plugin;
         this.jdbcUrl = "jdbc:mysql://" + host + ":" + port + "/" + database + "?useSSL=" + useSsl + "&serverTimezone=UTC";
+        this.poolSettings = poolSettings;
         properties.setProperty("user", user);
         properties.setProperty("password", password);
     }
 
     @Override
-    public void init() {
+    public synchronized void init() {
+        if (pool != null) {
+            return;
+        }
         try {
             Class.forName("com.mysql.cj.jdbc.Driver");
         } catch (ClassNotFoundException ex) {
             plugin.getLogger().warning("MySQL JDBC driver not found.");
         }
+        pool = new ConnectionPool(plugin, "mysql", () -> DriverManager.getConnection(jdbcUrl, properties), poolSettings);
+        pool.start();
     }
 
     @Override
     public Connection openConnection() throws SQLException {
-        return DriverManager.getConnection(jdbcUrl, properties);
+        if (pool == null) {
+            init();
+        }
+        return pool.borrow();
+    }
+
+    @Override
+    public SqlDialect getDialect() {
+        return SqlDialect.MYSQL;
     }
 
     @Override
-    public void shutdown() {
+    public List<ConnectionPool.Stats> getPoolStats() {
+        ConnectionPool current = pool;
+        return current != null ? List.of(current.getStats()) : List.of();
+    }
+
+    @Override
+    public synchronized void shutdown() {
+        if (pool != null) {
+            pool.close();
+            pool = null;
+        }
     }
 }
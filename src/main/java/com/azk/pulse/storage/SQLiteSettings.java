@@ -0,0 +1,87 @@
+package com.azk.pulse.storage;
+
+import java.util.Locale;
+import org.bukkit.configuration.file.FileConfiguration;
+
+public record SQLiteSettings(Profile profile, String journalMode, String synchronous, long cacheSizeKb,
+                             long mmapSizeBytes, String tempStore, long busyTimeoutMillis,
+                             long checkpointIntervalSeconds) {
+
+    public static SQLiteSettings fromConfig(FileConfiguration config) {
+        Profile profile = Profile.parse(config.getString("storage.sqlite.profile", "balanced"));
+        String path = "storage.sqlite.pragmas.";
+        return new SQLiteSettings(
+                profile,
+                normalize(config.getString(path + "journal-mode", profile.journalMode), profile.journalMode,
+                        "WAL", "DELETE", "TRUNCATE", "PERSIST", "MEMORY"),
+                normalize(config.getString(path + "synchronous", profile.synchronous), profile.synchronous, "OFF", "NORMAL", "FULL", "EXTRA"),
+                config.getLong(path + "cache-size-kb", profile.cacheSizeKb),
+                Math.max(0L, config.getLong(path + "mmap-size-mb", profile.mmapSizeMb)) * 1024L * 1024L,
+                normalize(config.getString(path + "temp-store", profile.tempStore), profile.tempStore, "DEFAULT", "FILE", "MEMORY"),
+                Math.max(0L, config.getLong(path + "busy-timeout-ms", 5000L)),
+                Math.max(0L, config.getLong("storage.sqlite.checkpoint-interval-seconds", profile.checkpointIntervalSeconds))
+        );
+    }
+
+    public boolean walEnabled() {
+        return "WAL".equals(journalMode);
+    }
+
+    public String describe() {
+        return "profile=" + profile.name().toLowerCase(Locale.ROOT)
+                + ", journal_mode=" + journalMode
+                + ", synchronous=" + synchronous
+                + ", cache_size=" + cacheSizeKb + " KiB"
+                + ", mmap_size=" + (mmapSizeBytes / (1024L * 1024L)) + " MiB"
+                + ", temp_store=" + tempStore
+                + ", busy_timeout=" + busyTimeoutMillis + " ms"
+                + ", checkpoint=" + (walEnabled() && checkpointIntervalSeconds > 0 ? checkpointIntervalSeconds + " s" : "off");
+    }
+
+    private static String normalize(String value, String fallback, String... allowed) {
+        if (value == null) {
+            return fallback;
+        }
+        String upper = value.trim().toUpperCase(Locale.ROOT);
+        for (String candidate : allowed) {
+            if (candidate.equals(upper)) {
+                return upper;
+            }
+        }
+        return fallback;
+    }
+
+    public enum Profile {
+        DURABLE("WAL", "FULL", 8192L, 0L, "DEFAULT", 60L),
+        BALANCED("WAL", "NORMAL", 32768L, 128L, "MEMORY", 30L),
+        FAST("WAL", "OFF", 65536L, 256L, "MEMORY", 15L);
+
+        private final String journalMode;
+        private final String synchronous;
+        private final long cacheSizeKb;
+        private final long mmapSizeMb;
+        private final String tempStore;
+        private final long checkpointIntervalSeconds;
+
+        Profile(String journalMode, String synchronous, long cacheSizeKb, long mmapSizeMb, String tempStore,
+                long checkpointIntervalSeconds) {
+            this.journalMode = journalMode;
+            this.synchronous = synchronous;
+            this.cacheSizeKb = cacheSizeKb;
+            this.mmapSizeMb = mmapSizeMb;
+            this.tempStore = tempStore;
+            this.checkpointIntervalSeconds = checkpointIntervalSeconds;
+        }
+
+        public static Profile parse(String value) {
+            if (value != null) {
+                for (Profile profile : values()) {
+                    if (profile.name().equalsIgnoreCase(value.trim())) {
+                        return profile;
+                    }
+                }
+            }
+            return BALANCED;
+        }
+    }
+}
@@ -3,21 +3,40 @@ package com.azk.pulse.storage;
 import java.io.File;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import org.bukkit.plugin.java.JavaPlugin;
 
 public class SQLiteStorage implements DatabaseProvider {
     private final JavaPlugin plugin;
     private final String fileName;
+    private final ConnectionPool.Settings poolSettings;
+    private final int readConnections;
+    private final SQLiteSettings settings;
     private File databaseFile;
+    private ConnectionPool writePool;
+    private ConnectionPool readPool;
+    private ScheduledExecutorService checkpointer;
 
-    public SQLiteStorage(JavaPlugin plugin, String fileName) {
+    public SQLiteStorage(JavaPlugin plugin, String fileName, ConnectionPool.Settings poolSettings, int readConnections,
+                         SQLiteSettings settings) {
         this.plugin = plugin;
         this.fileName = fileName;
+        this.poolSettings = poolSettings;
+        this.readConnections = Math.max(1, readConnections);
+        this.settings = settings;
     }
 
     @Override
-    public void init() {
+    public synchronized void init() {
+        if (writePool != null) {
+            return;
+        }
         if (!plugin.getDataFolder().exists()) {
             plugin.getDataFolder().mkdirs();
         }
@@ -27,17 +46,117 @@ public class SQLiteStorage implements DatabaseProvider {
         } catch (ClassNotFoundException ex) {
             plugin.getLogger().warning("SQLite JDBC driver not found.");
         }
+        writePool = new ConnectionPool(plugin, "sqlite-write", this::createConnection, poolSettings.withSize(1, 1));
+        readPool = new ConnectionPool(plugin, "sqlite-read", this::createConnection,
+                poolSettings.withSize(Math.min(poolSettings.minSize(), readConnections), readConnections));
+        writePool.start();
+        readPool.start();
+        reportSettings();
+        if (settings.walEnabled() && settings.checkpointIntervalSeconds() > 0) {
+            checkpointer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "Pulse-SQLite-Checkpoint");
+                thread.setDaemon(true);
+                return thread;
+            });
+            checkpointer.scheduleWithFixedDelay(() -> checkpoint("PASSIVE"), settings.checkpointIntervalSeconds(),
+                    settings.checkpointIntervalSeconds(), TimeUnit.SECONDS);
+        }
     }
 
     @Override
     public Connection openConnection() throws SQLException {
-        if (databaseFile == null) {
+        if (readPool == null) {
+            init();
+        }
+        return readPool.borrow();
+    }
+
+    @Override
+    public Connection openWriteConnection() throws SQLException {
+        if (writePool == null) {
             init();
         }
-        return DriverManager.getConnection("jdbc:sqlite:" + databaseFile.getAbsolutePath());
+        return writePool.borrow();
     }
 
     @Override
-    public void shutdown() {
+    public List<ConnectionPool.Stats> getPoolStats() {
+        if (writePool == null) {
+            return List.of();
+        }
+        return List.of(writePool.getStats(), readPool.getStats());
+    }
+
+    @Override
+    public synchronized void shutdown() {
+        if (checkpointer != null) {
+            checkpointer.shutdownNow();
+            checkpointer = null;
+        }
+        if (writePool != null && settings.walEnabled()) {
+            checkpoint("TRUNCATE");
+        }
+        if (readPool != null) {
+            readPool.close();
+            readPool = null;
+        }
+        if (writePool != null) {
+            writePool.close();
+            writePool = null;
+        }
+    }
+
+    private Connection createConnection() throws SQLException {
+        Connection connection = DriverManager.getConnection("jdbc:sqlite:" + databaseFile.getAbsolutePath());
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("PRAGMA busy_timeout = " + settings.busyTimeoutMillis());
+            statement.execute("PRAGMA journal_mode = " + settings.journalMode());
+            statement.execute("PRAGMA synchronous = " + settings.synchronous());
+            statement.execute("PRAGMA cache_size = -" + Math.abs(settings.cacheSizeKb()));
+            statement.execute("PRAGMA mmap_size = " + settings.mmapSizeBytes());
+            statement.execute("PRAGMA temp_store = " + settings.tempStore());
+            if (settings.walEnabled()) {
+                statement.execute("PRAGMA wal_autocheckpoint = 1000");
+            }
+        } catch (SQLException ex) {
+            connection.close();
+            throw ex;
+        }
+        return connection;
+    }
+
+    private void checkpoint(String mode) {
+        try (Connection connection = writePool.borrow();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("PRAGMA wal_checkpoint(" + mode + ")")) {
+            if (resultSet.next() && resultSet.getInt(1) != 0) {
+                plugin.getLogger().fine("SQLite checkpoint (" + mode + ") was blocked by active readers.");
+            }
+        } catch (SQLException ex) {
+            plugin.getLogger().warning("SQLite checkpoint failed: " + ex.getMessage());
+        }
+    }
+
+    private void reportSettings() {
+        try (Connection connection = writePool.borrow();
+             Statement statement = connection.createStatement()) {
+            String journalMode = pragma(statement, "journal_mode");
+            plugin.getLogger().info("SQLite " + fileName + ": " + settings.describe()
+                    + " (effective journal_mode=" + journalMode
+                    + ", synchronous=" + pragma(statement, "synchronous")
+                    + ", page_size=" + pragma(statement, "page_size") + ")");
+            if (!settings.journalMode().equalsIgnoreCase(journalMode)) {
+                plugin.getLogger().warning("SQLite journal mode " + settings.journalMode()
+                        + " could not be applied; running with " + journalMode + ".");
+            }
+        } catch (SQLException ex) {
+            plugin.getLogger().warning("Failed to read SQLite settings: " + ex.getMessage());
+        }
+    }
+
+    private String pragma(Statement statement, String name) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery("PRAGMA " + name)) {
+            return resultSet.next() ? resultSet.getString(1) : "?";
+        }
     }
 }
@@ -0,0 +1,82 @@
+package com.azk.pulse.storage;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+public enum SqlDialect {
+    SQLITE,
+    MYSQL;
+
+    public String autoIncrementKey() {
+        return this == MYSQL ? "BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY" : "INTEGER PRIMARY KEY";
+    }
+
+    public String chunkKeyExpression(String xColumn, String zColumn) {
+        String chunkX = this == MYSQL ? "FLOOR(" + xColumn + " / 16)" : "(" + xColumn + " >> 4)";
+        String chunkZ = this == MYSQL ? "FLOOR(" + zColumn + " / 16)" : "(" + zColumn + " >> 4)";
+        // MySQL bit operators return BIGINT UNSIGNED, which would turn the sum unsigned for negative chunk X.
+        String lowBits = this == MYSQL
+                ? "CAST(" + chunkZ + " & 4294967295 AS SIGNED)"
+                : "(" + chunkZ + " & 4294967295)";
+        return chunkX + " * 4294967296 + " + lowBits;
+    }
+
+    public boolean columnExists(Connection connection, String table, String column) throws SQLException {
+        try (ResultSet resultSet = connection.getMetaData().getColumns(null, null, table, column)) {
+            return resultSet.next();
+        }
+    }
+
+    public String boundedDelete(String table, String condition) {
+        if (this == MYSQL) {
+            return "DELETE FROM " + table + " WHERE " + condition + " LIMIT ?";
+        }
+        return "DELETE FROM " + table + " WHERE id IN (SELECT id FROM " + table + " WHERE " + condition + " LIMIT ?)";
+    }
+
+    public String indexHint(String index) {
+        return this == MYSQL ? " FORCE INDEX (" + index + ")" : " INDEXED BY " + index;
+    }
+
+    public String createIndex(String name, String table, String columns) {
+        if (this == MYSQL) {
+            return "CREATE INDEX " + name + " ON " + table + "(" + columns + ")";
+        }
+        return "CREATE INDEX IF NOT EXISTS " + name + " ON " + table + "(" + columns + ")";
+    }
+
+    public boolean tableExists(Connection connection, String table) throws SQLException {
+        try (ResultSet resultSet = connection.getMetaData().getTables(null, null, table, new String[] { "TABLE" })) {
+            return resultSet.next();
+        }
+    }
+
+    public boolean indexExists(Connection connection, String table, String index) throws SQLException {
+        try (ResultSet resultSet = connection.getMetaData().getIndexInfo(null, null, table, false, true)) {
+            while (resultSet.next()) {
+                if (index.equalsIgnoreCase(resultSet.getString("INDEX_NAME"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public long tableSizeBytes(Connection connection, String table) {
+        String sql = this == MYSQL
+                ? "SELECT data_length + index_length FROM information_schema.TABLES "
+                        + "WHERE table_schema = DATABASE() AND table_name = ?"
+                : "SELECT SUM(pgsize) FROM dbstat WHERE name IN "
+                        + "(SELECT name FROM sqlite_master WHERE tbl_name = ?)";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, table);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getLong(1) : -1L;
+            }
+        } catch (SQLException ex) {
+            return -1L;
+        }
+    }
+}
@@ -4,9 +4,15 @@ import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.plugin.java.JavaPlugin;
 
 public final class StorageFactory {
+    public static final String PULSELOG = "pulselog";
+
     private StorageFactory() {
     }
 
+    public static boolean usesLogSegments(FileConfiguration config) {
+        return PULSELOG.equalsIgnoreCase(config.getString("storage.type", "sqlite"));
+    }
+
     public static DatabaseProvider create(JavaPlugin plugin, FileConfiguration config) {
         String type = config.getString("storage.type", "sqlite");
         if (type != null && type.equalsIgnoreCase("mysql")) {
@@ -16,8 +22,21 @@ public final class StorageFactory {
             String user = config.getString("storage.mysql.user", "root");
             String password = config.getString("storage.mysql.password", "");
             boolean useSsl = config.getBoolean("storage.mysql.use-ssl", false);
-            return new MySQLStorage(plugin, host, port, database, user, password, useSsl);
+            return new MySQLStorage(plugin, host, port, database, user, password, useSsl, poolSettings(config));
         }
-        return new SQLiteStorage(plugin, "pulse.db");
+        int readConnections = config.getInt("storage.sqlite.read-connections", 4);
+        return new SQLiteStorage(plugin, "pulse.db", poolSettings(config), readConnections,
+                SQLiteSettings.fromConfig(config));
+    }
+
+    private static ConnectionPool.Settings poolSettings(FileConfiguration config) {
+        return new ConnectionPool.Settings(
+                config.getInt("storage.pool.min-size", 1),
+                config.getInt("storage.pool.max-size", 8),
+                config.getLong("storage.pool.idle-timeout-seconds", 600L) * 1000L,
+                config.getLong("storage.pool.connection-timeout-ms", 10000L),
+                config.getInt("storage.pool.validation-timeout-seconds", 3),
+                config.getLong("storage.pool.leak-detection-seconds", 60L) * 1000L
+        );
     }
 }
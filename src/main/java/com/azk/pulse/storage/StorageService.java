@@ -0,0 +1,122 @@
+package com.azk.pulse.storage;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.plugin.java.JavaPlugin;
+
+public class StorageService {
+    private final JavaPlugin plugin;
+    private final List<Flushable> flushables = new CopyOnWriteArrayList<>();
+    private DatabaseProvider provider;
+    private ScheduledExecutorService writer;
+
+    public StorageService(JavaPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    public synchronized void start(FileConfiguration config) {
+        if (provider != null) {
+            return;
+        }
+        provider = StorageFactory.create(plugin, config);
+        provider.init();
+        writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Pulse-Storage-Writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public synchronized void shutdown() {
+        ScheduledExecutorService current = writer;
+        writer = null;
+        if (current != null) {
+            current.shutdown();
+            try {
+                if (!current.awaitTermination(10, TimeUnit.SECONDS)) {
+                    plugin.getLogger().warning("Storage writer did not stop in time; flushing remaining writes.");
+                    current.shutdownNow();
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (Flushable flushable : flushables) {
+            try {
+                flushable.flush();
+            } catch (RuntimeException ex) {
+                plugin.getLogger().warning("Failed to flush pending writes: " + ex.getMessage());
+            }
+        }
+        flushables.clear();
+        if (provider != null) {
+            provider.shutdown();
+            provider = null;
+        }
+    }
+
+    public DatabaseProvider getProvider() {
+        return provider;
+    }
+
+    public boolean isRunning() {
+        return provider != null;
+    }
+
+    public void register(Flushable flushable) {
+        flushables.add(flushable);
+    }
+
+    public void unregister(Flushable flushable) {
+        flushables.remove(flushable);
+    }
+
+    public boolean submitWrite(Runnable task) {
+        ScheduledExecutorService current = writer;
+        if (current == null) {
+            return false;
+        }
+        try {
+            current.execute(() -> runSafely(task));
+            return true;
+        } catch (RejectedExecutionException ex) {
+            return false;
+        }
+    }
+
+    public ScheduledFuture<?> scheduleWrite(Runnable task, long periodMillis) {
+        ScheduledExecutorService current = writer;
+        if (current == null) {
+            return null;
+        }
+        try {
+            return current.scheduleWithFixedDelay(() -> runSafely(task), periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ex) {
+            return null;
+        }
+    }
+
+    public List<ConnectionPool.Stats> getPoolStats() {
+        DatabaseProvider current = provider;
+        return current != null ? current.getPoolStats() : List.of();
+    }
+
+    private void runSafely(Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException ex) {
+            plugin.getLogger().warning("Storage write task failed: " + ex.getMessage());
+        }
+    }
+
+    @FunctionalInterface
+    public interface Flushable {
+        void flush();
+    }
+}